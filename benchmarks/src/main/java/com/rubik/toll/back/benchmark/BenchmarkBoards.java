@@ -0,0 +1,77 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.Board;
+import com.rubik.toll.back.puzzle.PuzzleShuffler;
+
+import java.util.Random;
+
+/**
+ * 可复现的测试棋盘：从目标状态出发，用固定种子随机游走
+ */
+final class BenchmarkBoards {
+    /**
+     * 随机游走步数 = 格子数 * 该倍数，足以把所有数字打散
+     */
+    private static final int MOVES_PER_CELL = 20;
+
+    private BenchmarkBoards() {
+    }
+
+    static Board shuffled(int rows, int cols, long seed) {
+        Board board = new Board(rows, cols);
+        Random random = new Random(seed);
+        int[] candidates = new int[4];
+        int moves = rows * cols * MOVES_PER_CELL;
+        for (int i = 0; i < moves; i++) {
+            int empty = board.getEmptyIndex();
+            int row = empty / cols;
+            int col = empty % cols;
+            int count = 0;
+            if (row > 0) {
+                candidates[count++] = empty - cols;
+            }
+            if (row < rows - 1) {
+                candidates[count++] = empty + cols;
+            }
+            if (col > 0) {
+                candidates[count++] = empty - 1;
+            }
+            if (col < cols - 1) {
+                candidates[count++] = empty + 1;
+            }
+            board.move(candidates[random.nextInt(count)]);
+        }
+        return board;
+    }
+
+    /**
+     * count 个均匀随机的可解 size x size 棋盘，第 i 个的种子为 seed + i
+     */
+    static int[][] uniform(int size, int count, long seed) {
+        int[][] boards = new int[count][];
+        for (int i = 0; i < count; i++) {
+            Board board = new Board(size);
+            new PuzzleShuffler(board, seed + i).randomize();
+            boards[i] = board.getTiles().clone();
+        }
+        return boards;
+    }
+
+    /**
+     * 随机排列，约一半无解，用于可解性判断
+     */
+    static int[] permutation(int cells, long seed) {
+        Random random = new Random(seed);
+        int[] tiles = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            tiles[i] = i;
+        }
+        for (int i = cells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = tiles[i];
+            tiles[i] = tiles[j];
+            tiles[j] = temp;
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,71 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.Board;
+import com.rubik.toll.back.puzzle.BoardOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次交换的耗时（含移动记录和哈希更新）
+ * <p>
+ * 空格在右下角的2x2方块里循环移动，每次调用交换 {@value #SWAPS} 次。
+ * 移动记录会一直增长，因此每轮迭代重新创建操作对象。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class BoardOperatorBenchmark {
+    private static final int SWAPS = 1024;
+
+    @Param({"3", "4", "8", "16", "32", "64", "100", "200"})
+    int size;
+
+    private BoardOperator operator;
+    private int[] loop;
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        Board board = BenchmarkBoards.shuffled(size, size, 42L);
+        operator = new BoardOperator(board);
+        // 先把空格移到右下角，再沿 左上、右上、右下、左下 循环
+        int empty = board.getEmptyIndex();
+        int last = size * size - 1;
+        while (empty % size != size - 1) {
+            operator.swapNeighbor(empty + 1, empty);
+            empty++;
+        }
+        while (empty != last) {
+            operator.swapNeighbor(empty + size, empty);
+            empty += size;
+        }
+        loop = new int[]{last - 1, last - 1 - size, last - size, last};
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SWAPS)
+    public long swapNeighbor() {
+        int empty = size * size - 1;
+        for (int i = 0; i < SWAPS; i++) {
+            int next = loop[i & 3];
+            operator.swapNeighbor(next, empty);
+            empty = next;
+        }
+        return operator.getHash();
+    }
+}
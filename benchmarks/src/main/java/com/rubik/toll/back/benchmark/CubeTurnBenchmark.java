@@ -0,0 +1,68 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.rubik.CubeSolver;
+import com.rubik.toll.back.rubik.cube.Cube;
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 魔方面转动和层先法整体求解的耗时：turn 依次执行全部18种转动，按单次转动计时；
+ * solve 轮换一组用固定种子预先打乱的魔方，在方法内复制后求解。
+ * 不用 Level.Invocation 的 Setup：单次求解只有几十微秒，逐次 Setup 的开销会扭曲结果
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class CubeTurnBenchmark {
+    private static final CubeMove[] MOVES = CubeMove.values();
+    // 必须是2的幂，轮换下标用位与取模
+    private static final int BATCH = 64;
+
+    private final Cube cube = new Cube();
+    private Cube[] scrambled;
+    private int next;
+
+    @Setup
+    public void scramble() {
+        Random random = new Random(42L);
+        scrambled = new Cube[BATCH];
+        for (int k = 0; k < BATCH; k++) {
+            scrambled[k] = new Cube();
+            for (int i = 0; i < 25; i++) {
+                scrambled[k].apply(MOVES[random.nextInt(MOVES.length)]);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(18)
+    public Cube turn() {
+        for (CubeMove move : MOVES) {
+            cube.apply(move);
+        }
+        return cube;
+    }
+
+    @Benchmark
+    public Cube solve() {
+        Cube target = scrambled[next++ & (BATCH - 1)].clone();
+        new CubeSolver(target).solve();
+        return target;
+    }
+}
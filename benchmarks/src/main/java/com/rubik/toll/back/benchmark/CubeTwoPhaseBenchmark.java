@@ -0,0 +1,55 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.rubik.cube.Cube;
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import com.rubik.toll.back.rubik.solver.twophase.TwoPhaseSolver;
+import com.rubik.toll.back.rubik.solver.twophase.TwoPhaseTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两阶段算法求解随机状态的耗时：表在 Trial 开始前读取或生成，不计入；每次调用前用固定种子重新打乱40步
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class CubeTwoPhaseBenchmark {
+    private static final CubeMove[] MOVES = CubeMove.values();
+
+    private final Random random = new Random(42L);
+    private TwoPhaseSolver solver;
+    private Cube scrambled;
+
+    @Setup(Level.Trial)
+    public void loadTables() {
+        solver = new TwoPhaseSolver(TwoPhaseTables.getDefault());
+    }
+
+    @Setup(Level.Invocation)
+    public void scramble() {
+        scrambled = new Cube();
+        for (int i = 0; i < 40; i++) {
+            scrambled.apply(MOVES[random.nextInt(MOVES.length)]);
+        }
+    }
+
+    @Benchmark
+    public CubeMove[] solve() {
+        return solver.solve(scrambled);
+    }
+}
@@ -0,0 +1,63 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.ManhattanLinearConflict;
+import com.rubik.toll.back.puzzle.ParallelIdaStarSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 4x4 最优求解的耗时与线程数的关系
+ * <p>
+ * 每次调用依次求解同一组均匀随机的棋盘；单线程 IDA* 的基线在 {@link SequentialIdaStarBenchmark} 中，
+ * 与线程数无关，不随 threads 重复测量。加速比 = 基线耗时 / parallel 在各个 threads 下的耗时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class ParallelIdaStarBenchmark {
+    static final int BOARDS = 8;
+    static final long SEED = 42L;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    int threads;
+
+    private int[][] boards;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        boards = BenchmarkBoards.uniform(4, BOARDS, SEED);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long parallel() {
+        long length = 0;
+        for (int[] tiles : boards) {
+            length += new ParallelIdaStarSolver(4, 4, new ManhattanLinearConflict(4, 4), pool).solve(tiles).length;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,85 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.PathFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次寻路的耗时
+ * <p>
+ * 分治求解中的寻路大多是短距离的（数字向目标挪一格、空格绕到数字前面），
+ * 所以 near 模式下起点和终点相距不超过3格；far 模式下在整盘上随机取点，对应最坏情况。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class PathFinderBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"3", "4", "8", "16", "32", "64", "100", "200"})
+    int size;
+
+    @Param({"true", "false"})
+    boolean windowed;
+
+    @Param({"near", "far"})
+    String distance;
+
+    private PathFinder pathFinder;
+    private int[] path;
+    private final int[] from = new int[QUERIES];
+    private final int[] to = new int[QUERIES];
+    private final int[] still = new int[QUERIES];
+
+    @Setup
+    public void prepare() {
+        pathFinder = new PathFinder(size, size, new boolean[size * size]);
+        pathFinder.setWindowed(windowed);
+        path = new int[size * size];
+        Random random = new Random(7L);
+        int reach = "near".equals(distance) ? 3 : size;
+        for (int i = 0; i < QUERIES; i++) {
+            int fx = random.nextInt(size);
+            int fy = random.nextInt(size);
+            int tx = clamp(fx + random.nextInt(2 * reach + 1) - reach);
+            int ty = clamp(fy + random.nextInt(2 * reach + 1) - reach);
+            from[i] = fx * size + fy;
+            to[i] = tx * size + ty;
+            // 与起点相邻的格子作为不能经过的格子，模拟移动数字时空格绕行
+            still[i] = fx + 1 < size ? from[i] + size : from[i] - size;
+            if (still[i] == to[i]) {
+                still[i] = -1;
+            }
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int findPath() {
+        int total = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            total += pathFinder.findPath(from[i], to[i], still[i], path);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,43 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.IdaStarSolver;
+import com.rubik.toll.back.puzzle.ManhattanLinearConflict;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单线程 IDA* 求解与 {@link ParallelIdaStarBenchmark} 相同的一组 4x4 棋盘，作为计算加速比的基线
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class SequentialIdaStarBenchmark {
+    private int[][] boards;
+
+    @Setup
+    public void prepare() {
+        boards = BenchmarkBoards.uniform(4, ParallelIdaStarBenchmark.BOARDS, ParallelIdaStarBenchmark.SEED);
+    }
+
+    @Benchmark
+    public long sequential() {
+        long length = 0;
+        for (int[] tiles : boards) {
+            length += new IdaStarSolver(4, 4, new ManhattanLinearConflict(4, 4)).solve(tiles).length;
+        }
+        return length;
+    }
+}
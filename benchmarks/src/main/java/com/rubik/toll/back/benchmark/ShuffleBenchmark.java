@@ -0,0 +1,53 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.Board;
+import com.rubik.toll.back.puzzle.PuzzleShuffler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 随机打乱的耗时：shuffle 是随机走的单步耗时，每次调用走 {@value #MOVES} 步；
+ * randomize 是生成一个均匀随机可解棋盘的整体耗时
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class ShuffleBenchmark {
+    private static final int MOVES = 4096;
+
+    @Param({"3", "4", "8", "16", "32", "64", "100", "200"})
+    int size;
+
+    private PuzzleShuffler shuffler;
+
+    @Setup
+    public void prepare() {
+        shuffler = new PuzzleShuffler(new Board(size), 42L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public int[] shuffle() {
+        return shuffler.shuffle(MOVES);
+    }
+
+    @Benchmark
+    public int[] randomize() {
+        return shuffler.randomize();
+    }
+}
@@ -0,0 +1,62 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.SolvabilityChecker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可解性判断：复用实例的单次判断和批量接口。单次判断每次调用轮换到下一个棋盘，
+ * 不会反复判断同一个棋盘（分支预测和缓存都会被同一份数据“训练”）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class SolvabilityBenchmark {
+    // 必须是2的幂，轮换下标用位与取模
+    private static final int BATCH = 64;
+
+    @Param({"3", "4", "8", "16", "32", "64", "100", "200"})
+    int size;
+
+    private SolvabilityChecker[] checkers;
+    private int[][] boards;
+    private int next;
+
+    @Setup
+    public void prepare() {
+        boards = new int[BATCH][];
+        for (int i = 0; i < BATCH; i++) {
+            boards[i] = BenchmarkBoards.permutation(size * size, i);
+        }
+        checkers = new SolvabilityChecker[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            checkers[i] = new SolvabilityChecker(boards[i], size, size);
+        }
+    }
+
+    @Benchmark
+    public boolean isSolvable() {
+        return checkers[next++ & (BATCH - 1)].isSolvable();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean[] areSolvable() {
+        return SolvabilityChecker.areSolvable(boards, size, size);
+    }
+}
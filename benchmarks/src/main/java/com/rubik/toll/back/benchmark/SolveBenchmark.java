@@ -0,0 +1,49 @@
+package com.rubik.toll.back.benchmark;
+
+import com.rubik.toll.back.puzzle.Board;
+import com.rubik.toll.back.puzzle.NumberPuzzleSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分治求解整盘的耗时，包括可解性判断和移动序列优化
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-bench.xml")
+public class SolveBenchmark {
+    @Param({"3", "4", "8", "16", "32", "64", "100", "200"})
+    int size;
+
+    private Board initial;
+
+    @Setup
+    public void prepare() {
+        initial = BenchmarkBoards.shuffled(size, size, 42L);
+    }
+
+    /**
+     * 求解会修改棋盘，在方法内复制一份；复制是 O(n) 的，相对求解可以忽略。
+     * 不用 Level.Invocation 的 Setup：小棋盘只需几微秒，逐次 Setup 的开销会明显扭曲结果
+     */
+    @Benchmark
+    public Object solve() {
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(initial.clone());
+        solver.solve();
+        return solver.getMoveLog();
+    }
+}
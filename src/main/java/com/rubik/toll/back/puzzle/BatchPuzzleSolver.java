@@ -0,0 +1,215 @@
+package com.rubik.toll.back.puzzle;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 批量求解数字华容道
+ * <p>
+ * 每个棋盘一个任务，在可配置的线程池上执行，默认使用虚拟线程（运行在 JDK 21 及以上时），
+ * 否则退回到与 CPU 核数相同的固定线程池。输入的棋盘不会被修改，每个任务在副本上求解。
+ * <p>
+ * 截止时间按每个棋盘单独计算，从该棋盘开始求解时算起，由求解器协作检查：
+ * 分治求解每放好一个数字检查一次，IDA* 每展开 65536 个节点检查一次，
+ * 所以超时的任务会很快停下并释放线程，而不是在后台继续占用 CPU。
+ * <p>
+ * 寻路数组等缓冲区按棋盘尺寸放在池中，任务开始时借出、结束时归还。
+ * 虚拟线程不会被复用，ThreadLocal 起不到复用的作用，因此这里用共享的池。
+ * 每种尺寸最多保留 maxInFlight 份，{@link #submit} 的并发超过这个数时多出来的缓冲区用完即丢弃；
+ * {@link #close()} 时清空。
+ */
+public class BatchPuzzleSolver implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(BatchPuzzleSolver.class);
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final SolveMode mode;
+    private final int maxInFlight;
+    private final SolutionCache cache;
+    private final Map<Long, Queue<SolverContext>> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * 使用默认线程池和分治求解
+     */
+    public BatchPuzzleSolver() {
+        this(defaultExecutor(), true, SolveMode.DIVIDE_AND_CONQUER,
+                Runtime.getRuntime().availableProcessors() * 4, null);
+    }
+
+    /**
+     * @param executor    执行求解任务的线程池，由调用方负责关闭
+     * @param mode        求解方式
+     * @param maxInFlight {@link #solveAll} 同时提交的最大任务数，避免一次性为海量棋盘创建任务
+     */
+    public BatchPuzzleSolver(ExecutorService executor, SolveMode mode, int maxInFlight) {
+        this(executor, false, mode, maxInFlight, null);
+    }
+
+    /**
+     * @param cache 所有任务共享的解缓存，重复的棋盘只求解一次
+     */
+    public BatchPuzzleSolver(ExecutorService executor, SolveMode mode, int maxInFlight, SolutionCache cache) {
+        this(executor, false, mode, maxInFlight, cache);
+    }
+
+    private BatchPuzzleSolver(ExecutorService executor, boolean ownsExecutor, SolveMode mode, int maxInFlight,
+                              SolutionCache cache) {
+        if (executor == null || mode == null) {
+            throw new IllegalArgumentException("线程池和求解方式不能为空");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("同时提交的任务数必须为正数");
+        }
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.mode = mode;
+        this.maxInFlight = maxInFlight;
+        this.cache = cache;
+    }
+
+    /**
+     * JDK 21 起有 Executors.newVirtualThreadPerTaskExecutor()，项目按 17 编译，所以通过反射获取
+     */
+    static ExecutorService defaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.debug("当前JDK不支持虚拟线程，使用固定线程池");
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "puzzle-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 异步求解一个棋盘
+     *
+     * @param index   结果中记录的下标
+     * @param timeout 从开始求解算起的时限，null 表示不限时
+     */
+    public CompletableFuture<PuzzleSolveResult> submit(int index, Board board, Duration timeout) {
+        if (board == null) {
+            throw new IllegalArgumentException("棋盘不能为空");
+        }
+        return CompletableFuture.supplyAsync(() -> solveOne(index, board, timeout), executor);
+    }
+
+    /**
+     * 求解一批棋盘，阻塞直到全部完成，结果与输入一一对应
+     * <p>
+     * 先检查全部输入再提交任务，有空棋盘时不会有任何任务开始执行。
+     *
+     * @param timeout 每个棋盘从开始求解算起的时限，null 表示不限时
+     * @throws IllegalArgumentException 列表或其中的棋盘为空
+     */
+    public List<PuzzleSolveResult> solveAll(List<Board> boards, Duration timeout) {
+        if (boards == null) {
+            throw new IllegalArgumentException("棋盘列表不能为空");
+        }
+        for (int i = 0; i < boards.size(); i++) {
+            if (boards.get(i) == null) {
+                throw new IllegalArgumentException("第" + i + "个棋盘为空");
+            }
+        }
+        Semaphore permits = new Semaphore(maxInFlight);
+        List<CompletableFuture<PuzzleSolveResult>> futures = new ArrayList<>(boards.size());
+        for (int i = 0; i < boards.size(); i++) {
+            permits.acquireUninterruptibly();
+            CompletableFuture<PuzzleSolveResult> future;
+            try {
+                future = submit(i, boards.get(i), timeout);
+            } catch (RuntimeException e) {
+                // 线程池拒绝任务时许可不会再由回调归还
+                permits.release();
+                throw e;
+            }
+            future.whenComplete((result, error) -> permits.release());
+            futures.add(future);
+        }
+        List<PuzzleSolveResult> results = new ArrayList<>(boards.size());
+        for (CompletableFuture<PuzzleSolveResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private PuzzleSolveResult solveOne(int index, Board board, Duration timeout) {
+        long start = System.nanoTime();
+        SolverContext context = acquire(board.getRows(), board.getCols());
+        try {
+            NumberPuzzleSolver solver = new NumberPuzzleSolver(board.clone(), context);
+            solver.setVerbose(false);
+            solver.setSolutionCache(cache);
+            if (timeout != null) {
+                solver.setDeadline(start + timeout.toNanos());
+            }
+            boolean solved = solver.solve(mode);
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            return solved
+                    ? new PuzzleSolveResult(index, PuzzleSolveResult.Status.SOLVED, solver.getMoveLog(), elapsed, null)
+                    : new PuzzleSolveResult(index, PuzzleSolveResult.Status.UNSOLVABLE, null, elapsed, null);
+        } catch (SolveTimeoutException e) {
+            return new PuzzleSolveResult(index, PuzzleSolveResult.Status.TIMED_OUT, null,
+                    Duration.ofNanos(System.nanoTime() - start), e);
+        } catch (RuntimeException e) {
+            logger.warn("第{}个棋盘求解失败", index, e);
+            return new PuzzleSolveResult(index, PuzzleSolveResult.Status.FAILED, null,
+                    Duration.ofNanos(System.nanoTime() - start), e);
+        } finally {
+            release(context);
+        }
+    }
+
+    private SolverContext acquire(int xsize, int ysize) {
+        SolverContext context = pool(xsize, ysize).poll();
+        return context != null ? context : new SolverContext(xsize, ysize);
+    }
+
+    private void release(SolverContext context) {
+        Queue<SolverContext> pool = pool(context.xsize, context.ysize);
+        // size() 要遍历队列，但长度不超过 maxInFlight；并发归还时可能略微超出，不影响正确性
+        if (pool.size() < maxInFlight) {
+            pool.offer(context);
+        }
+    }
+
+    private Queue<SolverContext> pool(int xsize, int ysize) {
+        return contexts.computeIfAbsent((long) xsize << 32 | ysize, key -> new ConcurrentLinkedQueue<>());
+    }
+
+    /**
+     * 释放缓冲区池，并关闭默认创建的线程池；构造时传入的线程池由调用方管理
+     */
+    @Override
+    public void close() {
+        contexts.clear();
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 池中保留的缓冲区份数，供测试检查
+     */
+    int pooledContexts() {
+        int count = 0;
+        for (Queue<SolverContext> pool : contexts.values()) {
+            count += pool.size();
+        }
+        return count;
+    }
+}
@@ -2,115 +2,185 @@ package com.rubik.toll.back.puzzle;
 
 import java.util.Arrays;
 
+/**
+ * rows x cols 的数字华容道棋盘
+ * <p>
+ * 数字按行优先顺序存放在一个一维数组中，格子 (row, col) 的下标为 row * cols + col，0 表示空格。
+ * 目标状态是 1 ~ rows*cols-1 依次排列，空格在右下角。
+ * <p>
+ * 棋盘维护一个增量更新的 64 位 {@link Zobrist} 哈希，{@link #hashCode()} 是 O(1) 的，{@link #equals(Object)} 逐格比较内容，
+ * 可以直接作为置换表或解缓存的键。只能通过 {@link #move(int)} 或绑定了本棋盘的 {@link BoardOperator} 修改棋盘，
+ * 这两种方式都会同步哈希；{@link #getTiles()} 返回的数组只读，确实需要整体改写时，改写后必须调用 {@link #refresh()}。
+ */
 public class Board implements Cloneable {
-    private final int[][] tiles;
-    private int size = 0;
-    private int[] emptyPosition;
+    private final int[] tiles;
+    private final int rows;
+    private final int cols;
+    private int emptyIndex;
+    private long zobrist;
 
-    public Board(int[][] tiles) {
-        if (tiles == null || tiles.length == 0 || tiles[0].length != tiles.length) {
+    /**
+     * 已复原的 rows x cols 棋盘
+     */
+    public Board(int rows, int cols) {
+        checkSize(rows, cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.tiles = new int[rows * cols];
+        initializeBoard();
+        this.zobrist = Zobrist.hash(this.tiles);
+    }
+
+    public Board(int size) {
+        this(size, size);
+    }
+
+    /**
+     * 按行优先展开的 rows x cols 棋盘，会复制输入数组
+     */
+    public Board(int[] tiles, int rows, int cols) {
+        checkSize(rows, cols);
+        if (tiles == null || tiles.length != rows * cols) {
             throw new IllegalArgumentException("输入棋盘无效");
         }
-        this.size = tiles.length;
-        if (size < 2) {
-            throw new IllegalArgumentException("棋盘最少宽2");
-        }
-        this.tiles = tiles;
+        this.rows = rows;
+        this.cols = cols;
+        this.tiles = tiles.clone();
         if (!isValidInput()) {
             throw new IllegalArgumentException("输入棋盘无效");
         }
         findEmptyPosition();
+        this.zobrist = Zobrist.hash(this.tiles);
     }
 
-    public Board(int size) {
-        if (size < 2) {
+    /**
+     * 按行优先展开的正方形棋盘，边长由数组长度推出
+     */
+    public Board(int[] tiles) {
+        this(tiles, squareSide(tiles), squareSide(tiles));
+    }
+
+    /**
+     * 二维数组形式的棋盘，每行长度必须相同，会复制输入数组
+     */
+    public Board(int[][] tiles) {
+        this(flatten(tiles), tiles.length, tiles[0].length);
+    }
+
+    private static void checkSize(int rows, int cols) {
+        if (rows < 2 || cols < 2) {
             throw new IllegalArgumentException("棋盘最少宽2");
         }
-        this.size = size;
-        this.tiles = new int[size][size];
-        initializeBoard();
     }
 
-    public Board(int[] tiles) {
-        for (int i = 2; i <= 100; i++) {
-            if (tiles.length == i * i) {
-                this.size = i;
-                break;
-            } else if (tiles.length < i * i) {
-                throw new IllegalArgumentException("输入棋盘无效");
-            }
-        }
-        if (this.size == 0) {
+    private static int squareSide(int[] tiles) {
+        if (tiles == null) {
             throw new IllegalArgumentException("输入棋盘无效");
         }
-        this.tiles = new int[size][size];
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                this.tiles[i][j] = tiles[i * size + j];
-            }
+        int side = (int) Math.round(Math.sqrt(tiles.length));
+        if (side * side != tiles.length) {
+            throw new IllegalArgumentException("输入棋盘无效");
         }
-        if (!isValidInput()) {
+        return side;
+    }
+
+    private static int[] flatten(int[][] tiles) {
+        if (tiles == null || tiles.length == 0 || tiles[0] == null) {
             throw new IllegalArgumentException("输入棋盘无效");
         }
-        findEmptyPosition();
+        int cols = tiles[0].length;
+        int[] flat = new int[tiles.length * cols];
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == null || tiles[i].length != cols) {
+                throw new IllegalArgumentException("输入棋盘无效");
+            }
+            System.arraycopy(tiles[i], 0, flat, i * cols, cols);
+        }
+        return flat;
     }
 
     private void initializeBoard() {
-        int value = 1;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (i == size - 1 && j == size - 1) {
-                    tiles[i][j] = 0;
-                } else {
-                    tiles[i][j] = value++;
-                }
-            }
+        for (int i = 0; i < tiles.length - 1; i++) {
+            tiles[i] = i + 1;
         }
-        emptyPosition = new int[]{size - 1, size - 1};
+        tiles[tiles.length - 1] = 0;
+        emptyIndex = tiles.length - 1;
     }
 
     // 验证输入是否有效
     private boolean isValidInput() {
-        boolean[] used = new boolean[size * size];
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                int num = tiles[i][j];
-                if (num < 0 || num > size * size - 1 || used[num])
-                    return false;
-                used[num] = true;
-            }
+        boolean[] used = new boolean[tiles.length];
+        for (int num : tiles) {
+            if (num < 0 || num > tiles.length - 1 || used[num])
+                return false;
+            used[num] = true;
         }
         return true;
     }
 
     private void findEmptyPosition() {
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (tiles[i][j] == 0) {
-                    emptyPosition = new int[]{i, j};
-                    return;
-                }
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == 0) {
+                emptyIndex = i;
+                return;
             }
         }
     }
 
-    public int[][] getTiles() {
+    /**
+     * 棋盘数组本身（不是副本），只用于读取；直接改写后要调用 {@link #refresh()}，否则哈希和空格位置都会失效
+     */
+    public int[] getTiles() {
         return tiles;
     }
 
+    public int getTile(int row, int col) {
+        return tiles[row * cols + col];
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * 正方形棋盘的边长
+     */
     public int getSize() {
-        return size;
+        if (rows != cols) {
+            throw new IllegalStateException("不是正方形棋盘：" + rows + "x" + cols);
+        }
+        return rows;
+    }
+
+    /**
+     * 空格所在的格子下标
+     */
+    public int getEmptyIndex() {
+        // 棋盘数组可能被外部直接修改过，缓存的位置失效时重新查找
+        if (tiles[emptyIndex] != 0) {
+            findEmptyPosition();
+        }
+        return emptyIndex;
     }
 
     public int[] getEmptyPosition() {
-        return emptyPosition;
+        int empty = getEmptyIndex();
+        return new int[]{empty / cols, empty % cols};
     }
 
     public boolean canMove(int position) {
-        int targetRow = position / size;
-        int targetCol = position % size;
+        if (position < 0 || position >= tiles.length) {
+            return false;
+        }
+        int empty = getEmptyIndex();
+        int targetRow = position / cols;
+        int targetCol = position % cols;
 
-        return (Math.abs(emptyPosition[0] - targetRow) + Math.abs(emptyPosition[1] - targetCol)) == 1;
+        return (Math.abs(empty / cols - targetRow) + Math.abs(empty % cols - targetCol)) == 1;
     }
 
     public void move(int position) {
@@ -118,26 +188,44 @@ public class Board implements Cloneable {
             throw new IllegalArgumentException("无效的移动");
         }
 
-        int targetRow = position / size;
-        int targetCol = position % size;
+        int tile = tiles[position];
+        tiles[emptyIndex] = tile;
+        tiles[position] = 0;
+        zobrist = Zobrist.move(zobrist, tile, position, emptyIndex);
+        emptyIndex = position;
+    }
+
+    /**
+     * 供 {@link BoardOperator} 在棋盘数组上交换之后同步空格位置和哈希
+     */
+    void tileMoved(int tile, int from, int to) {
+        zobrist = Zobrist.move(zobrist, tile, from, to);
+        emptyIndex = from;
+    }
+
+    /**
+     * 棋盘数组被整体改写后重新计算空格位置和哈希
+     */
+    public void refresh() {
+        findEmptyPosition();
+        zobrist = Zobrist.hash(tiles);
+    }
 
-        tiles[emptyPosition[0]][emptyPosition[1]] = tiles[targetRow][targetCol];
-        tiles[targetRow][targetCol] = 0;
-        emptyPosition = new int[]{targetRow, targetCol};
+    /**
+     * 64 位 Zobrist 哈希，相同内容的同尺寸棋盘哈希相同
+     */
+    public long getZobristHash() {
+        return zobrist;
     }
 
     public boolean isSolved() {
-        int value = 1;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (i == size - 1 && j == size - 1) {
-                    if (tiles[i][j] != 0) return false;
-                } else if (tiles[i][j] != value++) {
-                    return false;
-                }
+        int last = tiles.length - 1;
+        for (int i = 0; i < last; i++) {
+            if (tiles[i] != i + 1) {
+                return false;
             }
         }
-        return true;
+        return tiles[last] == 0;
     }
 
     @Override
@@ -147,30 +235,30 @@ public class Board implements Cloneable {
         if (obj == null || getClass() != obj.getClass())
             return false;
         Board other = (Board) obj;
-        return Arrays.equals(tiles, other.tiles);
+        // 不用缓存的哈希预判：内容不同时逐格比较通常在前几格就结束，而且结果不受哈希是否同步影响
+        return rows == other.rows && cols == other.cols && Arrays.equals(tiles, other.tiles);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(tiles);
+        return (int) (zobrist ^ (zobrist >>> 32));
     }
 
     @Override
     public Board clone() {
-        Board cloned = new Board(getTiles());
-        return cloned;
+        return new Board(tiles, rows, cols);
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("\n");
         // 计算最大数字的宽度
-        int maxWidth = String.valueOf(size * size - 1).length();
-        
-        for (int i = 0; i < size; i++) {
+        int maxWidth = String.valueOf(tiles.length - 1).length();
+
+        for (int i = 0; i < rows; i++) {
             StringBuilder line = new StringBuilder();
-            for (int j = 0; j < size; j++) {
-                int value = tiles[i][j];
+            for (int j = 0; j < cols; j++) {
+                int value = tiles[i * cols + j];
                 if (value == 0) {
                     // 空格位置用相同宽度的空格填充
                     line.append(" ".repeat(maxWidth)).append(" ");
@@ -186,4 +274,4 @@ public class Board implements Cloneable {
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+}
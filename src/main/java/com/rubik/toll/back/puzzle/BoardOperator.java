@@ -1,53 +1,107 @@
 package com.rubik.toll.back.puzzle;
 
+import java.util.function.IntConsumer;
+
 public class BoardOperator {
-    private final int[][] board;
-    private final int[][] where;
+    /**
+     * 按行优先展开的棋盘，格子 (x, y) 的下标为 x * ysize + y
+     */
+    private final int[] board;
+    /**
+     * 数字 -> 所在格子下标
+     */
+    private final int[] where;
     private final int xsize;
     private final int ysize;
-    private final StringBuilder moveHistory;
-    private static final char[] DIRECTION_CHARS = {'右', '左', '上', '下'};
+    private final MoveLog moveHistory;
+    /**
+     * 绑定的棋盘对象，每次交换后同步其空格位置和哈希；只操作数组时为 null
+     */
+    private final Board owner;
+    private long hash;
+    /**
+     * 每次交换后接收移动方向，没有时为 null
+     */
+    private IntConsumer moveSink;
+    private boolean recordHistory = true;
+
+    public BoardOperator(int[] board, int xsize, int ysize) {
+        this(board, xsize, ysize, null, new int[xsize * ysize]);
+    }
+
+    /**
+     * 直接在棋盘对象上操作，棋盘的 Zobrist 哈希随每次交换同步更新
+     */
+    public BoardOperator(Board board) {
+        this(board.getTiles(), board.getRows(), board.getCols(), board, new int[board.getTiles().length]);
+    }
+
+    /**
+     * 复用调用方提供的位置表，长度须等于格子数
+     */
+    BoardOperator(Board board, int[] where) {
+        this(board.getTiles(), board.getRows(), board.getCols(), board, where);
+    }
 
-    public BoardOperator(int[][] board, int xsize, int ysize) {
+    private BoardOperator(int[] board, int xsize, int ysize, Board owner, int[] where) {
         this.board = board;
         this.xsize = xsize;
         this.ysize = ysize;
-        this.where = new int[xsize * ysize][2];
-        this.moveHistory = new StringBuilder();
+        this.owner = owner;
+        this.where = where;
+        this.moveHistory = new MoveLog();
+        this.hash = Zobrist.hash(board);
         initializePositions();
     }
 
     private void initializePositions() {
-        for (int i = 0; i < xsize; i++) {
-            for (int j = 0; j < ysize; j++) {
-                int num = board[i][j];
-                where[num][0] = i;
-                where[num][1] = j;
-            }
+        for (int i = 0; i < board.length; i++) {
+            where[board[i]] = i;
         }
     }
 
     public void swapNeighbor(int[] src, int[] des) {
-        if (moveHistory.length() > 10_0000) {
-            throw new RuntimeException("已经超过100000步尚未求解成功，终止");
-        }
+        swapNeighbor(src[0] * ysize + src[1], des[0] * ysize + des[1]);
+    }
 
-        if (board[src[0]][src[1]] == 0) {
-            int[] temp = src;
+    /**
+     * 交换两个相邻格子（其中一个是空格），参数为格子下标
+     */
+    public void swapNeighbor(int src, int des) {
+        if (board[src] == 0) {
+            int temp = src;
             src = des;
             des = temp;
         }
+        if (board[des] != 0) {
+            throw new IllegalArgumentException("只能与相邻的空格交换");
+        }
+        int srcX = src / ysize;
+        int desX = des / ysize;
 
-        moveHistory.append(DIRECTION_CHARS[getDirection(des[0] - src[0], des[1] - src[1])]);
+        int direction = getDirection(desX - srcX, (des - desX * ysize) - (src - srcX * ysize));
+        if (direction < 0) {
+            throw new IllegalArgumentException("只能与相邻的空格交换");
+        }
+        if (recordHistory) {
+            moveHistory.append(direction);
+        }
+        if (moveSink != null) {
+            moveSink.accept(direction);
+        }
 
         // 交换棋盘上的数字
-        int temp = board[src[0]][src[1]];
-        board[src[0]][src[1]] = board[des[0]][des[1]];
-        board[des[0]][des[1]] = temp;
+        int tile = board[src];
+        board[src] = 0;
+        board[des] = tile;
 
-        // 更新位置信息
-        where[board[src[0]][src[1]]] = new int[]{src[0], src[1]};
-        where[board[des[0]][des[1]]] = new int[]{des[0], des[1]};
+        // 更新位置信息和哈希
+        where[0] = src;
+        where[tile] = des;
+        hash = Zobrist.move(hash, tile, src, des);
+        if (owner != null) {
+            owner.tileMoved(tile, src, des);
+        }
     }
 
     private int getDirection(int dx, int dy) {
@@ -60,27 +114,61 @@ public class BoardOperator {
         return -1;
     }
 
-    public int[] getPositionOf(int x, int y) {
+    /**
+     * 目标位置为 (x, y) 的数字当前所在的格子下标，(xsize-1, ysize-1) 对应空格
+     */
+    public int getCellOf(int x, int y) {
         int target = (x == xsize - 1 && y == ysize - 1) ? 0 : x * ysize + y + 1;
         return where[target];
     }
 
+    public int[] getPositionOf(int x, int y) {
+        int cell = getCellOf(x, y);
+        return new int[]{cell / ysize, cell % ysize};
+    }
+
     public String getMoveHistory() {
         return moveHistory.toString();
     }
 
-    public int[][] getBoard() {
+    public MoveLog getMoveLog() {
+        return moveHistory;
+    }
+
+    /**
+     * 设置移动的接收者，每次交换后立即收到被移动数字的移动方向
+     */
+    public void setMoveSink(IntConsumer moveSink) {
+        this.moveSink = moveSink;
+    }
+
+    /**
+     * 是否在 {@link #getMoveLog()} 中保留移动记录，只通过接收者输出时可以关闭以节省内存
+     */
+    public void setRecordHistory(boolean recordHistory) {
+        this.recordHistory = recordHistory;
+    }
+
+    /**
+     * 当前棋盘的 Zobrist 哈希，与 {@link Zobrist#hash(int[])} 的结果一致
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int[] getBoard() {
         return board;
     }
 
     public void doOperations(int[] operations) {
-        int[] space = getPositionOf(xsize - 1, ysize - 1);
+        int space = where[0];
         int[][] directions = PathFinder.getDirections();
         for (int op : operations) {
-            int x = space[0] - directions[op][0];
-            int y = space[1] - directions[op][1];
-            swapNeighbor(new int[]{x, y}, space);
-            space = new int[]{x, y};
+            int x = space / ysize - directions[op][0];
+            int y = space % ysize - directions[op][1];
+            int tile = x * ysize + y;
+            swapNeighbor(tile, space);
+            space = tile;
         }
     }
-}
\ No newline at end of file
+}
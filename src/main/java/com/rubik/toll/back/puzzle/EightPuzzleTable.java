@@ -0,0 +1,135 @@
+package com.rubik.toll.back.puzzle;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * 3x3 数字华容道的完整距离表
+ * <p>
+ * 3x3 只有 9!/2 = 181440 个可解状态。下标是一个完美哈希：
+ * 空格位置 * 20160 + 其余8个数字按行优先顺序的 Lehmer 编码 / 2。
+ * 可解状态中8个数字的逆序数必为偶数，Lehmer 编码倒数第二位（权重为1）由前面各位的奇偶性唯一确定，
+ * 所以除以2后仍然互不冲突，表中没有空洞。
+ * <p>
+ * 表在首次使用时从目标状态广度优先生成一次（每个状态一个字节，约177KB），之后每次求解只需沿距离递减的方向查表，
+ * 每一步是几次数组访问，得到的一定是最短解。
+ */
+public final class EightPuzzleTable {
+    private static final Logger logger = LogManager.getLogger(EightPuzzleTable.class);
+
+    public static final int SIZE = 3;
+    public static final int STATES = 181440;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int PER_BLANK = STATES / CELLS;
+    private static final byte UNKNOWN = -1;
+
+    private EightPuzzleTable() {
+    }
+
+    private static final class Holder {
+        static final byte[] DISTANCES = build();
+    }
+
+    public static boolean supports(int xsize, int ysize) {
+        return xsize == SIZE && ysize == SIZE;
+    }
+
+    /**
+     * 到目标状态的最少步数，调用方需先确认棋盘有解
+     */
+    public static int distance(int[] tiles) {
+        return Holder.DISTANCES[index(PackedBoard.pack(tiles))];
+    }
+
+    /**
+     * 求最短解，返回的操作序列与 {@link BoardOperator#doOperations(int[])} 的约定一致
+     */
+    public static int[] solve(int[] tiles) {
+        if (tiles.length != CELLS) {
+            throw new IllegalArgumentException("只支持3x3棋盘");
+        }
+        byte[] distances = Holder.DISTANCES;
+        long state = PackedBoard.pack(tiles);
+        int empty = PackedBoard.emptyIndex(state, CELLS);
+        int remaining = distances[index(state)];
+        if (remaining < 0) {
+            throw new IllegalArgumentException("棋盘无解");
+        }
+        int[] operations = new int[remaining];
+        for (int step = 0; step < operations.length; step++) {
+            for (int d = 0; d < 4; d++) {
+                int target = PackedBoard.neighbor(empty, d, SIZE, SIZE);
+                if (target < 0) {
+                    continue;
+                }
+                long next = PackedBoard.slide(state, empty, target);
+                if (distances[index(next)] == remaining - 1) {
+                    // 空格朝 d 移动，即数字朝相反方向移动
+                    operations[step] = d ^ 1;
+                    state = next;
+                    empty = target;
+                    remaining--;
+                    break;
+                }
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * 可解状态的完美哈希
+     */
+    static int index(long state) {
+        int empty = PackedBoard.emptyIndex(state, CELLS);
+        int rank = 0;
+        int used = 0;
+        int remaining = CELLS - 1;
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (cell == empty) {
+                continue;
+            }
+            int v = PackedBoard.get(state, cell) - 1;
+            int digit = v - Integer.bitCount(used & ((1 << v) - 1));
+            rank = rank * remaining-- + digit;
+            used |= 1 << v;
+        }
+        return empty * PER_BLANK + (rank >>> 1);
+    }
+
+    private static byte[] build() {
+        long startTime = System.currentTimeMillis();
+        byte[] distances = new byte[STATES];
+        Arrays.fill(distances, UNKNOWN);
+        long[] queue = new long[STATES];
+        int head = 0;
+        int tail = 0;
+
+        long goal = PackedBoard.goal(CELLS);
+        distances[index(goal)] = 0;
+        queue[tail++] = goal;
+        while (head < tail) {
+            long state = queue[head++];
+            int empty = PackedBoard.emptyIndex(state, CELLS);
+            byte next = (byte) (distances[index(state)] + 1);
+            for (int d = 0; d < 4; d++) {
+                int target = PackedBoard.neighbor(empty, d, SIZE, SIZE);
+                if (target < 0) {
+                    continue;
+                }
+                long successor = PackedBoard.slide(state, empty, target);
+                int i = index(successor);
+                if (distances[i] == UNKNOWN) {
+                    distances[i] = next;
+                    queue[tail++] = successor;
+                }
+            }
+        }
+        if (tail != STATES) {
+            throw new IllegalStateException("3x3距离表生成不完整：" + tail);
+        }
+        logger.debug("3x3距离表生成完成，耗时{}ms", System.currentTimeMillis() - startTime);
+        return distances;
+    }
+}
@@ -0,0 +1,185 @@
+package com.rubik.toll.back.puzzle;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 迭代加深 A*（IDA*）最优求解器
+ * <p>
+ * 在一维棋盘数组上原地移动和撤销，启发值随每一步增量更新，搜索过程中不分配内存。
+ * 返回的操作序列与 {@link BoardOperator#doOperations(int[])} 的约定一致：
+ * 每个元素是被移动数字的移动方向（下标对应 {@link PathFinder#getDirections()}）。
+ * <p>
+ * 启发函数可采纳时得到的解一定最短，适用于3x3、4x4等小棋盘；
+ * 更大的棋盘状态空间过大，应使用分治策略。
+ */
+public class IdaStarSolver {
+    static final int FOUND = -1;
+    /**
+     * 每展开这么多节点检查一次截止时间和中断标志
+     */
+    private static final long CHECK_INTERVAL_MASK = (1 << 16) - 1;
+    private static final int[][] DIRECTIONS = PathFinder.getDirections();
+
+    private final int xsize;
+    private final int ysize;
+    private final PuzzleHeuristic heuristic;
+
+    private int[] tiles;
+    private int[] path = new int[64];
+    private int pathLength;
+    private long expandedNodes;
+    private boolean hasDeadline;
+    private long deadline;
+    // 并行搜索时由其他子任务置位，为空表示单线程搜索
+    private AtomicBoolean stop;
+
+    public IdaStarSolver(int xsize, int ysize, PuzzleHeuristic heuristic) {
+        if (heuristic == null) {
+            throw new IllegalArgumentException("启发函数不能为空");
+        }
+        this.xsize = xsize;
+        this.ysize = ysize;
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * 设置截止时间（{@link System#nanoTime()} 的值），超过后 {@link #solve(int[])} 抛出 {@link SolveTimeoutException}
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadline = deadlineNanos;
+    }
+
+    /**
+     * 求最短解，调用方需先确认棋盘有解
+     *
+     * @param board 行优先的一维棋盘，搜索结束后保持原样
+     * @return 操作序列，已是目标状态时返回空数组
+     */
+    public int[] solve(int[] board) {
+        if (board.length != xsize * ysize) {
+            throw new IllegalArgumentException("棋盘大小不匹配");
+        }
+        this.tiles = board.clone();
+        this.expandedNodes = 0;
+        this.pathLength = 0;
+
+        int empty = 0;
+        while (tiles[empty] != 0) {
+            empty++;
+        }
+        int h = heuristic.estimate(tiles);
+        int bound = h;
+        while (true) {
+            int next = search(empty, 0, h, bound, -1);
+            if (next == FOUND) {
+                return getSolution();
+            }
+            if (next == Integer.MAX_VALUE) {
+                throw new IllegalStateException("棋盘无解");
+            }
+            bound = next;
+        }
+    }
+
+    /**
+     * 从中间节点开始按阈值 bound 搜索一轮，供 {@link ParallelIdaStarSolver} 的子任务使用
+     *
+     * @param tiles  中间节点的棋盘，搜索时原地移动，结束后恢复原样
+     * @param prefix 从根到中间节点的操作序列
+     * @param stop   其他子任务找到解或出错后置位，本任务随即返回
+     * @return 找到解时返回 {@link #FOUND}，完整的解由 {@link #getSolution()} 取得；否则返回超出阈值的最小 f 值
+     */
+    int searchSubtree(int[] tiles, int[] prefix, int empty, int h, int bound, AtomicBoolean stop) {
+        this.tiles = tiles;
+        this.stop = stop;
+        if (path.length < prefix.length + 1) {
+            path = new int[prefix.length << 1];
+        }
+        System.arraycopy(prefix, 0, path, 0, prefix.length);
+        int lastDirection = prefix.length == 0 ? -1 : prefix[prefix.length - 1] ^ 1;
+        return search(empty, prefix.length, h, bound, lastDirection);
+    }
+
+    /**
+     * 最近一次找到的解
+     */
+    int[] getSolution() {
+        int[] operations = new int[pathLength];
+        System.arraycopy(path, 0, operations, 0, pathLength);
+        return operations;
+    }
+
+    /**
+     * @return 找到解时返回 FOUND，否则返回超出阈值的最小 f 值
+     */
+    private int search(int empty, int g, int h, int bound, int lastDirection) {
+        int f = g + h;
+        if (f > bound) {
+            return f;
+        }
+        if (stop != null && stop.get()) {
+            return Integer.MAX_VALUE;
+        }
+        if (h == 0) {
+            pathLength = g;
+            return FOUND;
+        }
+        if ((++expandedNodes & CHECK_INTERVAL_MASK) == 0) {
+            checkDeadline();
+        }
+        int min = Integer.MAX_VALUE;
+        int x = empty / ysize;
+        int y = empty - x * ysize;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            // 空格移动方向 d，被移动的数字朝相反方向移动，相反方向的下标为 d ^ 1
+            if (d == (lastDirection ^ 1)) {
+                continue;
+            }
+            int xx = x + DIRECTIONS[d][0];
+            int yy = y + DIRECTIONS[d][1];
+            if (xx < 0 || xx >= xsize || yy < 0 || yy >= ysize) {
+                continue;
+            }
+            int target = xx * ysize + yy;
+            int nextH = h + heuristic.delta(tiles, target, empty);
+
+            tiles[empty] = tiles[target];
+            tiles[target] = 0;
+            if (g >= path.length) {
+                int[] grown = new int[path.length << 1];
+                System.arraycopy(path, 0, grown, 0, path.length);
+                path = grown;
+            }
+            path[g] = d ^ 1;
+
+            int t = search(target, g + 1, nextH, bound, d);
+
+            tiles[target] = tiles[empty];
+            tiles[empty] = 0;
+            if (t == FOUND) {
+                return FOUND;
+            }
+            if (t < min) {
+                min = t;
+            }
+        }
+        return min;
+    }
+
+    private void checkDeadline() {
+        if (hasDeadline && System.nanoTime() - deadline > 0) {
+            throw new SolveTimeoutException("IDA*求解超时，已展开" + expandedNodes + "个节点");
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new SolveTimeoutException("IDA*求解被中断");
+        }
+    }
+
+    /**
+     * 最近一次求解展开的节点数
+     */
+    public long getExpandedNodes() {
+        return expandedNodes;
+    }
+}
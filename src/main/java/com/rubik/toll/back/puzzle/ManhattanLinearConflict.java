@@ -0,0 +1,150 @@
+package com.rubik.toll.back.puzzle;
+
+/**
+ * 曼哈顿距离 + 线性冲突启发函数
+ * <p>
+ * 线性冲突：同一行（列）中若干数字的目标也在这一行（列），但相对顺序颠倒，
+ * 至少要有一个数字离开这一行（列）再回来，每个这样的数字额外需要2步。
+ * 需要离开的最少数字个数 = 该行（列）目标数字个数 - 最长递增子序列长度。
+ * <p>
+ * 一步移动只会让一个数字跨行或跨列，因此增量计算时最多重算一行或一列。
+ */
+public class ManhattanLinearConflict implements PuzzleHeuristic {
+    /**
+     * 最长递增子序列的尾部数组按 nibble 存在一个 long 中，行（列）长超过16时不再计算线性冲突
+     */
+    private static final int MAX_LINE = 16;
+
+    private final int xsize;
+    private final int ysize;
+    private final int[] goalRow;
+    private final int[] goalCol;
+
+    public ManhattanLinearConflict(int xsize, int ysize) {
+        this.xsize = xsize;
+        this.ysize = ysize;
+        this.goalRow = new int[xsize * ysize];
+        this.goalCol = new int[xsize * ysize];
+        for (int v = 1; v < xsize * ysize; v++) {
+            goalRow[v] = (v - 1) / ysize;
+            goalCol[v] = (v - 1) % ysize;
+        }
+    }
+
+    @Override
+    public int estimate(int[] tiles) {
+        int h = 0;
+        for (int k = 0; k < tiles.length; k++) {
+            if (tiles[k] != 0) {
+                h += manhattan(tiles[k], k);
+            }
+        }
+        for (int r = 0; r < xsize; r++) {
+            h += rowConflict(tiles, r);
+        }
+        for (int c = 0; c < ysize; c++) {
+            h += columnConflict(tiles, c);
+        }
+        return h;
+    }
+
+    @Override
+    public int delta(int[] tiles, int from, int to) {
+        int tile = tiles[from];
+        int d = manhattan(tile, to) - manhattan(tile, from);
+
+        int fromRow = from / ysize;
+        int fromCol = from - fromRow * ysize;
+        int toRow = to / ysize;
+        int toCol = to - toRow * ysize;
+
+        if (fromRow == toRow) {
+            // 横向移动：只有数字目标所在的那一列可能变化
+            int col = goalCol[tile];
+            if (col != fromCol && col != toCol) {
+                return d;
+            }
+            int before = columnConflict(tiles, col);
+            tiles[to] = tile;
+            tiles[from] = 0;
+            int after = columnConflict(tiles, col);
+            tiles[from] = tile;
+            tiles[to] = 0;
+            return d + after - before;
+        } else {
+            // 纵向移动：只有数字目标所在的那一行可能变化
+            int row = goalRow[tile];
+            if (row != fromRow && row != toRow) {
+                return d;
+            }
+            int before = rowConflict(tiles, row);
+            tiles[to] = tile;
+            tiles[from] = 0;
+            int after = rowConflict(tiles, row);
+            tiles[from] = tile;
+            tiles[to] = 0;
+            return d + after - before;
+        }
+    }
+
+    private int manhattan(int tile, int cell) {
+        int row = cell / ysize;
+        int col = cell - row * ysize;
+        return Math.abs(goalRow[tile] - row) + Math.abs(goalCol[tile] - col);
+    }
+
+    private int rowConflict(int[] tiles, int row) {
+        if (ysize > MAX_LINE) {
+            return 0;
+        }
+        // 按出现顺序收集目标在本行的数字的目标列
+        long sequence = 0;
+        int count = 0;
+        int base = row * ysize;
+        for (int c = 0; c < ysize; c++) {
+            int v = tiles[base + c];
+            if (v != 0 && goalRow[v] == row) {
+                sequence |= (long) goalCol[v] << (count++ << 2);
+            }
+        }
+        return 2 * (count - longestIncreasing(sequence, count));
+    }
+
+    private int columnConflict(int[] tiles, int col) {
+        if (xsize > MAX_LINE) {
+            return 0;
+        }
+        long sequence = 0;
+        int count = 0;
+        for (int r = 0; r < xsize; r++) {
+            int v = tiles[r * ysize + col];
+            if (v != 0 && goalCol[v] == col) {
+                sequence |= (long) goalRow[v] << (count++ << 2);
+            }
+        }
+        return 2 * (count - longestIncreasing(sequence, count));
+    }
+
+    /**
+     * 最长递增子序列长度（耐心排序），序列和尾部数组都以 nibble 形式存放，不分配内存
+     */
+    private static int longestIncreasing(long sequence, int count) {
+        if (count < 2) {
+            return count;
+        }
+        long tails = 0;
+        int length = 0;
+        for (int k = 0; k < count; k++) {
+            long v = (sequence >>> (k << 2)) & 0xF;
+            int i = 0;
+            while (i < length && ((tails >>> (i << 2)) & 0xF) < v) {
+                i++;
+            }
+            tails = (tails & ~(0xFL << (i << 2))) | (v << (i << 2));
+            if (i == length) {
+                length++;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,120 @@
+package com.rubik.toll.back.puzzle;
+
+import java.util.function.IntConsumer;
+
+/**
+ * 紧凑的移动记录
+ * <p>
+ * 每一步只有四种方向，用2位表示，一个 long 存32步，数组按需加倍扩容。
+ * 与每步一个字符的 StringBuilder 相比内存约为1/8，也不再需要步数上限。
+ * 方向下标与 {@link PathFinder#getDirections()} 一致，表示被移动数字的移动方向；
+ * 只有在需要时才转换成文字。
+ */
+public final class MoveLog {
+    private static final char[] DIRECTION_CHARS = {'右', '左', '上', '下'};
+    private static final int MOVES_PER_WORD = 32;
+
+    private long[] words;
+    private long size;
+
+    public MoveLog() {
+        this.words = new long[16];
+    }
+
+    public void append(int direction) {
+        int word = (int) (size >>> 5);
+        if (word == words.length) {
+            long[] grown = new long[words.length << 1];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+        words[word] |= (long) (direction & 3) << ((size & 31) << 1);
+        size++;
+    }
+
+    public int get(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("步数下标越界：" + index);
+        }
+        return (int) (words[(int) (index >>> 5)] >>> ((index & 31) << 1)) & 3;
+    }
+
+    /**
+     * 撤销最后一步
+     */
+    public void removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("没有可撤销的移动");
+        }
+        size--;
+        words[(int) (size >>> 5)] &= ~(3L << ((size & 31) << 1));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        int used = (int) ((size + MOVES_PER_WORD - 1) >>> 5);
+        for (int i = 0; i < used; i++) {
+            words[i] = 0;
+        }
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (long i = 0; i < size; i++) {
+            action.accept((int) (words[(int) (i >>> 5)] >>> ((i & 31) << 1)) & 3);
+        }
+    }
+
+    public int[] toArray() {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("步数过多，无法转换为数组：" + size);
+        }
+        int[] operations = new int[(int) size];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = (int) (words[i >>> 5] >>> ((i & 31) << 1)) & 3;
+        }
+        return operations;
+    }
+
+    public static char toChar(int direction) {
+        return DIRECTION_CHARS[direction];
+    }
+
+    /**
+     * 游程编码形式：连续相同的方向只写一次，后面跟重复次数（1次时省略），如“右3上左2”
+     */
+    public String toRunLengthString() {
+        StringBuilder sb = new StringBuilder();
+        long i = 0;
+        while (i < size) {
+            int direction = get(i);
+            long run = 1;
+            while (i + run < size && get(i + run) == direction) {
+                run++;
+            }
+            sb.append(DIRECTION_CHARS[direction]);
+            if (run > 1) {
+                sb.append(run);
+            }
+            i += run;
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("步数过多，无法转换为文字：" + size);
+        }
+        StringBuilder sb = new StringBuilder((int) size);
+        forEach(direction -> sb.append(DIRECTION_CHARS[direction]));
+        return sb.toString();
+    }
+}
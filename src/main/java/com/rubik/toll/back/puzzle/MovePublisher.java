@@ -0,0 +1,100 @@
+package com.rubik.toll.back.puzzle;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * 把流式求解的移动按段发布给一个订阅者
+ * <p>
+ * 逐步发布会为每一步装箱并经过一次队列，所以攒够 {@value #CHUNK_SIZE} 步才发布一段。
+ * 投递由 {@link SubmissionPublisher} 完成，其缓冲区满时 submit 阻塞求解线程，形成背压。
+ */
+final class MovePublisher implements Flow.Publisher<int[]> {
+    static final int CHUNK_SIZE = 256;
+
+    private final NumberPuzzleSolver solver;
+    private final SolveMode mode;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    MovePublisher(NumberPuzzleSolver solver, SolveMode mode, Executor executor) {
+        if (mode == null || executor == null) {
+            throw new IllegalArgumentException("求解方式和线程池不能为空");
+        }
+        this.solver = solver;
+        this.mode = mode;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super int[]> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("只支持一个订阅者"));
+            return;
+        }
+        SubmissionPublisher<int[]> publisher = new SubmissionPublisher<>();
+        publisher.subscribe(subscriber);
+        executor.execute(() -> run(publisher));
+    }
+
+    private void run(SubmissionPublisher<int[]> publisher) {
+        Chunker chunker = new Chunker(publisher);
+        try {
+            boolean solved = solver.solve(mode, chunker);
+            chunker.flush();
+            if (solved) {
+                publisher.close();
+            } else {
+                publisher.closeExceptionally(new IllegalArgumentException("棋盘无解"));
+            }
+        } catch (CancellationException e) {
+            // 订阅者已取消，没有人再接收结果
+            publisher.close();
+        } catch (RuntimeException e) {
+            publisher.closeExceptionally(e);
+        }
+    }
+
+    private static final class Chunker implements IntConsumer {
+        private final SubmissionPublisher<int[]> publisher;
+        private final int[] chunk = new int[CHUNK_SIZE];
+        private int size;
+
+        Chunker(SubmissionPublisher<int[]> publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void accept(int direction) {
+            chunk[size++] = direction;
+            if (size == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (size == 0) {
+                return;
+            }
+            if (!publisher.hasSubscribers()) {
+                throw new CancellationException("订阅已取消");
+            }
+            publisher.submit(Arrays.copyOf(chunk, size));
+            size = 0;
+        }
+    }
+}
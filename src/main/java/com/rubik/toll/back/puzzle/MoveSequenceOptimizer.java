@@ -0,0 +1,424 @@
+package com.rubik.toll.back.puzzle;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 移动序列的窥孔优化
+ * <p>
+ * 分治求解的结果中有大量可以直接去掉的浪费：
+ * <ul>
+ *   <li>相邻的一对相反移动（如“右左”“上下”），两步之后棋盘不变</li>
+ *   <li>空格绕着固定格子兜圈，例如沿2x2方块反向绕两圈等价于正向绕一圈</li>
+ * </ul>
+ * 第一类用栈在线消去；第二类查一张预先生成的局部改写表：
+ * 枚举所有长度不超过 {@value #MAX_WINDOW} 的不回头序列，在以空格起点为中心的局部棋盘上模拟，
+ * 对效果（所有格子的最终内容）相同的序列，记录其中最短的一条。
+ * 只有当替换序列经过的格子都落在原序列经过格子的外接矩形内时才替换，
+ * 棋盘是矩形，所以替换序列一定不会越界，最终棋盘与原序列完全相同。
+ * 改写表在第一次使用时生成。
+ * <p>
+ * 除了一次优化整个序列，也可以用 {@link #stream(IntConsumer)} 边求解边优化边输出。
+ */
+public final class MoveSequenceOptimizer {
+    private static final Logger logger = LogManager.getLogger(MoveSequenceOptimizer.class);
+    private static final int[][] DIRECTIONS = PathFinder.getDirections();
+
+    /**
+     * 改写窗口的最大长度
+     */
+    static final int MAX_WINDOW = 10;
+    /**
+     * 流式优化时至少保留的最近步数
+     */
+    static final int STREAM_RETAINED = 1024;
+    private static final int GRID = 2 * MAX_WINDOW + 1;
+    private static final int CENTER = MAX_WINDOW * GRID + MAX_WINDOW;
+
+    private MoveSequenceOptimizer() {
+    }
+
+    private static final class Holder {
+        static final RewriteTable REWRITES = new RewriteTable();
+        static final int MIN_WINDOW;
+
+        static {
+            MIN_WINDOW = buildRewrites(REWRITES);
+        }
+    }
+
+    /**
+     * 优化移动记录，返回新的记录，原记录不变
+     */
+    public static MoveLog optimize(MoveLog moves) {
+        MoveLog result = new MoveLog();
+        MoveStream stream = new MoveStream(result::append, Integer.MAX_VALUE);
+        moves.forEach(stream);
+        stream.flush();
+        return result;
+    }
+
+    /**
+     * 优化操作序列（每个元素是被移动数字的移动方向），返回新的数组
+     */
+    public static int[] optimize(int[] operations) {
+        MoveStream stream = new MoveStream(null, Integer.MAX_VALUE);
+        for (int op : operations) {
+            stream.accept(op);
+        }
+        return Arrays.copyOf(stream.output, stream.size);
+    }
+
+    /**
+     * 边接收边优化，只保留最近的 {@value #STREAM_RETAINED} 到两倍于此的移动用于消去和改写，更早的移动直接输出。
+     * 优化效果与整体优化几乎相同（只有跨越上千步的连锁消去会被错过），内存占用与总步数无关。
+     */
+    public static MoveStream stream(IntConsumer downstream) {
+        if (downstream == null) {
+            throw new IllegalArgumentException("输出不能为空");
+        }
+        return new MoveStream(downstream, STREAM_RETAINED);
+    }
+
+    /**
+     * 流式优化器，结束时必须调用 {@link #flush()} 输出剩余的移动
+     */
+    public static final class MoveStream implements IntConsumer {
+        private final RewriteTable rewrites = Holder.REWRITES;
+        private final int minWindow = Holder.MIN_WINDOW;
+        private final IntConsumer downstream;
+        private final int retained;
+
+        private int[] output = new int[64];
+        private int size;
+        // 替换序列压回这里重新处理，使其与前面的移动也能继续消去或改写
+        private int[] pending = new int[MAX_WINDOW];
+        private int pendingSize;
+        // 以栈顶结尾、各长度窗口的编码
+        private final int[] windowCodes = new int[MAX_WINDOW + 1];
+        private long emitted;
+
+        private MoveStream(IntConsumer downstream, int retained) {
+            this.downstream = downstream;
+            this.retained = retained;
+        }
+
+        @Override
+        public void accept(int op) {
+            push(op);
+            while (pendingSize > 0) {
+                push(pending[--pendingSize]);
+            }
+            if (size >= 2L * retained) {
+                emit(size - retained);
+            }
+        }
+
+        private void push(int op) {
+            if (size > 0 && output[size - 1] == (op ^ 1)) {
+                size--;
+                return;
+            }
+            if (size == output.length) {
+                output = Arrays.copyOf(output, output.length << 1);
+            }
+            output[size++] = op;
+
+            // 窗口每往前延长一步，新加入的最早一步放在编码的最低位，其余左移
+            int maxWindow = Math.min(MAX_WINDOW, size);
+            int code = 0;
+            for (int window = 1; window <= maxWindow; window++) {
+                code = code << 2 | output[size - window];
+                windowCodes[window] = code;
+            }
+            for (int window = maxWindow; window >= minWindow; window--) {
+                int[] replacement = rewrites.get(window << 20 | windowCodes[window]);
+                if (replacement != null) {
+                    size -= window;
+                    if (pendingSize + replacement.length > pending.length) {
+                        pending = Arrays.copyOf(pending, Math.max(pending.length << 1, pendingSize + replacement.length));
+                    }
+                    for (int i = replacement.length - 1; i >= 0; i--) {
+                        pending[pendingSize++] = replacement[i];
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 输出最早的 count 步，剩余的移到数组开头
+         */
+        private void emit(int count) {
+            for (int i = 0; i < count; i++) {
+                downstream.accept(output[i]);
+            }
+            System.arraycopy(output, count, output, 0, size - count);
+            size -= count;
+            emitted += count;
+        }
+
+        /**
+         * 输出所有保留的移动
+         */
+        public void flush() {
+            emit(size);
+        }
+
+        /**
+         * 已经输出的步数
+         */
+        public long getEmitted() {
+            return emitted;
+        }
+    }
+
+    /**
+     * 枚举全部不回头序列并按效果分组，生成改写表
+     *
+     * @return 有改写的最短窗口长度
+     */
+    private static int buildRewrites(RewriteTable rewrites) {
+        long startTime = System.currentTimeMillis();
+        Enumeration enumeration = new Enumeration();
+        enumeration.run();
+
+        // 按效果哈希排序，低17位放序号
+        int count = enumeration.count;
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = (enumeration.hashes[i] << 17) | i;
+        }
+        Arrays.sort(sorted);
+
+        int minWindow = Integer.MAX_VALUE;
+        int[] members = new int[count];
+        int start = 0;
+        while (start < count) {
+            int end = start + 1;
+            while (end < count && (sorted[end] >>> 17) == (sorted[start] >>> 17)) {
+                end++;
+            }
+            if (end - start == 1) {
+                start = end;
+                continue;
+            }
+            // 组内按长度（相同时按序号）排列，每条序列从最短的候选找起，第一个满足条件的就是最短的替换
+            int groupSize = end - start;
+            for (int i = 0; i < groupSize; i++) {
+                int index = (int) (sorted[start + i] & 0x1FFFF);
+                members[i] = enumeration.lengths[index] << 17 | index;
+            }
+            Arrays.sort(members, 0, groupSize);
+            for (int a = 0; a < groupSize; a++) {
+                int original = members[a] & 0x1FFFF;
+                int best = -1;
+                for (int b = 0; b < a; b++) {
+                    int candidate = members[b] & 0x1FFFF;
+                    if (enumeration.lengths[candidate] >= enumeration.lengths[original]) {
+                        break;
+                    }
+                    if (contains(enumeration.boxes[original], enumeration.boxes[candidate])
+                            && enumeration.sameEffect(original, candidate)) {
+                        best = candidate;
+                        break;
+                    }
+                }
+                if (best >= 0) {
+                    int length = enumeration.lengths[original];
+                    rewrites.put(length << 20 | enumeration.codes[original], enumeration.decode(best));
+                    minWindow = Math.min(minWindow, length);
+                }
+            }
+            start = end;
+        }
+        logger.debug("移动序列改写表生成完成：{}个序列，{}条改写，耗时{}ms",
+                count, rewrites.size(), System.currentTimeMillis() - startTime);
+        return minWindow;
+    }
+
+    /**
+     * 外接矩形按 minX、maxX、minY、maxY 各5位打包，判断 inner 是否在 outer 之内
+     */
+    private static boolean contains(int outer, int inner) {
+        return (inner & 0x1F) >= (outer & 0x1F)
+                && ((inner >>> 5) & 0x1F) <= ((outer >>> 5) & 0x1F)
+                && ((inner >>> 10) & 0x1F) >= ((outer >>> 10) & 0x1F)
+                && ((inner >>> 15) & 0x1F) <= ((outer >>> 15) & 0x1F);
+    }
+
+    /**
+     * 改写表：窗口编码（长度 &lt;&lt; 20 | 各步编码）到替换序列的开放寻址哈希表，查找时不装箱也不分配对象。
+     * 编码的长度部分至少为1，所以0可以表示空位
+     */
+    private static final class RewriteTable {
+        private int[] keys = new int[1 << 12];
+        private int[][] values = new int[1 << 12][];
+        private int size;
+
+        int[] get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+                int k = keys[slot];
+                if (k == key) {
+                    return values[slot];
+                }
+                if (k == 0) {
+                    return null;
+                }
+            }
+        }
+
+        void put(int key, int[] value) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                size++;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[][] oldValues = values;
+            keys = new int[oldKeys.length << 1];
+            values = new int[oldKeys.length << 1][];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(int key, int mask) {
+            int h = key * 0x9E3779B9;
+            return (h ^ h >>> 16) & mask;
+        }
+    }
+
+    /**
+     * 在局部棋盘上深度优先枚举序列，增量维护效果哈希和空格经过的外接矩形
+     */
+    private static final class Enumeration {
+        final int[] codes;
+        final byte[] lengths;
+        final int[] boxes;
+        final long[] hashes;
+        int count;
+
+        private final int[] grid = new int[GRID * GRID];
+        private long hash;
+
+        Enumeration() {
+            // 1 + 4 + 4*3 + ... + 4*3^(L-1)
+            int total = 1;
+            int layer = 4;
+            for (int length = 1; length <= MAX_WINDOW; length++) {
+                total += layer;
+                layer *= 3;
+            }
+            codes = new int[total];
+            lengths = new byte[total];
+            boxes = new int[total];
+            hashes = new long[total];
+            for (int i = 0; i < grid.length; i++) {
+                grid[i] = i;
+            }
+        }
+
+        void run() {
+            visit(CENTER, 0, 0, -1, MAX_WINDOW, MAX_WINDOW, MAX_WINDOW, MAX_WINDOW);
+        }
+
+        private void visit(int blank, int length, int code, int last,
+                           int minX, int maxX, int minY, int maxY) {
+            codes[count] = code;
+            lengths[count] = (byte) length;
+            boxes[count] = minX | maxX << 5 | minY << 10 | maxY << 15;
+            hashes[count] = hash;
+            count++;
+            if (length == MAX_WINDOW) {
+                return;
+            }
+            for (int op = 0; op < 4; op++) {
+                if (op == (last ^ 1)) {
+                    continue;
+                }
+                // 数字朝 op 方向移入空格，空格朝相反方向移动
+                int tile = blank - DIRECTIONS[op][0] * GRID - DIRECTIONS[op][1];
+                swap(blank, tile);
+                int x = tile / GRID;
+                int y = tile % GRID;
+                visit(tile, length + 1, code | op << (length << 1), op,
+                        Math.min(minX, x), Math.max(maxX, x), Math.min(minY, y), Math.max(maxY, y));
+                swap(blank, tile);
+            }
+        }
+
+        private void swap(int a, int b) {
+            hash ^= mix(a, grid[a]) ^ mix(b, grid[b]);
+            int temp = grid[a];
+            grid[a] = grid[b];
+            grid[b] = temp;
+            hash ^= mix(a, grid[a]) ^ mix(b, grid[b]);
+        }
+
+        /**
+         * 内容未变的格子贡献为0，因此哈希只取决于被改变的格子
+         */
+        private static long mix(int cell, int content) {
+            if (cell == content) {
+                return 0;
+            }
+            long z = (long) cell * GRID * GRID + content + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        int[] decode(int index) {
+            int[] ops = new int[lengths[index]];
+            for (int i = 0; i < ops.length; i++) {
+                ops[i] = (codes[index] >>> (i << 1)) & 3;
+            }
+            return ops;
+        }
+
+        /**
+         * 哈希相同时重新模拟两条序列，逐格比较，排除哈希碰撞
+         */
+        boolean sameEffect(int a, int b) {
+            return Arrays.equals(simulate(decode(a)), simulate(decode(b)));
+        }
+
+        private static int[] simulate(int[] ops) {
+            int[] cells = new int[GRID * GRID];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = i;
+            }
+            int blank = CENTER;
+            for (int op : ops) {
+                int tile = blank - DIRECTIONS[op][0] * GRID - DIRECTIONS[op][1];
+                cells[blank] = cells[tile];
+                cells[tile] = CENTER;
+                blank = tile;
+            }
+            return cells;
+        }
+    }
+}
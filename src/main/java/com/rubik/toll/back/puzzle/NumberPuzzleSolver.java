@@ -3,15 +3,31 @@ package com.rubik.toll.back.puzzle;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
 
 public class NumberPuzzleSolver {
     private static final Logger logger = LogManager.getLogger(NumberPuzzleSolver.class);
     private final Board board;
     private final int xsize, ysize;
-    private final boolean[][] readyFlag;
+    private final boolean[] readyFlag;
     private final BoardOperator boardOperator;
     private final PathFinder pathFinder;
-    private final SolvabilityChecker solvabilityChecker;
+    private final SolverContext context;
+    private final int[] tilePath;
+    private final int[] spacePath;
+    // 经过窥孔优化的解，求解前为空
+    private MoveLog solution;
+    // 是否打印棋盘和移动记录，批量求解时关闭
+    private boolean verbose = true;
+    private boolean hasDeadline;
+    private long deadline;
+    // 流式求解时的输出，其余情况为空
+    private MoveSequenceOptimizer.MoveStream stream;
+    private SolutionCache cache;
 
     // 黄金操作序列
     private static final int[] GOLD_OP = {0, 2, 1, 3, 1, 2, 0, 0, 3, 1};
@@ -27,33 +43,214 @@ public class NumberPuzzleSolver {
     }
 
     public NumberPuzzleSolver(Board board) {
+        this(board, board == null ? null : new SolverContext(board.getRows(), board.getCols()));
+    }
+
+    /**
+     * 使用已有的缓冲区求解，缓冲区尺寸必须与棋盘一致
+     */
+    NumberPuzzleSolver(Board board, SolverContext context) {
         if (board == null) {
             throw new IllegalArgumentException("棋盘不能为空");
         }
-        int size = board.getSize();
-        this.xsize = size;
-        this.ysize = size;
+        this.xsize = board.getRows();
+        this.ysize = board.getCols();
+        if (context.xsize != xsize || context.ysize != ysize) {
+            throw new IllegalArgumentException("缓冲区尺寸与棋盘不一致");
+        }
+        context.reset();
 
         this.board = board;
-        this.readyFlag = new boolean[size][size];
-        this.boardOperator = new BoardOperator(this.board.getTiles(), size, size);
-        this.pathFinder = new PathFinder(size, size, this.readyFlag);
-        this.solvabilityChecker = new SolvabilityChecker(this.board.getTiles(), size, size, this.boardOperator);
+        this.context = context;
+        this.readyFlag = context.readyFlag;
+        this.boardOperator = new BoardOperator(this.board, context.where);
+        this.pathFinder = context.pathFinder;
+        this.tilePath = context.tilePath;
+        this.spacePath = context.spacePath;
+    }
+
+    void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * 设置截止时间（{@link System#nanoTime()} 的值），超过后求解抛出 {@link SolveTimeoutException}
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadline = deadlineNanos;
+    }
+
+    /**
+     * 设置解缓存，之后的 solve 先查缓存，未命中时求解并把解放入缓存。
+     * 流式求解和 solveTo 不使用缓存
+     */
+    public void setSolutionCache(SolutionCache cache) {
+        this.cache = cache;
     }
 
     public boolean solve() {
+        return solve(SolveMode.DIVIDE_AND_CONQUER);
+    }
+
+    public boolean solve(SolveMode mode) {
+        if (EightPuzzleTable.supports(xsize, ysize)) {
+            // 3x3 直接查距离表，两种方式都得到最短解
+            return solve(this::goTable, true);
+        }
+        return switch (mode) {
+            case OPTIMAL -> solve(() -> goOptimal(new ManhattanLinearConflict(xsize, ysize)), true);
+            case PARALLEL_OPTIMAL -> solve(() -> goParallel(new ManhattanLinearConflict(xsize, ysize),
+                    ForkJoinPool.commonPool()), true);
+            case PHASED -> solve(this::goPhased, false);
+            case DIVIDE_AND_CONQUER -> solve(this::go, false);
+        };
+    }
+
+    /**
+     * 流式求解：每一步经过流式优化后立即交给 sink（在求解线程中调用），
+     * 不保留完整的移动记录，求解后 {@link #getMoveLog()} 为空。
+     * 大棋盘可以边求解边展示，内存占用也与总步数无关
+     */
+    public boolean solve(SolveMode mode, IntConsumer sink) {
+        stream = MoveSequenceOptimizer.stream(sink);
+        boardOperator.setMoveSink(stream);
+        boardOperator.setRecordHistory(false);
+        return solve(mode);
+    }
+
+    /**
+     * 以 {@link Flow.Publisher} 的形式输出移动，每个元素是一段连续的移动方向。
+     * 第一个订阅者订阅时才在 executor 上开始求解，只支持一个订阅者；
+     * 订阅者处理不过来时求解线程会阻塞等待（背压），取消订阅后求解随之停止。
+     * 棋盘无解时以 {@link IllegalArgumentException} 结束
+     */
+    public Flow.Publisher<int[]> publish(SolveMode mode, Executor executor) {
+        return new MovePublisher(this, mode, executor);
+    }
+
+    /**
+     * 从当前棋盘直接求解到任意目标棋盘 target（尺寸相同），而不是标准的目标状态
+     * <p>
+     * 先在 target 上把空格沿最后一列、最后一行的方向移到右下角，得到 target'；
+     * 再把当前棋盘的每个数字重新编号为它在 target' 中的位置 + 1，
+     * 这样“到达 target'”就变成了标准问题，可以直接使用现有的任何求解方式。
+     * 最后在真实棋盘上执行得到的移动，并补上空格从右下角走回 target 中位置的那几步。
+     * 与先复原再逆向走到 target 相比只求解一次，步数约为一半。
+     *
+     * @return 无法从当前棋盘到达 target 时返回 false
+     */
+    public boolean solveTo(Board target, SolveMode mode) {
+        if (target == null || target.getRows() != xsize || target.getCols() != ysize) {
+            throw new IllegalArgumentException("目标棋盘的尺寸必须与当前棋盘相同");
+        }
+        // 目标中的空格移到右下角，记录走回去的移动
+        Board corner = target.clone();
+        int empty = corner.getEmptyIndex();
+        int[] back = new int[xsize - 1 - empty / ysize + ysize - 1 - empty % ysize];
+        int count = 0;
+        while (empty % ysize != ysize - 1) {
+            corner.move(empty + 1);
+            // 空格右移即数字左移，走回去时数字右移
+            back[back.length - 1 - count++] = 0;
+            empty++;
+        }
+        while (empty / ysize != xsize - 1) {
+            corner.move(empty + ysize);
+            back[back.length - 1 - count++] = 3;
+            empty += ysize;
+        }
+
+        // 按目标位置重新编号
+        int[] cornerTiles = corner.getTiles();
+        int[] goalOf = new int[cornerTiles.length];
+        for (int cell = 0; cell < cornerTiles.length; cell++) {
+            goalOf[cornerTiles[cell]] = cell;
+        }
+        int[] tiles = board.getTiles();
+        int[] relabeled = new int[tiles.length];
+        for (int cell = 0; cell < tiles.length; cell++) {
+            relabeled[cell] = tiles[cell] == 0 ? 0 : goalOf[tiles[cell]] + 1;
+        }
+
+        printBoard("初始棋盘状态：");
+        if (verbose) {
+            logger.info("目标棋盘：\n{}", target);
+        }
+        NumberPuzzleSolver relabeledSolver = new NumberPuzzleSolver(new Board(relabeled, xsize, ysize));
+        relabeledSolver.setVerbose(false);
+        if (hasDeadline) {
+            relabeledSolver.setDeadline(deadline);
+        }
+        if (!relabeledSolver.solve(mode)) {
+            if (verbose) {
+                logger.info("unsolvable");
+            }
+            return false;
+        }
+        boardOperator.doOperations(relabeledSolver.getMoveLog().toArray());
+        boardOperator.doOperations(back);
+        solution = MoveSequenceOptimizer.optimize(boardOperator.getMoveLog());
+        printBoard("最终棋盘状态：");
+        if (verbose) {
+            logger.info("求解共{}步", solution.size());
+            logMoves();
+        }
+        return true;
+    }
+
+    public boolean solveTo(Board target) {
+        return solveTo(target, SolveMode.DIVIDE_AND_CONQUER);
+    }
+
+    /**
+     * 使用指定的启发函数（如模式数据库）最优求解
+     */
+    public boolean solve(PuzzleHeuristic heuristic) {
+        return solve(() -> goOptimal(heuristic), true);
+    }
+
+    /**
+     * 使用指定的启发函数在 pool 上并行最优求解
+     */
+    public boolean solve(PuzzleHeuristic heuristic, ForkJoinPool pool) {
+        return solve(() -> goParallel(heuristic, pool), true);
+    }
+
+    /**
+     * @param optimal strategy 是否得到最短解，决定解能否从缓存中回答最短解的请求
+     */
+    private boolean solve(BooleanSupplier strategy, boolean optimal) {
         // 记录开始时间
         long startTime = System.currentTimeMillis();
 
         // 打印初始状态
         printBoard("初始棋盘状态：");
 
-        if (!solvabilityChecker.isSolvable()) {
-            logger.info("unsolvable");
+        Board start = null;
+        if (cache != null && stream == null) {
+            MoveLog cached = cache.get(board, optimal);
+            if (cached != null) {
+                boardOperator.doOperations(cached.toArray());
+                solution = cached;
+                printBoard("最终棋盘状态：");
+                if (verbose) {
+                    logger.info("命中解缓存，共{}步", solution.size());
+                    logMoves();
+                }
+                return true;
+            }
+            start = board.clone();
+        }
+
+        if (!SolvabilityChecker.isSolvable(board.getTiles(), xsize, ysize, context.seen)) {
+            if (verbose) {
+                logger.info("unsolvable");
+            }
             return false;
         }
         
-        boolean result = go();
+        boolean result = strategy.getAsBoolean();
 
         // 打印最终状态
         printBoard("最终棋盘状态：");
@@ -61,28 +258,174 @@ public class NumberPuzzleSolver {
         // 计算并打印执行时间
         long endTime = System.currentTimeMillis();
         Duration duration = Duration.ofMillis(endTime - startTime);
-        logger.info("求解共{}步，耗时：{}", boardOperator.getMoveHistory().length(), duration);
-        logger.info(boardOperator.getMoveHistory());
+        if (stream != null) {
+            stream.flush();
+            solution = new MoveLog();
+            if (verbose) {
+                logger.info("求解共{}步（已逐步输出），耗时：{}", stream.getEmitted(), duration);
+            }
+            return result;
+        }
+        MoveLog moveLog = boardOperator.getMoveLog();
+        solution = MoveSequenceOptimizer.optimize(moveLog);
+        if (start != null) {
+            cache.put(start, solution, optimal);
+        }
+        if (verbose) {
+            logger.info("求解共{}步（优化前{}步），耗时：{}", solution.size(), moveLog.size(), duration);
+            logMoves();
+        }
         return result;
     }
 
+    /**
+     * 完整的移动文字只在 DEBUG 级别输出：大棋盘的解有上百万步，INFO 级别只记录步数
+     */
+    private void logMoves() {
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}", solution);
+        }
+    }
+
+    /**
+     * 优化后的移动记录，从初始棋盘依次执行同样到达目标状态
+     */
+    public String getMoveHistory() {
+        return getMoveLog().toString();
+    }
+
+    public MoveLog getMoveLog() {
+        return solution != null ? solution : boardOperator.getMoveLog();
+    }
+
+    /**
+     * 求解过程中实际执行的移动，未经优化
+     */
+    public MoveLog getRawMoveLog() {
+        return boardOperator.getMoveLog();
+    }
+
     private void printBoard(String prefix) {
-        logger.info("{}\n{}", prefix, board);
+        if (verbose) {
+            logger.info("{}\n{}", prefix, board);
+        }
+    }
+
+    private void checkDeadline() {
+        if (hasDeadline && System.nanoTime() - deadline > 0) {
+            throw new SolveTimeoutException("求解超时");
+        }
+    }
+
+    private int cell(int x, int y) {
+        return x * ysize + y;
     }
 
-    private void moveSpaceTo(int x, int y, Integer stillX, Integer stillY) {
-        int[] space = boardOperator.getPositionOf(xsize - 1, ysize - 1);
-        int[][] path = pathFinder.findPath(space[0], space[1], x, y, stillX, stillY);
-        for (int i = 1; i < path.length; i++) {
-            boardOperator.swapNeighbor(path[i], path[i - 1]);
+    private void moveSpaceTo(int target, int still) {
+        int space = boardOperator.getCellOf(xsize - 1, ysize - 1);
+        int length = pathFinder.findPath(space, target, still, spacePath);
+        for (int i = 1; i < length; i++) {
+            boardOperator.swapNeighbor(spacePath[i], spacePath[i - 1]);
         }
     }
 
-    private void move(int srcX, int srcY, int desX, int desY) {
-        int[][] path = pathFinder.findPath(srcX, srcY, desX, desY, null, null);
-        for (int i = 1; i < path.length; i++) {
-            moveSpaceTo(path[i][0], path[i][1], path[i - 1][0], path[i - 1][1]);
-            boardOperator.swapNeighbor(path[i], path[i - 1]);
+    private void move(int src, int des) {
+        checkDeadline();
+        int length = pathFinder.findPath(src, des, -1, tilePath);
+        for (int i = 1; i < length; i++) {
+            moveSpaceTo(tilePath[i], tilePath[i - 1]);
+            boardOperator.swapNeighbor(tilePath[i], tilePath[i - 1]);
+        }
+    }
+
+    private boolean goTable() {
+        boardOperator.doOperations(EightPuzzleTable.solve(board.getTiles()));
+        return true;
+    }
+
+    private boolean goOptimal(PuzzleHeuristic heuristic) {
+        IdaStarSolver idaStarSolver = new IdaStarSolver(xsize, ysize, heuristic);
+        if (hasDeadline) {
+            idaStarSolver.setDeadline(deadline);
+        }
+        int[] operations = idaStarSolver.solve(board.getTiles());
+        logger.debug("IDA*展开节点数：{}", idaStarSolver.getExpandedNodes());
+        boardOperator.doOperations(operations);
+        return true;
+    }
+
+    private boolean goParallel(PuzzleHeuristic heuristic, ForkJoinPool pool) {
+        ParallelIdaStarSolver parallelSolver = new ParallelIdaStarSolver(xsize, ysize, heuristic, pool);
+        if (hasDeadline) {
+            parallelSolver.setDeadline(deadline);
+        }
+        int[] operations = parallelSolver.solve(board.getTiles());
+        logger.debug("并行IDA*展开节点数：{}", parallelSolver.getExpandedNodes());
+        boardOperator.doOperations(operations);
+        return true;
+    }
+
+    private boolean goPhased() {
+        PhaseSearch phaseSearch = new PhaseSearch(xsize, ysize, readyFlag);
+        // 上面 xsize-2 行逐行放，每次两个数字；列数为奇数时第一个数字单独放，保证最后两列总在同一阶段
+        for (int i = 0; i < xsize - 2; i++) {
+            int j = 0;
+            if (ysize % 2 == 1) {
+                place(phaseSearch, cell(i, 0));
+                j = 1;
+            }
+            for (; j < ysize; j += 2) {
+                place(phaseSearch, cell(i, j), cell(i, j + 1));
+            }
+        }
+        // 最后两行逐列放，每次一列的两个数字
+        for (int j = 0; j < ysize - 2; j++) {
+            place(phaseSearch, cell(xsize - 2, j), cell(xsize - 1, j));
+        }
+        // 最后的2x2小正方形
+        place(phaseSearch, cell(xsize - 2, ysize - 2), cell(xsize - 2, ysize - 1), cell(xsize - 1, ysize - 2));
+        return true;
+    }
+
+    /**
+     * 把目标为 goals 的数字放到位并标记为已就位
+     * <p>
+     * 窗口过大（大棋盘上数字离目标很远）时，先像分治一样贪心地把第一个数字放到目标、
+     * 第二个数字放到第二个目标外侧两格处，再做局部搜索
+     */
+    private void place(PhaseSearch phaseSearch, int... goals) {
+        checkDeadline();
+        int[] positions = new int[goals.length];
+        for (int i = 0; i < goals.length; i++) {
+            positions[i] = boardOperator.getCellOf(goals[i] / ysize, goals[i] % ysize);
+        }
+        int blank = boardOperator.getCellOf(xsize - 1, ysize - 1);
+        int length = phaseSearch.search(positions, goals, blank);
+        if (length == PhaseSearch.TOO_LARGE) {
+            move(positions[0], goals[0]);
+            if (goals.length > 1) {
+                // 横向的一对往下两格，纵向的一对往右两格
+                int staging = goals[1] + (goals[1] - goals[0] == 1 ? 2 * ysize : 2);
+                readyFlag[goals[0]] = true;
+                move(boardOperator.getCellOf(goals[1] / ysize, goals[1] % ysize), staging);
+                readyFlag[goals[0]] = false;
+            }
+            for (int i = 0; i < goals.length; i++) {
+                positions[i] = boardOperator.getCellOf(goals[i] / ysize, goals[i] % ysize);
+            }
+            blank = boardOperator.getCellOf(xsize - 1, ysize - 1);
+            length = phaseSearch.search(positions, goals, blank);
+            if (length == PhaseSearch.TOO_LARGE) {
+                throw new IllegalStateException("阶段搜索的窗口过大");
+            }
+        }
+        int[] path = phaseSearch.getPath();
+        for (int i = 0; i < length; i++) {
+            boardOperator.swapNeighbor(path[i], blank);
+            blank = path[i];
+        }
+        for (int goal : goals) {
+            readyFlag[goal] = true;
         }
     }
 
@@ -90,51 +433,44 @@ public class NumberPuzzleSolver {
         // 左上部分：xsize-2行，ysize-2列
         for (int i = 0; i < xsize - 2; i++) {
             for (int j = 0; j < ysize - 2; j++) {
-                int[] pos = boardOperator.getPositionOf(i, j);
-                move(pos[0], pos[1], i, j);
-                readyFlag[i][j] = true;
+                move(boardOperator.getCellOf(i, j), cell(i, j));
+                readyFlag[cell(i, j)] = true;
             }
         }
 
-        // 最后两行
+        // 最后两行：左边的列已全部解决
         for (int i = 0; i < ysize - 2; i++) {
-            int[] pos = boardOperator.getPositionOf(xsize - 1, i);
-            move(pos[0], pos[1], xsize - 1, i);
-            int[] space = boardOperator.getPositionOf(xsize - 1, ysize - 1);
-            if (space[0] == xsize - 2 && space[1] == i) {
-                boardOperator.swapNeighbor(new int[]{xsize - 2, i}, new int[]{xsize - 2, i + 1});
+            pathFinder.setSolvedBounds(0, i);
+            move(boardOperator.getCellOf(xsize - 1, i), cell(xsize - 1, i));
+            if (boardOperator.getCellOf(xsize - 1, ysize - 1) == cell(xsize - 2, i)) {
+                boardOperator.swapNeighbor(cell(xsize - 2, i), cell(xsize - 2, i + 1));
             }
-            pos = boardOperator.getPositionOf(xsize - 2, i);
-            if (pos[0] == xsize - 2 && pos[1] == i) continue;
-            pos = boardOperator.getPositionOf(xsize - 2, i);
-            move(pos[0], pos[1], xsize - 2, i + 2);
-            moveSpaceTo(xsize - 2, i + 1, xsize - 2, i + 2);
+            int pos = boardOperator.getCellOf(xsize - 2, i);
+            if (pos == cell(xsize - 2, i)) continue;
+            move(pos, cell(xsize - 2, i + 2));
+            moveSpaceTo(cell(xsize - 2, i + 1), cell(xsize - 2, i + 2));
             boardOperator.doOperations(GOLD_OP);
         }
 
-        // 最后两列
+        // 最后两列：上面的行和左边 ysize-2 列已全部解决
         for (int i = 0; i < xsize - 2; i++) {
-            int[] pos = boardOperator.getPositionOf(i, ysize - 2);
-            move(pos[0], pos[1], i, ysize - 2);
-            int[] space = boardOperator.getPositionOf(xsize - 1, ysize - 1);
-            if (space[0] == i && space[1] == ysize - 1) {
-                boardOperator.swapNeighbor(new int[]{i, ysize - 1}, new int[]{i + 1, ysize - 1});
+            pathFinder.setSolvedBounds(i, ysize - 2);
+            move(boardOperator.getCellOf(i, ysize - 2), cell(i, ysize - 2));
+            if (boardOperator.getCellOf(xsize - 1, ysize - 1) == cell(i, ysize - 1)) {
+                boardOperator.swapNeighbor(cell(i, ysize - 1), cell(i + 1, ysize - 1));
             }
-            pos = boardOperator.getPositionOf(i, ysize - 1);
-            if (pos[0] == i && pos[1] == ysize - 1) continue;
-            pos = boardOperator.getPositionOf(i, ysize - 1);
-            move(pos[0], pos[1], i + 2, ysize - 1);
-            moveSpaceTo(i + 1, ysize - 1, i + 2, ysize - 1);
+            int pos = boardOperator.getCellOf(i, ysize - 1);
+            if (pos == cell(i, ysize - 1)) continue;
+            move(pos, cell(i + 2, ysize - 1));
+            moveSpaceTo(cell(i + 1, ysize - 1), cell(i + 2, ysize - 1));
             boardOperator.doOperations(GOLD_OP_VERTICAL);
         }
 
         // 最后的2x2小正方形
-        int[] pos = boardOperator.getPositionOf(xsize - 2, ysize - 2);
-        move(pos[0], pos[1], xsize - 2, ysize - 2);
-        pos = boardOperator.getPositionOf(xsize - 2, ysize - 1);
-        move(pos[0], pos[1], xsize - 2, ysize - 1);
-        pos = boardOperator.getPositionOf(xsize - 1, ysize - 2);
-        move(pos[0], pos[1], xsize - 1, ysize - 2);
+        pathFinder.setSolvedBounds(xsize - 2, ysize - 2);
+        move(boardOperator.getCellOf(xsize - 2, ysize - 2), cell(xsize - 2, ysize - 2));
+        move(boardOperator.getCellOf(xsize - 2, ysize - 1), cell(xsize - 2, ysize - 1));
+        move(boardOperator.getCellOf(xsize - 1, ysize - 2), cell(xsize - 1, ysize - 2));
         return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.rubik.toll.back.puzzle;
+
+/**
+ * 不超过16格的棋盘（如2x2、3x3、4x4、3x5）的压缩表示
+ * <p>
+ * 每个格子占4位（nibble），按行优先顺序从低位到高位排列在一个 long 中：
+ * 第 k 格（k = 行 * 宽 + 列）位于第 4k ~ 4k+3 位，空格为0。
+ * 这样一个状态只是一个基本类型的值，搜索代码可以把海量状态放进 long[] 中，
+ * 移动空格也只需要几次移位和掩码运算。
+ */
+public final class PackedBoard {
+    /**
+     * 一个 long 最多容纳的格子数
+     */
+    public static final int MAX_CELLS = 16;
+
+    private static final long NIBBLE_MASK = 0xFL;
+    private static final long LOW_BITS = 0x1111_1111_1111_1111L;
+
+    private PackedBoard() {
+    }
+
+    /**
+     * 棋盘是否可以压缩成一个 long
+     */
+    public static boolean fits(int size) {
+        return fits(size, size);
+    }
+
+    public static boolean fits(int rows, int cols) {
+        return rows * cols <= MAX_CELLS;
+    }
+
+    public static long pack(Board board) {
+        if (!fits(board.getRows(), board.getCols())) {
+            throw new IllegalArgumentException("棋盘过大，无法压缩：" + board.getRows() + "x" + board.getCols());
+        }
+        return pack(board.getTiles());
+    }
+
+    public static long pack(int[] tiles) {
+        if (tiles.length > MAX_CELLS) {
+            throw new IllegalArgumentException("棋盘过大，无法压缩：" + tiles.length + "格");
+        }
+        long state = 0;
+        for (int k = 0; k < tiles.length; k++) {
+            state |= (long) tiles[k] << (k << 2);
+        }
+        return state;
+    }
+
+    public static Board unpack(long state, int size) {
+        return unpack(state, size, size);
+    }
+
+    public static Board unpack(long state, int rows, int cols) {
+        if (!fits(rows, cols)) {
+            throw new IllegalArgumentException("棋盘过大，无法解压：" + rows + "x" + cols);
+        }
+        return new Board(toArray(state, rows * cols), rows, cols);
+    }
+
+    /**
+     * 解压成一维数组（行优先）
+     */
+    public static int[] toArray(long state, int cells) {
+        int[] tiles = new int[cells];
+        for (int k = 0; k < cells; k++) {
+            tiles[k] = (int) ((state >>> (k << 2)) & NIBBLE_MASK);
+        }
+        return tiles;
+    }
+
+    /**
+     * 标准目标状态：1..cells-1 依次排列，空格在最后一格
+     */
+    public static long goal(int cells) {
+        long state = 0;
+        for (int k = 0; k < cells - 1; k++) {
+            state |= (long) (k + 1) << (k << 2);
+        }
+        return state;
+    }
+
+    public static int get(long state, int cell) {
+        return (int) ((state >>> (cell << 2)) & NIBBLE_MASK);
+    }
+
+    /**
+     * 定位空格所在的格子
+     * <p>
+     * 先把每个 nibble 的4位折叠到最低位，取反后最低位为1的 nibble 即为0，
+     * 再用 numberOfTrailingZeros 一次找到，不需要逐格循环。
+     */
+    public static int emptyIndex(long state, int cells) {
+        if (cells < MAX_CELLS) {
+            // 高位未使用的 nibble 也是0，先填满避免误判
+            state |= -1L << (cells << 2);
+        }
+        long folded = state | (state >>> 1);
+        folded |= folded >>> 2;
+        long zeros = ~folded & LOW_BITS;
+        if (zeros == 0) {
+            throw new IllegalArgumentException("棋盘中没有空格");
+        }
+        return Long.numberOfTrailingZeros(zeros) >>> 2;
+    }
+
+    /**
+     * 把 target 格上的数字移入空格 empty，target 变为新的空格
+     * <p>
+     * 调用方负责保证 empty 确实是空格且两格相邻。
+     */
+    public static long slide(long state, int empty, int target) {
+        int shift = target << 2;
+        long tile = (state >>> shift) & NIBBLE_MASK;
+        return (state & ~(NIBBLE_MASK << shift)) | (tile << (empty << 2));
+    }
+
+    /**
+     * 空格朝 direction 方向的相邻格，越界返回 -1
+     * <p>
+     * direction 与 {@link PathFinder#getDirections()} 的下标一致（右、左、上、下）。
+     */
+    public static int neighbor(int empty, int direction, int xsize, int ysize) {
+        int x = empty / ysize;
+        int y = empty - x * ysize;
+        switch (direction) {
+            case 0:
+                return y + 1 < ysize ? empty + 1 : -1;
+            case 1:
+                return y > 0 ? empty - 1 : -1;
+            case 2:
+                return x > 0 ? empty - ysize : -1;
+            case 3:
+                return x + 1 < xsize ? empty + ysize : -1;
+            default:
+                throw new IllegalArgumentException("无效的方向：" + direction);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.rubik.toll.back.puzzle;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并行的迭代加深 A*（IDA*）最优求解器
+ * <p>
+ * 先从根节点逐层展开（不走回头路），直到一层的节点数达到 {@value #FRONTIER_TARGET} 左右，这一层就是前沿。
+ * 每一轮迭代对所有前沿节点使用同一个阈值，每个前沿节点的子树是一个 {@link java.util.concurrent.ForkJoinTask}，
+ * 由 {@link ForkJoinPool} 的工作窃取分配到各线程，子树内部仍用 {@link IdaStarSolver} 单线程搜索。
+ * 前沿节点的子树大小相差很大，节点数远多于线程数，工作窃取才能把负载摊平。
+ * <p>
+ * 前面的阈值都已搜索完毕没有解，所以本轮任何子任务在阈值内找到的解都是最短解：
+ * 第一个找到解的子任务置位共享的停止标志，其余子任务在下一个节点处返回。
+ * 展开前沿的过程中就遇到目标状态时，按层展开保证它也是最短解。
+ * <p>
+ * 启发函数会被多个线程同时调用，只能读取自身的状态（本项目中的实现都满足）。
+ */
+public class ParallelIdaStarSolver {
+    private static final Logger logger = LogManager.getLogger(ParallelIdaStarSolver.class);
+    private static final int[][] DIRECTIONS = PathFinder.getDirections();
+    /**
+     * 前沿的目标节点数
+     */
+    static final int FRONTIER_TARGET = 4096;
+    /**
+     * 前沿的最大深度，小棋盘（如2x2）的节点数增长很慢，不能一直展开下去
+     */
+    private static final int MAX_FRONTIER_DEPTH = 16;
+
+    private final int xsize;
+    private final int ysize;
+    private final PuzzleHeuristic heuristic;
+    private final ForkJoinPool pool;
+    private final LongAdder expandedNodes = new LongAdder();
+    private boolean hasDeadline;
+    private long deadline;
+
+    public ParallelIdaStarSolver(int xsize, int ysize, PuzzleHeuristic heuristic) {
+        this(xsize, ysize, heuristic, ForkJoinPool.commonPool());
+    }
+
+    public ParallelIdaStarSolver(int xsize, int ysize, PuzzleHeuristic heuristic, ForkJoinPool pool) {
+        if (heuristic == null || pool == null) {
+            throw new IllegalArgumentException("启发函数和线程池不能为空");
+        }
+        this.xsize = xsize;
+        this.ysize = ysize;
+        this.heuristic = heuristic;
+        this.pool = pool;
+    }
+
+    /**
+     * 设置截止时间（{@link System#nanoTime()} 的值），超过后 {@link #solve(int[])} 抛出 {@link SolveTimeoutException}
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadline = deadlineNanos;
+    }
+
+    /**
+     * 前沿上的一个节点
+     */
+    private static final class Node {
+        final int[] tiles;
+        final int[] prefix;
+        final int empty;
+        final int h;
+
+        Node(int[] tiles, int[] prefix, int empty, int h) {
+            this.tiles = tiles;
+            this.prefix = prefix;
+            this.empty = empty;
+            this.h = h;
+        }
+    }
+
+    /**
+     * 求最短解，调用方需先确认棋盘有解
+     *
+     * @param board 行优先的一维棋盘，不会被修改
+     * @return 操作序列，已是目标状态时返回空数组
+     */
+    public int[] solve(int[] board) {
+        if (board.length != xsize * ysize) {
+            throw new IllegalArgumentException("棋盘大小不匹配");
+        }
+        expandedNodes.reset();
+        long startTime = System.nanoTime();
+
+        int empty = 0;
+        while (board[empty] != 0) {
+            empty++;
+        }
+        List<Node> frontier = new ArrayList<>();
+        frontier.add(new Node(board.clone(), new int[0], empty, heuristic.estimate(board)));
+        if (frontier.get(0).h == 0) {
+            return new int[0];
+        }
+        for (int depth = 0; frontier.size() < FRONTIER_TARGET && depth < MAX_FRONTIER_DEPTH; depth++) {
+            List<Node> next = new ArrayList<>(frontier.size() * 3);
+            for (Node node : frontier) {
+                Node goal = expand(node, next);
+                if (goal != null) {
+                    return goal.prefix;
+                }
+            }
+            expandedNodes.add(frontier.size());
+            frontier = next;
+        }
+        Node[] nodes = frontier.toArray(new Node[0]);
+
+        int bound = Integer.MAX_VALUE;
+        for (Node node : nodes) {
+            bound = Math.min(bound, node.prefix.length + node.h);
+        }
+        AtomicReference<int[]> solution = new AtomicReference<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        while (true) {
+            int next = pool.invoke(new SubtreeTask(nodes, 0, nodes.length, bound, solution, stop));
+            if (solution.get() != null) {
+                logger.debug("并行IDA*：前沿{}个节点，并行度{}，展开{}个节点，耗时{}ms", nodes.length,
+                        pool.getParallelism(), expandedNodes.sum(), (System.nanoTime() - startTime) / 1_000_000);
+                return solution.get();
+            }
+            if (next == Integer.MAX_VALUE) {
+                throw new IllegalStateException("棋盘无解");
+            }
+            bound = next;
+        }
+    }
+
+    /**
+     * 把 node 的子节点加入 next，遇到目标状态时返回该子节点
+     */
+    private Node expand(Node node, List<Node> next) {
+        int x = node.empty / ysize;
+        int y = node.empty - x * ysize;
+        int length = node.prefix.length;
+        int lastDirection = length == 0 ? -1 : node.prefix[length - 1] ^ 1;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            if (d == (lastDirection ^ 1)) {
+                continue;
+            }
+            int xx = x + DIRECTIONS[d][0];
+            int yy = y + DIRECTIONS[d][1];
+            if (xx < 0 || xx >= xsize || yy < 0 || yy >= ysize) {
+                continue;
+            }
+            int target = xx * ysize + yy;
+            int h = node.h + heuristic.delta(node.tiles, target, node.empty);
+            int[] tiles = node.tiles.clone();
+            tiles[node.empty] = tiles[target];
+            tiles[target] = 0;
+            int[] prefix = new int[length + 1];
+            System.arraycopy(node.prefix, 0, prefix, 0, length);
+            prefix[length] = d ^ 1;
+            Node child = new Node(tiles, prefix, target, h);
+            if (h == 0) {
+                return child;
+            }
+            next.add(child);
+        }
+        return null;
+    }
+
+    /**
+     * 一段前沿节点的子树，对半拆分直到单个节点
+     */
+    private final class SubtreeTask extends RecursiveTask<Integer> {
+        private final Node[] nodes;
+        private final int from;
+        private final int to;
+        private final int bound;
+        private final AtomicReference<int[]> solution;
+        private final AtomicBoolean stop;
+
+        SubtreeTask(Node[] nodes, int from, int to, int bound, AtomicReference<int[]> solution, AtomicBoolean stop) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.bound = bound;
+            this.solution = solution;
+            this.stop = stop;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                SubtreeTask left = new SubtreeTask(nodes, from, middle, bound, solution, stop);
+                SubtreeTask right = new SubtreeTask(nodes, middle, to, bound, solution, stop);
+                left.fork();
+                int rightResult = right.compute();
+                int leftResult = left.join();
+                return Math.min(leftResult, rightResult);
+            }
+            Node node = nodes[from];
+            if (node.prefix.length + node.h > bound) {
+                return node.prefix.length + node.h;
+            }
+            if (stop.get()) {
+                return Integer.MAX_VALUE;
+            }
+            IdaStarSolver worker = new IdaStarSolver(xsize, ysize, heuristic);
+            if (hasDeadline) {
+                worker.setDeadline(deadline);
+            }
+            try {
+                int result = worker.searchSubtree(node.tiles.clone(), node.prefix, node.empty, node.h, bound, stop);
+                if (result == IdaStarSolver.FOUND) {
+                    if (solution.compareAndSet(null, worker.getSolution())) {
+                        stop.set(true);
+                    }
+                    return Integer.MAX_VALUE;
+                }
+                return result;
+            } catch (RuntimeException e) {
+                // 超时或出错时让其他子任务尽快停下
+                stop.set(true);
+                throw e;
+            } finally {
+                expandedNodes.add(worker.getExpandedNodes());
+            }
+        }
+    }
+
+    /**
+     * 最近一次求解展开的节点数（所有线程之和）
+     */
+    public long getExpandedNodes() {
+        return expandedNodes.sum();
+    }
+}
@@ -1,65 +1,211 @@
 package com.rubik.toll.back.puzzle;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Arrays;
 
+/**
+ * 棋盘上的广度优先寻路
+ * <p>
+ * 格子统一用下标 x * ysize + y 表示。访问标记、前驱和队列都是构造时分配一次的一维数组，
+ * 访问标记用“代数”区分：每次搜索代数加一，标记值等于当前代数的格子才算访问过，不需要每次清空。
+ * 因此 {@link #findPath(int, int, int, int[])} 不分配任何内存，路径写入调用方提供的缓冲区。
+ * 一个实例同时只能被一个线程使用。
+ * <p>
+ * 开启窗口模式后，只在起点、终点和 still 的外接矩形向外扩展一圈的范围内搜索，
+ * 找不到路径、或者走出窗口的路径可能更短时，窗口边距加倍重试，直到覆盖整个未解决区域。
+ * 因此窗口模式找到的路径长度与全盘搜索相同。
+ * 分治求解时起点和终点通常相距很近，单次寻路的代价由整盘的格子数降为窗口面积。
+ * 已经整行或整列解决的区域可以通过 {@link #setSolvedBounds(int, int)} 直接排除在搜索之外。
+ */
 public class PathFinder {
     private final int xsize;
     private final int ysize;
-    private final boolean[][] readyFlag;
+    /**
+     * 已就位的格子，按格子下标索引
+     */
+    private final boolean[] readyFlag;
     private static final int[][] DIRECTIONS = {{0, 1}, {0, -1}, {-1, 0}, {1, 0}};
 
-    public PathFinder(int xsize, int ysize, boolean[][] readyFlag) {
+    private final int[] visited;
+    private final int[] previous;
+    /**
+     * 每个格子最多入队一次，队列长度不会超过格子数
+     */
+    private final int[] queue;
+    private int generation;
+    private boolean windowed;
+    private int minRow;
+    private int minCol;
+
+    public PathFinder(int xsize, int ysize, boolean[] readyFlag) {
         this.xsize = xsize;
         this.ysize = ysize;
         this.readyFlag = readyFlag;
+        this.visited = new int[xsize * ysize];
+        this.previous = new int[xsize * ysize];
+        this.queue = new int[xsize * ysize];
     }
 
-    private boolean isLegal(int x, int y) {
-        return x >= 0 && x < xsize && y >= 0 && y < ysize;
+    /**
+     * 查找从 from 到 to 的最短路径，不经过已就位的格子和 still
+     *
+     * @param from  起点格子
+     * @param to    终点格子
+     * @param still 不能经过的格子，没有时传 -1
+     * @param path  输出缓冲区，长度不小于格子数，依次写入从起点到终点的格子
+     * @return 路径上的格子个数（含起点和终点），找不到路径时返回0
+     */
+    public int findPath(int from, int to, int still, int[] path) {
+        if (from == to) {
+            path[0] = from;
+            return 1;
+        }
+        if (!windowed) {
+            return search(from, to, still, path, minRow, minCol, xsize - 1, ysize - 1);
+        }
+        int fx = from / ysize;
+        int fy = from - fx * ysize;
+        int tx = to / ysize;
+        int ty = to - tx * ysize;
+        int top = Math.min(fx, tx);
+        int bottom = Math.max(fx, tx);
+        int left = Math.min(fy, ty);
+        int right = Math.max(fy, ty);
+        if (still >= 0) {
+            int sx = still / ysize;
+            int sy = still - sx * ysize;
+            top = Math.min(top, sx);
+            bottom = Math.max(bottom, sx);
+            left = Math.min(left, sy);
+            right = Math.max(right, sy);
+        }
+        for (int margin = 1; ; margin <<= 1) {
+            int x0 = Math.max(minRow, top - margin);
+            int x1 = Math.min(xsize - 1, bottom + margin);
+            int y0 = Math.max(minCol, left - margin);
+            int y1 = Math.min(ysize - 1, right + margin);
+            int length = search(from, to, still, path, x0, y0, x1, y1);
+            boolean whole = x0 == minRow && y0 == minCol && x1 == xsize - 1 && y1 == ysize - 1;
+            if (whole || (length > 0 && length - 1 <= escapeBound(fx, fy, tx, ty, x0, y0, x1, y1))) {
+                return length;
+            }
+        }
     }
 
-    public int[][] findPath(int fx, int fy, int tx, int ty, Integer stillX, Integer stillY) {
-        int[][] distance = new int[xsize][ysize];
-        for (int i = 0; i < xsize; i++) {
-            for (int j = 0; j < ysize; j++) {
-                distance[i][j] = -1;
-            }
+    /**
+     * 走出窗口再回来的路径至少要走的步数：必须先到达窗口外紧邻的某一行或某一列。
+     * 已经贴着未解决区域边界的一侧走不出去，不参与计算
+     */
+    private int escapeBound(int fx, int fy, int tx, int ty, int x0, int y0, int x1, int y1) {
+        int bound = Integer.MAX_VALUE;
+        if (x0 > minRow) {
+            bound = Math.min(bound, Math.abs(fx - x0 + 1) + Math.abs(tx - x0 + 1));
         }
-        Queue<int[]> q = new LinkedList<>();
-        q.offer(new int[]{fx, fy});
-        distance[fx][fy] = 0;
-        int[][][] lastPos = new int[xsize][ysize][2];
+        if (x1 < xsize - 1) {
+            bound = Math.min(bound, Math.abs(x1 + 1 - fx) + Math.abs(x1 + 1 - tx));
+        }
+        if (y0 > minCol) {
+            bound = Math.min(bound, Math.abs(fy - y0 + 1) + Math.abs(ty - y0 + 1));
+        }
+        if (y1 < ysize - 1) {
+            bound = Math.min(bound, Math.abs(y1 + 1 - fy) + Math.abs(y1 + 1 - ty));
+        }
+        return bound;
+    }
 
-        while (!q.isEmpty()) {
-            int[] now = q.poll();
+    /**
+     * 在矩形 [x0, x1] x [y0, y1] 内广度优先搜索，起点本身可以在矩形之外
+     */
+    private int search(int from, int to, int still, int[] path, int x0, int y0, int x1, int y1) {
+        int stamp = nextGeneration();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        visited[from] = stamp;
+
+        while (head < tail) {
+            int now = queue[head++];
+            int x = now / ysize;
+            int y = now - x * ysize;
             for (int[] dir : DIRECTIONS) {
-                int xx = now[0] + dir[0];
-                int yy = now[1] + dir[1];
-                if (isLegal(xx, yy)
-                        && distance[xx][yy] == -1
-                        && (stillX == null || stillY == null || xx != stillX || yy != stillY)
-                        && !readyFlag[xx][yy]) {
-                    q.offer(new int[]{xx, yy});
-                    distance[xx][yy] = distance[now[0]][now[1]] + 1;
-                    lastPos[xx][yy] = now;
-                    if (xx == tx && yy == ty) {
-                        LinkedList<int[]> path = new LinkedList<>();
-                        int[] curr = new int[]{xx, yy};
-                        while (true) {
-                            path.addFirst(curr);
-                            if (curr[0] == fx && curr[1] == fy) break;
-                            curr = lastPos[curr[0]][curr[1]];
-                        }
-                        return path.toArray(new int[0][]);
-                    }
+                int xx = x + dir[0];
+                int yy = y + dir[1];
+                if (xx < x0 || xx > x1 || yy < y0 || yy > y1) {
+                    continue;
+                }
+                int next = xx * ysize + yy;
+                if (visited[next] == stamp || next == still || readyFlag[next]) {
+                    continue;
                 }
+                visited[next] = stamp;
+                previous[next] = now;
+                if (next == to) {
+                    return writePath(from, to, path);
+                }
+                queue[tail++] = next;
             }
         }
-        return new int[0][];
+        return 0;
+    }
+
+    /**
+     * 沿前驱回溯，先数出长度，再从后往前写入缓冲区
+     */
+    private int writePath(int from, int to, int[] path) {
+        int length = 1;
+        for (int curr = to; curr != from; curr = previous[curr]) {
+            length++;
+        }
+        int curr = to;
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = curr;
+            curr = previous[curr];
+        }
+        return length;
+    }
+
+    private int nextGeneration() {
+        if (++generation == 0) {
+            // 代数回绕时清空一次标记
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+        return generation;
+    }
+
+    /**
+     * 开启或关闭窗口模式
+     */
+    public void setWindowed(boolean windowed) {
+        this.windowed = windowed;
+    }
+
+    /**
+     * 行号小于 minRow 或列号小于 minCol 的格子已全部解决，寻路时不再访问
+     */
+    public void setSolvedBounds(int minRow, int minCol) {
+        this.minRow = minRow;
+        this.minCol = minCol;
+    }
+
+    /**
+     * 坐标形式的寻路，每次调用都会分配结果数组，仅供不在热点路径上的调用方使用
+     */
+    public int[][] findPath(int fx, int fy, int tx, int ty, Integer stillX, Integer stillY) {
+        int still = stillX == null || stillY == null ? -1 : stillX * ysize + stillY;
+        int[] buffer = new int[xsize * ysize];
+        int length = findPath(fx * ysize + fy, tx * ysize + ty, still, buffer);
+        if (length <= 1) {
+            // 与原先的行为保持一致：起点即终点时返回空路径
+            return new int[0][];
+        }
+        int[][] path = new int[length][];
+        for (int i = 0; i < length; i++) {
+            path[i] = new int[]{buffer[i] / ysize, buffer[i] % ysize};
+        }
+        return path;
     }
 
     public static int[][] getDirections() {
         return DIRECTIONS;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,293 @@
+package com.rubik.toll.back.puzzle;
+
+import java.util.Arrays;
+
+/**
+ * 分阶段求解中单个阶段的局部最优搜索
+ * <p>
+ * 一个阶段把1到3个数字放到各自的目标格子，已就位的格子不能动。
+ * 其余数字与本阶段无关，可以看成无差别的，所以搜索状态只是（本阶段各数字的位置，空格位置），
+ * 每一步都是空格移动一格、代价为1，广度优先搜索得到的就是本阶段的最少步数。
+ * <p>
+ * 搜索限制在一个窗口内：各数字、目标和空格的外接矩形向外扩展 margin 圈，去掉已就位的格子。
+ * 窗口内的解不一定最短，空格可能要走出窗口绕路。最短解的最后一步总是把某个数字推到目标，
+ * 结束时空格紧挨着某个目标，所以走出窗口的解至少要从空格走到窗口外一圈、再回到目标旁边；
+ * 窗口内的解不超过这个下界才是本阶段的最少步数，否则（或窗口内无解时）边距加倍重试。
+ * 状态数（窗口格子数的 k+1 次方）超过 {@value #MAX_STATES} 时不再扩大：已经有解就返回窗口内的最短解，
+ * 否则放弃，由调用方先用贪心移动把数字带到目标附近再搜索。
+ * <p>
+ * 访问标记、来路和队列按需扩容后一直复用，访问标记用“代数”区分，不需要每次清空。
+ */
+final class PhaseSearch {
+    /**
+     * 单次搜索的状态数上限，两个数字时窗口最多约100格，恰好覆盖整个10x10棋盘
+     */
+    static final int MAX_STATES = 1 << 20;
+    /**
+     * 窗口过大，需要调用方先缩小问题
+     */
+    static final int TOO_LARGE = -1;
+    private static final int[][] DIRECTIONS = PathFinder.getDirections();
+
+    private final int xsize;
+    private final int ysize;
+    private final boolean[] readyFlag;
+    // 格子 -> 窗口内编号，不在窗口内为 -1
+    private final int[] idOf;
+    private final int[] cellOf;
+    // 窗口内编号 -> 四个方向的相邻编号，没有为 -1
+    private final int[] neighbors;
+    private int windowSize;
+
+    private int[] visited = new int[0];
+    private byte[] via = new byte[0];
+    private int[] queue = new int[0];
+    private int generation;
+    private int[] path = new int[64];
+
+    PhaseSearch(int xsize, int ysize, boolean[] readyFlag) {
+        this.xsize = xsize;
+        this.ysize = ysize;
+        this.readyFlag = readyFlag;
+        this.idOf = new int[xsize * ysize];
+        this.cellOf = new int[xsize * ysize];
+        this.neighbors = new int[4 * xsize * ysize];
+    }
+
+    /**
+     * 搜索本阶段的最少步数，窗口受状态数上限限制时退而取窗口内的最短解
+     *
+     * @param positions 本阶段各数字当前所在的格子
+     * @param goals     对应的目标格子
+     * @param blank     空格所在的格子
+     * @return 步数，空格依次经过的格子由 {@link #getPath()} 取得；窗口过大且还没有解时返回 {@link #TOO_LARGE}
+     */
+    int search(int[] positions, int[] goals, int blank) {
+        int top = blank / ysize;
+        int bottom = top;
+        int left = blank % ysize;
+        int right = left;
+        for (int i = 0; i < 2 * positions.length; i++) {
+            int cell = i < positions.length ? positions[i] : goals[i - positions.length];
+            top = Math.min(top, cell / ysize);
+            bottom = Math.max(bottom, cell / ysize);
+            left = Math.min(left, cell % ysize);
+            right = Math.max(right, cell % ysize);
+        }
+        int best = TOO_LARGE;
+        for (int margin = 1; ; margin <<= 1) {
+            int x0 = Math.max(0, top - margin);
+            int x1 = Math.min(xsize - 1, bottom + margin);
+            int y0 = Math.max(0, left - margin);
+            int y1 = Math.min(ysize - 1, right + margin);
+            int size = window(x0, y0, x1, y1);
+            long states = size;
+            for (int i = 0; i < positions.length; i++) {
+                states *= size;
+            }
+            if (states > MAX_STATES) {
+                // 上一个窗口的解仍在 path 中
+                return best;
+            }
+            int length = bfs(positions, goals, blank, (int) states);
+            boolean whole = x0 == 0 && y0 == 0 && x1 == xsize - 1 && y1 == ysize - 1;
+            if (length >= 0 && (whole || length <= escapeBound(goals, blank, x0, y0, x1, y1))) {
+                return length;
+            }
+            if (whole) {
+                throw new IllegalStateException("阶段无解");
+            }
+            best = length >= 0 ? length : TOO_LARGE;
+        }
+    }
+
+    /**
+     * 空格走出窗口的解至少需要的步数：先走到窗口外紧邻的某一行或某一列，再回到离该侧最近的目标旁边。
+     * 已经贴着棋盘边界的一侧走不出去，不参与计算
+     */
+    private int escapeBound(int[] goals, int blank, int x0, int y0, int x1, int y1) {
+        int bx = blank / ysize;
+        int by = blank % ysize;
+        int top = xsize;
+        int bottom = 0;
+        int left = ysize;
+        int right = 0;
+        for (int goal : goals) {
+            top = Math.min(top, goal / ysize);
+            bottom = Math.max(bottom, goal / ysize);
+            left = Math.min(left, goal % ysize);
+            right = Math.max(right, goal % ysize);
+        }
+        int bound = Integer.MAX_VALUE;
+        if (x0 > 0) {
+            bound = Math.min(bound, (bx - x0 + 1) + (top - x0));
+        }
+        if (x1 < xsize - 1) {
+            bound = Math.min(bound, (x1 + 1 - bx) + (x1 - bottom));
+        }
+        if (y0 > 0) {
+            bound = Math.min(bound, (by - y0 + 1) + (left - y0));
+        }
+        if (y1 < ysize - 1) {
+            bound = Math.min(bound, (y1 + 1 - by) + (y1 - right));
+        }
+        return bound;
+    }
+
+    /**
+     * 空格依次经过的格子，长度为最近一次 {@link #search} 的返回值
+     */
+    int[] getPath() {
+        return path;
+    }
+
+    /**
+     * 给矩形内未就位的格子编号并建立相邻关系
+     *
+     * @return 窗口格子数
+     */
+    private int window(int x0, int y0, int x1, int y1) {
+        int window = 0;
+        for (int x = x0; x <= x1; x++) {
+            for (int y = y0; y <= y1; y++) {
+                int cell = x * ysize + y;
+                if (readyFlag[cell]) {
+                    idOf[cell] = -1;
+                } else {
+                    idOf[cell] = window;
+                    cellOf[window++] = cell;
+                }
+            }
+        }
+        windowSize = window;
+        for (int id = 0; id < window; id++) {
+            int cell = cellOf[id];
+            int x = cell / ysize;
+            int y = cell - x * ysize;
+            for (int d = 0; d < 4; d++) {
+                int xx = x + DIRECTIONS[d][0];
+                int yy = y + DIRECTIONS[d][1];
+                boolean inside = xx >= x0 && xx <= x1 && yy >= y0 && yy <= y1;
+                neighbors[id * 4 + d] = inside ? idOf[xx * ysize + yy] : -1;
+            }
+        }
+        return window;
+    }
+
+    /**
+     * 状态编码：((p0 * R + p1) * R + ...) * R + 空格，R 为窗口格子数
+     *
+     * @return 步数，窗口内无解时返回 -1
+     */
+    private int bfs(int[] positions, int[] goals, int blank, int states) {
+        int k = positions.length;
+        int r = windowSize;
+        int[] pos = new int[k];
+        int[] goal = new int[k];
+        int start = 0;
+        int target = 0;
+        for (int i = 0; i < k; i++) {
+            pos[i] = idOf[positions[i]];
+            goal[i] = idOf[goals[i]];
+            start = start * r + pos[i];
+            target = target * r + goal[i];
+        }
+        start = start * r + idOf[blank];
+        ensureCapacity(states);
+        int stamp = nextGeneration();
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        visited[start] = stamp;
+        int found = -1;
+        while (head < tail && found < 0) {
+            int state = queue[head++];
+            if (state / r == target) {
+                found = state;
+                break;
+            }
+            int empty = state % r;
+            int rest = state / r;
+            for (int i = k - 1; i >= 0; i--) {
+                pos[i] = rest % r;
+                rest /= r;
+            }
+            for (int d = 0; d < 4; d++) {
+                int next = neighbors[empty * 4 + d];
+                if (next < 0) {
+                    continue;
+                }
+                int encoded = 0;
+                for (int i = 0; i < k; i++) {
+                    // 与空格交换的若是本阶段的数字，它移到空格原来的位置
+                    encoded = encoded * r + (pos[i] == next ? empty : pos[i]);
+                }
+                encoded = encoded * r + next;
+                if (visited[encoded] != stamp) {
+                    visited[encoded] = stamp;
+                    via[encoded] = (byte) d;
+                    queue[tail++] = encoded;
+                }
+            }
+        }
+        if (found < 0) {
+            return -1;
+        }
+        return writePath(found, start, k);
+    }
+
+    /**
+     * 沿来路回溯，先数出步数，再从后往前写入空格经过的格子
+     */
+    private int writePath(int state, int start, int k) {
+        int length = 0;
+        for (int s = state; s != start; s = previousState(s, k)) {
+            length++;
+        }
+        if (path.length < length) {
+            path = new int[Math.max(length, path.length << 1)];
+        }
+        int i = length;
+        for (int s = state; s != start; s = previousState(s, k)) {
+            path[--i] = cellOf[s % windowSize];
+        }
+        return length;
+    }
+
+    /**
+     * 到达 state 时空格朝 via 方向移动；回退时空格朝反方向退回，与之交换的数字回到空格现在的位置
+     */
+    private int previousState(int state, int k) {
+        int r = windowSize;
+        int empty = state % r;
+        int previous = neighbors[empty * 4 + (via[state] ^ 1)];
+        int rest = state / r;
+        int encoded = 0;
+        int scale = 1;
+        for (int i = 0; i < k; i++) {
+            int p = rest % r;
+            rest /= r;
+            encoded += (p == previous ? empty : p) * scale;
+            scale *= r;
+        }
+        return encoded * r + previous;
+    }
+
+    private void ensureCapacity(int states) {
+        if (visited.length < states) {
+            visited = new int[states];
+            via = new byte[states];
+            queue = new int[states];
+            generation = 0;
+        }
+    }
+
+    private int nextGeneration() {
+        if (++generation == 0) {
+            Arrays.fill(visited, 0);
+            generation = 1;
+        }
+        return generation;
+    }
+}
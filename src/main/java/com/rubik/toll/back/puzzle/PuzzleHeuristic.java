@@ -0,0 +1,23 @@
+package com.rubik.toll.back.puzzle;
+
+/**
+ * 最优搜索使用的启发函数（估值必须是可采纳的，即不超过实际所需步数）
+ * <p>
+ * 棋盘统一用行优先的一维数组表示，空格为0。
+ * 搜索过程中每走一步只调用 {@link #delta}，由实现决定能否增量计算，避免每个节点都重算整盘。
+ * 估值为0当且仅当棋盘已到达目标状态。
+ */
+public interface PuzzleHeuristic {
+
+    /**
+     * 计算整盘的估值
+     */
+    int estimate(int[] tiles);
+
+    /**
+     * 把 from 格上的数字移入相邻的空格 to 之后，估值的变化量
+     * <p>
+     * 调用时棋盘仍是移动前的状态，实现不得修改 tiles 的最终内容。
+     */
+    int delta(int[] tiles, int from, int to);
+}
@@ -1,91 +1,141 @@
 package com.rubik.toll.back.puzzle;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * 打乱棋盘
+ * <p>
+ * 两种方式：
+ * <ul>
+ *   <li>{@link #randomize()}：在所有可解状态中均匀随机取一个，O(n)</li>
+ *   <li>{@link #shuffle(int)}：从当前状态随机走指定步数，不走回头路，用于生成指定难度的局面</li>
+ * </ul>
+ * 随机数使用 {@link SplittableRandom}，给定种子时结果可复现。
+ */
 public class PuzzleShuffler {
-    private int[][] board;
-    private final int size;
-    private final Random random;
-    private int emptyRow;
-    private int emptyCol;
+    private final Board board;
+    private final int rows;
+    private final int cols;
+    private final SplittableRandom random;
+    // 空格可以移向的格子，复用以避免每步分配
+    private final int[] possibleMoves = new int[4];
 
     public PuzzleShuffler(Board board) {
+        this(board, new SplittableRandom());
+    }
+
+    public PuzzleShuffler(Board board, long seed) {
+        this(board, new SplittableRandom(seed));
+    }
+
+    private PuzzleShuffler(Board board, SplittableRandom random) {
         if (board == null) {
             throw new IllegalArgumentException("棋盘不能为空");
         }
-        this.size = board.getSize();
-        this.random = new Random();
-        
-        this.board = board.getTiles();
-        int[] emptyPosition = board.getEmptyPosition();
-        this.emptyRow = emptyPosition[0];
-        this.emptyCol = emptyPosition[1];
+        this.board = board;
+        this.rows = board.getRows();
+        this.cols = board.getCols();
+        this.random = random;
     }
 
+    /**
+     * 随机走 moves 步，每一步都不撤销上一步
+     */
     public int[] shuffle(int moves) {
         if (moves < 0) {
             throw new IllegalArgumentException("移动步数不能为负数");
         }
 
-        // 如果移动步数为0，直接返回当前方阵
-        if (moves == 0) {
-            return toOneDimensionalArray();
-        }
-
-        // 执行随机移动
+        int previous = -1;
         for (int i = 0; i < moves; i++) {
-            moveRandomly();
+            int empty = board.getEmptyIndex();
+            int count = getPossibleMoves(empty, previous);
+            // 交换空格与目标位置
+            board.move(possibleMoves[random.nextInt(count)]);
+            previous = empty;
         }
 
-        return toOneDimensionalArray();
+        return getBoard();
     }
 
-    private void moveRandomly() {
-        int[][] possibleMoves = getPossibleMoves();
-        int moveIndex = random.nextInt(possibleMoves.length);
-        int newRow = possibleMoves[moveIndex][0];
-        int newCol = possibleMoves[moveIndex][1];
-        
-        // 交换空格与目标位置
-        board[emptyRow][emptyCol] = board[newRow][newCol];
-        board[newRow][newCol] = 0;
-        emptyRow = newRow;
-        emptyCol = newCol;
+    /**
+     * 把棋盘替换为均匀随机的可解状态
+     */
+    public int[] randomize() {
+        randomSolvable(board.getTiles(), rows, cols, random);
+        board.refresh();
+        return getBoard();
     }
 
-    private int[][] getPossibleMoves() {
-        // 可能的移动方向：上、下、左、右
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-        int count = 0;
-        int[][] possibleMoves = new int[4][2];
+    /**
+     * 在 tiles 中生成均匀随机的可解状态，不分配内存
+     * <p>
+     * 从目标状态出发做 Fisher-Yates 洗牌，同时记录置换的奇偶性（每次交换两个不同的格子翻转一次）。
+     * 结果无解时交换前两个非空格的数字：空格不动、奇偶性翻转，于是变为可解。
+     * 这个交换是无解状态与可解状态之间的一一对应，所以结果在可解状态中仍是均匀的。
+     */
+    public static void randomSolvable(int[] tiles, int rows, int cols, SplittableRandom random) {
+        int cells = rows * cols;
+        if (tiles.length != cells) {
+            throw new IllegalArgumentException("棋盘大小不匹配");
+        }
+        for (int i = 0; i < cells - 1; i++) {
+            tiles[i] = i + 1;
+        }
+        tiles[cells - 1] = 0;
 
-        for (int[] dir : directions) {
-            int newRow = emptyRow + dir[0];
-            int newCol = emptyCol + dir[1];
-            
-            if (newRow >= 0 && newRow < size && newCol >= 0 && newCol < size) {
-                possibleMoves[count][0] = newRow;
-                possibleMoves[count][1] = newCol;
-                count++;
+        int parity = 0;
+        int empty = cells - 1;
+        for (int i = cells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            if (j != i) {
+                int temp = tiles[i];
+                tiles[i] = tiles[j];
+                tiles[j] = temp;
+                parity ^= 1;
+                if (tiles[i] == 0) {
+                    empty = i;
+                } else if (tiles[j] == 0) {
+                    empty = j;
+                }
             }
         }
 
-        int[][] result = new int[count][2];
-        System.arraycopy(possibleMoves, 0, result, 0, count);
-        return result;
+        int distance = rows - 1 - empty / cols + cols - 1 - empty % cols;
+        if (parity != (distance & 1)) {
+            int first = empty == 0 ? 1 : 0;
+            int second = empty == first + 1 ? first + 2 : first + 1;
+            int temp = tiles[first];
+            tiles[first] = tiles[second];
+            tiles[second] = temp;
+        }
     }
 
-    public int[] getBoard() {
-        return toOneDimensionalArray();
-    }
+    /**
+     * 空格可以移向的格子，排除 excluded（上一步空格所在的格子）
+     */
+    private int getPossibleMoves(int empty, int excluded) {
+        int emptyRow = empty / cols;
+        int emptyCol = empty - emptyRow * cols;
+        int count = 0;
 
-    private int[] toOneDimensionalArray() {
-        int[] result = new int[size * size];
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                result[i * size + j] = board[i][j];
-            }
+        // 可能的移动方向：上、下、左、右
+        if (emptyRow > 0 && empty - cols != excluded) {
+            possibleMoves[count++] = empty - cols;
+        }
+        if (emptyRow < rows - 1 && empty + cols != excluded) {
+            possibleMoves[count++] = empty + cols;
         }
-        return result;
+        if (emptyCol > 0 && empty - 1 != excluded) {
+            possibleMoves[count++] = empty - 1;
+        }
+        if (emptyCol < cols - 1 && empty + 1 != excluded) {
+            possibleMoves[count++] = empty + 1;
+        }
+        return count;
+    }
+
+    public int[] getBoard() {
+        return board.getTiles().clone();
     }
-}
\ No newline at end of file
+}
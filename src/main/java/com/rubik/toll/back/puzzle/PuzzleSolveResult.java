@@ -0,0 +1,45 @@
+package com.rubik.toll.back.puzzle;
+
+import java.time.Duration;
+
+/**
+ * 批量求解中单个棋盘的结果
+ *
+ * @param index   棋盘在提交列表中的下标
+ * @param status  求解状态
+ * @param moves   优化后的移动记录，未求解成功时为 null
+ * @param elapsed 该棋盘的求解耗时（不含排队时间）
+ * @param error   求解失败时的异常，其余情况为 null
+ */
+public record PuzzleSolveResult(int index, Status status, MoveLog moves, Duration elapsed, Throwable error) {
+
+    public enum Status {
+        /**
+         * 已求解，moves 为解
+         */
+        SOLVED,
+        /**
+         * 棋盘无解
+         */
+        UNSOLVABLE,
+        /**
+         * 超过截止时间
+         */
+        TIMED_OUT,
+        /**
+         * 求解过程中抛出了其他异常
+         */
+        FAILED
+    }
+
+    public boolean isSolvable() {
+        return status != Status.UNSOLVABLE;
+    }
+
+    /**
+     * 解的步数，没有解时为 -1
+     */
+    public long length() {
+        return moves == null ? -1 : moves.size();
+    }
+}
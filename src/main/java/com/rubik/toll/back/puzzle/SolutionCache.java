@@ -0,0 +1,272 @@
+package com.rubik.toll.back.puzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按棋盘内容缓存的解，同时限制条数和估算的字节数，超出时按最近最少使用（LRU）淘汰
+ * <p>
+ * 每条解从起始棋盘出发经过的每个中间状态都建立索引，所以查询的棋盘只要落在某条已缓存的解的路径上，
+ * 就直接返回该解从这个状态开始的后半段，例如玩家照着提示走了几步之后再次请求提示。
+ * 索引按棋盘尺寸和 {@link Zobrist} 哈希查找（哈希只取决于数字数组，2x6 和 3x4 的同一数组哈希相同），
+ * 命中后从起始棋盘重放到对应步数逐格比较，排除哈希碰撞。一个状态可能落在多条解上，索引保留全部，
+ * 其中一条被淘汰后其余的仍然可以回答。
+ * <p>
+ * 分治得到的解不是最短解，请求最短解时不会用它来回答；最短解的后半段仍然是最短解，可以回答任何请求。
+ * <p>
+ * 所有方法都是同步的，可以被多个求解线程共享。
+ */
+public class SolutionCache {
+    private static final int[][] DIRECTIONS = PathFinder.getDirections();
+    /**
+     * 每条解的固定开销和每个路径索引项的估算字节数（对象头、HashMap 节点、键对象、列表）
+     */
+    private static final long ENTRY_OVERHEAD = 128;
+    private static final long INDEX_BYTES = 120;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    // 按起始棋盘存放，访问顺序即 LRU 顺序
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // 路径上的每个状态 -> 经过它的所有解
+    private final Map<Key, List<Entry>> index = new HashMap<>();
+    private long bytes;
+
+    private long hits;
+    private long suffixHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries 最多缓存的解的条数
+     * @param maxBytes   所有解估算占用的字节数上限，单条超过上限的解不缓存
+     */
+    public SolutionCache(int maxEntries, long maxBytes) {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("缓存容量必须为正数");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    private record Key(int rows, int cols, long hash) {
+    }
+
+    private static final class Entry {
+        final int rows;
+        final int cols;
+        final int[] start;
+        final MoveLog moves;
+        final boolean optimal;
+        // path[i] 是执行前 i 步之后的哈希
+        final long[] path;
+        final long bytes;
+
+        Entry(int rows, int cols, int[] start, MoveLog moves, boolean optimal, long[] path, long bytes) {
+            this.rows = rows;
+            this.cols = cols;
+            this.start = start;
+            this.moves = moves;
+            this.optimal = optimal;
+            this.path = path;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * 缓存的统计信息
+     *
+     * @param hits       命中次数，包括 suffixHits
+     * @param suffixHits 落在某条解中间而返回后半段的次数
+     * @param misses     未命中次数
+     * @param evictions  因容量被淘汰的解的条数
+     * @param entries    当前缓存的解的条数
+     * @param bytes      当前估算占用的字节数
+     */
+    public record Stats(long hits, long suffixHits, long misses, long evictions, int entries, long bytes) {
+    }
+
+    /**
+     * 查询从 board 到目标状态的解
+     *
+     * @param optimal 是否要求最短解
+     * @return 解的副本，没有可用的解时返回 null
+     */
+    public synchronized MoveLog get(Board board, boolean optimal) {
+        List<Entry> candidates = index.get(key(board));
+        Entry entry = null;
+        long offset = -1;
+        if (candidates != null) {
+            // 有最短解时优先用最短解
+            for (Entry candidate : candidates) {
+                if ((entry == null || (candidate.optimal && !entry.optimal)) && (candidate.optimal || !optimal)) {
+                    long located = locate(candidate, board);
+                    if (located >= 0) {
+                        entry = candidate;
+                        offset = located;
+                    }
+                }
+            }
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        // 刷新所属解的 LRU 顺序
+        entries.get(new Key(entry.rows, entry.cols, entry.path[0]));
+        hits++;
+        if (offset > 0) {
+            suffixHits++;
+        }
+        MoveLog suffix = new MoveLog();
+        for (long i = offset; i < entry.moves.size(); i++) {
+            suffix.append(entry.moves.get(i));
+        }
+        return suffix;
+    }
+
+    /**
+     * 缓存从 start 到目标状态的解 moves，start 和 moves 都会被复制
+     *
+     * @param optimal moves 是否是最短解
+     */
+    public synchronized void put(Board start, MoveLog moves, boolean optimal) {
+        int cells = start.getTiles().length;
+        long size = moves.size();
+        long estimate = ENTRY_OVERHEAD + 4L * cells + (size + 32) / 32 * 8 + (size + 1) * (8 + INDEX_BYTES);
+        if (estimate > maxBytes || size >= Integer.MAX_VALUE) {
+            return;
+        }
+
+        // 重放一遍得到路径上每个状态的哈希，同时检查这确实是一条解
+        int rows = start.getRows();
+        int cols = start.getCols();
+        int[] tiles = start.getTiles().clone();
+        long[] path = new long[(int) size + 1];
+        long hash = start.getZobristHash();
+        int empty = start.getEmptyIndex();
+        path[0] = hash;
+        MoveLog copy = new MoveLog();
+        for (int i = 0; i < size; i++) {
+            int op = moves.get(i);
+            int next = neighbor(empty, op, rows, cols);
+            if (next < 0) {
+                throw new IllegalArgumentException("移动越界，不是该棋盘的解");
+            }
+            hash = Zobrist.move(hash, tiles[next], next, empty);
+            tiles[empty] = tiles[next];
+            tiles[next] = 0;
+            empty = next;
+            path[i + 1] = hash;
+            copy.append(op);
+        }
+        if (!new Board(tiles, rows, cols).isSolved()) {
+            throw new IllegalArgumentException("移动之后没有到达目标状态，不是该棋盘的解");
+        }
+
+        Key key = new Key(rows, cols, path[0]);
+        Entry previous = entries.get(key);
+        if (previous != null) {
+            if (locate(previous, start) != 0 || (previous.optimal && !optimal)) {
+                // 哈希碰撞的另一个棋盘，或者已有同一棋盘的最短解
+                return;
+            }
+            remove(previous);
+        }
+        Entry entry = new Entry(rows, cols, start.getTiles().clone(), copy, optimal, path, estimate);
+        entries.put(key, entry);
+        for (long state : path) {
+            List<Entry> covering = index.computeIfAbsent(new Key(rows, cols, state), k -> new ArrayList<>(1));
+            // 分治的解可能多次经过同一状态，同一条解只记一次
+            if (covering.isEmpty() || covering.get(covering.size() - 1) != entry) {
+                covering.add(entry);
+            }
+        }
+        bytes += estimate;
+        evict();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, suffixHits, misses, evictions, entries.size(), bytes);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        index.clear();
+        bytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            unindex(eldest);
+            evictions++;
+        }
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(new Key(entry.rows, entry.cols, entry.path[0]));
+        unindex(entry);
+    }
+
+    private void unindex(Entry entry) {
+        for (long state : entry.path) {
+            Key key = new Key(entry.rows, entry.cols, state);
+            List<Entry> covering = index.get(key);
+            if (covering != null && covering.remove(entry) && covering.isEmpty()) {
+                index.remove(key);
+            }
+        }
+        bytes -= entry.bytes;
+    }
+
+    private static Key key(Board board) {
+        return new Key(board.getRows(), board.getCols(), board.getZobristHash());
+    }
+
+    /**
+     * board 在 entry 的路径上的步数，不在路径上（哈希碰撞）时返回 -1
+     */
+    private static long locate(Entry entry, Board board) {
+        if (entry.rows != board.getRows() || entry.cols != board.getCols()) {
+            return -1;
+        }
+        long hash = board.getZobristHash();
+        int[] tiles = entry.start.clone();
+        int empty = 0;
+        while (tiles[empty] != 0) {
+            empty++;
+        }
+        for (int i = 0; i < entry.path.length; i++) {
+            if (entry.path[i] == hash && Arrays.equals(tiles, board.getTiles())) {
+                return i;
+            }
+            if (i < entry.path.length - 1) {
+                int next = neighbor(empty, entry.moves.get(i), entry.rows, entry.cols);
+                tiles[empty] = tiles[next];
+                tiles[next] = 0;
+                empty = next;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按 op 方向移入空格的数字所在的格子，越界时返回 -1
+     */
+    private static int neighbor(int empty, int op, int rows, int cols) {
+        int row = empty / cols - DIRECTIONS[op][0];
+        int col = empty % cols - DIRECTIONS[op][1];
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+}
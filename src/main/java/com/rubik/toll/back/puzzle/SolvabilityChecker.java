@@ -1,79 +1,101 @@
 package com.rubik.toll.back.puzzle;
 
-import java.util.Arrays;
-
+/**
+ * 可解性判断
+ * <p>
+ * 把棋盘看成“格子 -> 该格数字的目标格子”的置换（空格的目标是右下角）。
+ * 每移动一步就是空格与相邻数字的一次对换，置换奇偶性翻转，空格到右下角的曼哈顿距离的奇偶性也翻转，
+ * 所以棋盘有解当且仅当两者奇偶性相同。置换的奇偶性等于 (格子数 - 轮换个数) 的奇偶性，
+ * 沿轮换走一遍即可数出，时间 O(n)，只需要一个位图记录访问过的格子。
+ * <p>
+ * 实例方法直接读取棋盘数组并复用构造时分配的位图，不分配内存；一个实例同时只能被一个线程使用。
+ */
 public class SolvabilityChecker {
-    private final int[][] board;
+    private final int[] board;
     private final int xsize;
     private final int ysize;
-    private final BoardOperator boardOperator;
+    private final long[] scratch;
 
-    public SolvabilityChecker(int[][] board, int xsize, int ysize, BoardOperator boardOperator) {
+    public SolvabilityChecker(int[] board, int xsize, int ysize) {
         this.board = board;
         this.xsize = xsize;
         this.ysize = ysize;
-        this.boardOperator = boardOperator;
+        this.scratch = new long[words(xsize * ysize)];
     }
 
     public boolean isSolvable() {
-        int[] flatBoard = new int[xsize * ysize];
-        int index = 0;
-        for (int i = 0; i < xsize; i++) {
-            for (int j = 0; j < ysize; j++) {
-                flatBoard[index++] = board[i][j];
-            }
-        }
-        int reverse = getReverse(flatBoard);
-        if (ysize % 2 == 0) {
-            int[] space = boardOperator.getPositionOf(xsize - 1, ysize - 1);
-            reverse ^= (xsize - 1 - space[0]) & 1;
-        }
-        return reverse == 0;
+        return isSolvable(board, xsize, ysize, scratch);
     }
 
-    private int getReverse(int[] arr) {
-        // 创建一个不包含0的新数组
-        int[] nonZeroArr = Arrays.stream(arr)
-                .filter(x -> x != 0)
-                .toArray();
-        return mergeSortAndCount(nonZeroArr, 0, nonZeroArr.length - 1);
+    /**
+     * 判断按行优先展开的棋盘是否有解，不是 0 ~ n-1 的排列时返回 false
+     */
+    public static boolean isSolvable(int[] tiles, int xsize, int ysize) {
+        return isSolvable(tiles, xsize, ysize, new long[words(xsize * ysize)]);
     }
 
-    private int mergeSortAndCount(int[] arr, int left, int right) {
-        int count = 0;
-        if (left < right) {
-            int mid = (left + right) / 2;
-            count ^= mergeSortAndCount(arr, left, mid);
-            count ^= mergeSortAndCount(arr, mid + 1, right);
-            count ^= merge(arr, left, mid, right);
+    /**
+     * 批量判断，所有棋盘共用一个位图
+     *
+     * @return 与 boards 一一对应，无效或无解的棋盘为 false
+     */
+    public static boolean[] areSolvable(int[][] boards, int xsize, int ysize) {
+        long[] scratch = new long[words(xsize * ysize)];
+        boolean[] result = new boolean[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            result[i] = boards[i] != null && isSolvable(boards[i], xsize, ysize, scratch);
         }
-        return count;
+        return result;
     }
 
-    private int merge(int[] arr, int left, int mid, int right) {
-        int[] leftArr = Arrays.copyOfRange(arr, left, mid + 1);
-        int[] rightArr = Arrays.copyOfRange(arr, mid + 1, right + 1);
-        
-        int i = 0, j = 0, k = left;
-        int count = 0;
-        
-        while (i < leftArr.length && j < rightArr.length) {
-            if (leftArr[i] <= rightArr[j]) {
-                arr[k++] = leftArr[i++];
-            } else {
-                arr[k++] = rightArr[j++];
-                // 当右边的数小于左边的数时，左边剩余的数都会形成逆序对
-                count ^= (leftArr.length - i) & 1;
-            }
+    /**
+     * 第一遍把出现过的数字在位图中置位，同时检查范围和重复；
+     * 第二遍沿轮换走并清除位，结束时位图恰好全部清零，下次调用不需要重新清空
+     */
+    static boolean isSolvable(int[] tiles, int xsize, int ysize, long[] seen) {
+        int cells = xsize * ysize;
+        if (tiles.length != cells) {
+            return false;
         }
-        
-        while (i < leftArr.length) {
-            arr[k++] = leftArr[i++];
+        int empty = -1;
+        for (int cell = 0; cell < cells; cell++) {
+            int value = tiles[cell];
+            if (value < 0 || value >= cells || (seen[value >>> 6] & 1L << value) != 0) {
+                // 清除已置的位，保持位图干净
+                for (int i = 0; i < cell; i++) {
+                    seen[tiles[i] >>> 6] &= ~(1L << tiles[i]);
+                }
+                return false;
+            }
+            seen[value >>> 6] |= 1L << value;
+            if (value == 0) {
+                empty = cell;
+            }
         }
-        while (j < rightArr.length) {
-            arr[k++] = rightArr[j++];
+
+        // 此时位图中所有格子都置位，置位表示尚未访问
+        int cycles = 0;
+        for (int start = 0; start < cells; start++) {
+            if ((seen[start >>> 6] & 1L << start) == 0) {
+                continue;
+            }
+            cycles++;
+            int cell = start;
+            do {
+                seen[cell >>> 6] &= ~(1L << cell);
+                int value = tiles[cell];
+                cell = value == 0 ? cells - 1 : value - 1;
+            } while (cell != start);
         }
-        
-        return count;
+
+        int permutationParity = (cells - cycles) & 1;
+        int emptyX = empty / ysize;
+        int emptyY = empty - emptyX * ysize;
+        int distanceParity = (xsize - 1 - emptyX + ysize - 1 - emptyY) & 1;
+        return permutationParity == distanceParity;
+    }
+
+    private static int words(int cells) {
+        return (cells + 63) >>> 6;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.rubik.toll.back.puzzle;
+
+/**
+ * 数字华容道的求解方式
+ */
+public enum SolveMode {
+    /**
+     * 分治策略：逐个归位数字，最后两行两列使用黄金操作序列，适用于任意尺寸，但解远长于最优解
+     */
+    DIVIDE_AND_CONQUER,
+    /**
+     * 分阶段局部最优：保留分治的阶段划分（逐行每次放两个数字，最后两行每次放一列，最后的2x2），
+     * 每个阶段在未就位的区域内广度优先求该阶段的最少步数。步数明显少于分治，耗时可预期，适合6x6到10x10
+     */
+    PHASED,
+    /**
+     * IDA* 最优搜索：得到最短解，只适用于小棋盘
+     */
+    OPTIMAL,
+    /**
+     * 并行 IDA* 最优搜索：与 OPTIMAL 一样得到最短解，在公共 ForkJoinPool 上多线程搜索，适合4x4及更难的棋盘
+     */
+    PARALLEL_OPTIMAL
+}
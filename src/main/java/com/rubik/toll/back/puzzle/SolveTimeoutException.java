@@ -0,0 +1,10 @@
+package com.rubik.toll.back.puzzle;
+
+/**
+ * 求解超过截止时间或所在线程被中断
+ */
+public class SolveTimeoutException extends RuntimeException {
+    public SolveTimeoutException(String message) {
+        super(message);
+    }
+}
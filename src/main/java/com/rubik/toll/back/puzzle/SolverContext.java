@@ -0,0 +1,48 @@
+package com.rubik.toll.back.puzzle;
+
+import java.util.Arrays;
+
+/**
+ * 分治求解用到的、只与棋盘尺寸有关的缓冲区
+ * <p>
+ * 单独求解时每个 {@link NumberPuzzleSolver} 自己创建一份；批量求解时按尺寸放进池中复用，
+ * 避免每个棋盘都重新分配寻路数组和位置表。同一时刻只能被一个求解器使用。
+ */
+final class SolverContext {
+    final int xsize;
+    final int ysize;
+    final boolean[] readyFlag;
+    final PathFinder pathFinder;
+    // 寻路结果缓冲区：数字的路线和空格的路线分开，因为前者在遍历时会多次计算后者
+    final int[] tilePath;
+    final int[] spacePath;
+    /**
+     * 数字 -> 所在格子下标，交给 {@link BoardOperator} 使用
+     */
+    final int[] where;
+    /**
+     * 可解性判断用的位图
+     */
+    final long[] seen;
+
+    SolverContext(int xsize, int ysize) {
+        this.xsize = xsize;
+        this.ysize = ysize;
+        int cells = xsize * ysize;
+        this.readyFlag = new boolean[cells];
+        this.pathFinder = new PathFinder(xsize, ysize, readyFlag);
+        this.tilePath = new int[cells];
+        this.spacePath = new int[cells];
+        this.where = new int[cells];
+        this.seen = new long[(cells + 63) >>> 6];
+    }
+
+    /**
+     * 清除上一个棋盘留下的状态
+     */
+    void reset() {
+        Arrays.fill(readyFlag, false);
+        pathFinder.setSolvedBounds(0, 0);
+        pathFinder.setWindowed(true);
+    }
+}
@@ -0,0 +1,47 @@
+package com.rubik.toll.back.puzzle;
+
+/**
+ * 棋盘的 Zobrist 哈希
+ * <p>
+ * 哈希值是所有“数字 t 位于格子 c”对应的随机键的异或。空格的键取0，
+ * 所以数字 t 从格子 a 移到空格 b 时，哈希只需异或 key(a, t) 和 key(b, t)。
+ * 格子数 x 数字数的键表在大棋盘上是平方级的（200x200 需要16亿个键），
+ * 因此键不查表，而是对 (c, t) 做一次 splitmix64 混合即时算出，几次乘法和移位，与查表相当。
+ */
+public final class Zobrist {
+    private static final long SEED = 0x5DEECE66DL;
+
+    private Zobrist() {
+    }
+
+    /**
+     * 数字 tile 位于格子 cell 时的键，空格为0
+     */
+    public static long key(int cell, int tile) {
+        if (tile == 0) {
+            return 0;
+        }
+        long z = ((long) cell << 32 | tile) * 0x9E3779B97F4A7C15L + SEED;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 从头计算整个棋盘的哈希
+     */
+    public static long hash(int[] tiles) {
+        long hash = 0;
+        for (int cell = 0; cell < tiles.length; cell++) {
+            hash ^= key(cell, tiles[cell]);
+        }
+        return hash;
+    }
+
+    /**
+     * 数字 tile 从格子 from 移到空格 to 之后的哈希
+     */
+    public static long move(long hash, int tile, int from, int to) {
+        return hash ^ key(from, tile) ^ key(to, tile);
+    }
+}
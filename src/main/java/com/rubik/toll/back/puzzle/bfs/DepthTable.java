@@ -0,0 +1,131 @@
+package com.rubik.toll.back.puzzle.bfs;
+
+import com.rubik.toll.back.puzzle.SolvabilityChecker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 某种棋盘形状全部可解状态到目标状态的最少步数，每个状态一个字节，按 {@link StateIndex} 的下标存放
+ * <p>
+ * 文件格式（大端）：魔数、行数、列数、层数，之后是 {@value #MAX_LEVELS} 个 long 的各层状态数（即距离分布），
+ * 再之后是每个状态的距离。加载时直接内存映射，不做任何解析或拷贝。
+ */
+public final class DepthTable {
+    static final int MAGIC = 0x44505431; // "DPT1"
+    static final int MAX_LEVELS = 127;
+    static final int HEADER = 16 + 8 * MAX_LEVELS;
+    static final byte UNKNOWN = -1;
+
+    private final StateIndex index;
+    private final ByteBuffer depths;
+    private final long[] distribution;
+
+    DepthTable(StateIndex index, ByteBuffer depths, long[] distribution) {
+        this.index = index;
+        this.depths = depths;
+        this.distribution = distribution;
+    }
+
+    /**
+     * 到目标状态的最少步数
+     */
+    public int distance(int[] tiles) {
+        if (tiles.length != index.cells) {
+            throw new IllegalArgumentException("棋盘大小不匹配");
+        }
+        if (!SolvabilityChecker.isSolvable(tiles, index.rows, index.cols)) {
+            throw new IllegalArgumentException("棋盘无解");
+        }
+        return depths.get(index.index(tiles));
+    }
+
+    /**
+     * 最难的状态所需的步数（该形状的“上帝之数”）
+     */
+    public int getGodsNumber() {
+        return distribution.length - 1;
+    }
+
+    /**
+     * 第 d 个元素是恰好需要 d 步的状态数
+     */
+    public long[] getDistribution() {
+        return distribution.clone();
+    }
+
+    public int getStates() {
+        return index.states;
+    }
+
+    public int getRows() {
+        return index.rows;
+    }
+
+    public int getCols() {
+        return index.cols;
+    }
+
+    /**
+     * 写入磁盘，之后可以用 {@link #load(Path)} 映射回来
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.BIG_ENDIAN);
+        writeHeader(header, index.rows, index.cols, distribution);
+        header.rewind();
+        ByteBuffer body = depths.duplicate();
+        body.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * 以只读方式内存映射深度表文件，表数据由操作系统按需换入
+     */
+    public static DepthTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER) {
+                throw new IOException("不是深度表文件：" + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("不是深度表文件：" + file);
+            }
+            int rows = buffer.getInt(4);
+            int cols = buffer.getInt(8);
+            int levels = buffer.getInt(12);
+            if (rows < 2 || cols < 2 || rows * cols > StateIndex.MAX_CELLS || levels <= 0 || levels > MAX_LEVELS) {
+                throw new IOException("深度表文件已损坏：" + file);
+            }
+            StateIndex index = new StateIndex(rows, cols);
+            if (channel.size() != HEADER + (long) index.states) {
+                throw new IOException("深度表文件大小不符：" + file);
+            }
+            long[] distribution = new long[levels];
+            for (int d = 0; d < levels; d++) {
+                distribution[d] = buffer.getLong(16 + 8 * d);
+            }
+            return new DepthTable(index, buffer.slice(HEADER, index.states), distribution);
+        }
+    }
+
+    static void writeHeader(ByteBuffer buffer, int rows, int cols, long[] distribution) {
+        buffer.putInt(0, MAGIC).putInt(4, rows).putInt(8, cols).putInt(12, distribution.length);
+        for (int d = 0; d < distribution.length; d++) {
+            buffer.putLong(16 + 8 * d, distribution[d]);
+        }
+    }
+}
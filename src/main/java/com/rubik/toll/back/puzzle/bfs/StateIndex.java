@@ -0,0 +1,123 @@
+package com.rubik.toll.back.puzzle.bfs;
+
+import com.rubik.toll.back.puzzle.SolvabilityChecker;
+
+/**
+ * rows x cols 棋盘可解状态的完美哈希
+ * <p>
+ * 下标 = 空格位置 * ((n-1)!/2) + 其余 n-1 个数字按行优先顺序的 Lehmer 编码 / 2。
+ * 空格位置固定时，由 {@link SolvabilityChecker} 的奇偶性规则，可解状态中数字序列的奇偶性是确定的，
+ * 也就是 Lehmer 各位之和的奇偶性确定；权重为1的那一位（倒数第二位，只能是0或1）由其余各位唯一确定，
+ * 所以除以2后互不冲突，下标恰好覆盖 n!/2 个可解状态，没有空洞。
+ * 解码时先按偶数编码展开，奇偶性不符再把这一位改为1。
+ */
+final class StateIndex {
+    /**
+     * 12个格子时有 12!/2 = 239500800 个状态，再多下标就超出 int 范围了
+     */
+    static final int MAX_CELLS = 12;
+
+    final int rows;
+    final int cols;
+    final int cells;
+    final int perBlank;
+    final int states;
+    private final int[] factorial;
+    // 空格在各个位置时，可解状态的 Lehmer 各位之和的奇偶性
+    private final int[] requiredParity;
+
+    StateIndex(int rows, int cols) {
+        if (rows < 2 || cols < 2) {
+            throw new IllegalArgumentException("棋盘最少宽2");
+        }
+        if (rows * cols > MAX_CELLS) {
+            throw new IllegalArgumentException("棋盘过大，最多" + MAX_CELLS + "个格子：" + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = rows * cols;
+        int m = cells - 1;
+        this.factorial = new int[m + 1];
+        factorial[0] = 1;
+        for (int i = 1; i <= m; i++) {
+            factorial[i] = factorial[i - 1] * i;
+        }
+        this.perBlank = factorial[m] / 2;
+        this.states = perBlank * cells;
+
+        // 数字按 1..n-1 顺序排列（Lehmer 编码全为0）时是否可解，决定该空格位置要求的奇偶性
+        this.requiredParity = new int[cells];
+        int[] tiles = new int[cells];
+        for (int blank = 0; blank < cells; blank++) {
+            int value = 1;
+            for (int cell = 0; cell < cells; cell++) {
+                tiles[cell] = cell == blank ? 0 : value++;
+            }
+            requiredParity[blank] = SolvabilityChecker.isSolvable(tiles, rows, cols) ? 0 : 1;
+        }
+    }
+
+    /**
+     * 可解状态的下标，调用方需先确认棋盘有解
+     */
+    int index(int[] tiles) {
+        int blank = -1;
+        int rank = 0;
+        int used = 0;
+        int remaining = cells - 1;
+        for (int cell = 0; cell < cells; cell++) {
+            int v = tiles[cell] - 1;
+            if (v < 0) {
+                blank = cell;
+                continue;
+            }
+            int digit = v - Integer.bitCount(used & ((1 << v) - 1));
+            rank = rank * remaining-- + digit;
+            used |= 1 << v;
+        }
+        return blank * perBlank + (rank >>> 1);
+    }
+
+    /**
+     * 把下标还原成棋盘，写入 tiles
+     *
+     * @return 空格位置
+     */
+    int unrank(int index, int[] tiles) {
+        int blank = index / perBlank;
+        int rank = (index - blank * perBlank) << 1;
+        int m = cells - 1;
+        int parity = 0;
+        int used = 0;
+        int cell = 0;
+        for (int i = 0; i < m; i++) {
+            int weight = factorial[m - 1 - i];
+            int digit = rank / weight;
+            rank -= digit * weight;
+            if (i == m - 2 && ((parity + digit) & 1) != requiredParity[blank]) {
+                digit ^= 1;
+            }
+            parity += digit;
+            // 第 digit 个未使用的数字
+            int v = 0;
+            while (true) {
+                if ((used & (1 << v)) == 0) {
+                    if (digit == 0) {
+                        break;
+                    }
+                    digit--;
+                }
+                v++;
+            }
+            used |= 1 << v;
+            if (cell == blank) {
+                tiles[cell++] = 0;
+            }
+            tiles[cell++] = v + 1;
+        }
+        if (cell == blank) {
+            tiles[cell] = 0;
+        }
+        return blank;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * 小棋盘的完整状态空间搜索
+ *
+ * <h2>用途</h2>
+ * 关卡设计需要精确的距离分布：某种棋盘形状有多少个状态恰好需要 d 步，最难的状态需要多少步（“上帝之数”）。
+ * 3x3、2x5、3x4、2x6 等格子数不超过12的棋盘可以把全部可解状态逐一搜索出来。
+ *
+ * <h2>实现</h2>
+ * <ul>
+ *   <li>可解状态用完美哈希编号，按可解性的奇偶规则只编码一半的排列</li>
+ *   <li>逐层并行广度优先搜索，当前层、下一层位图和深度表都在堆外</li>
+ *   <li>深度表可以直接写入内存映射文件，之后按需映射加载</li>
+ * </ul>
+ *
+ * {@link com.rubik.toll.back.puzzle.bfs.StateSpaceExplorer} 负责搜索，
+ * {@link com.rubik.toll.back.puzzle.bfs.DepthTable} 是搜索结果。
+ */
+package com.rubik.toll.back.puzzle.bfs;
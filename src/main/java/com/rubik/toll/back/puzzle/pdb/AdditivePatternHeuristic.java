@@ -0,0 +1,125 @@
+package com.rubik.toll.back.puzzle.pdb;
+
+import com.rubik.toll.back.puzzle.PuzzleHeuristic;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 不相交模式数据库的累加启发函数
+ * <p>
+ * 各组模式互不相交，且每组只计模式内数字的移动步数，因此各组估值之和仍可采纳。
+ * 一步移动只改变一个数字的位置，增量计算时只需重查该数字所在的那一组。
+ */
+public class AdditivePatternHeuristic implements PuzzleHeuristic {
+    private static final Logger logger = LogManager.getLogger(AdditivePatternHeuristic.class);
+
+    /**
+     * 4x4 的 6-6-3 划分
+     */
+    public static final int[][] PARTITION_4X4 = {
+            {1, 5, 6, 9, 10, 13},
+            {7, 8, 11, 12, 14, 15},
+            {2, 3, 4}
+    };
+    /**
+     * 5x5 的 6-6-6-6 划分
+     */
+    public static final int[][] PARTITION_5X5 = {
+            {1, 2, 3, 6, 7, 8},
+            {4, 5, 9, 10, 14, 15},
+            {11, 12, 16, 17, 21, 22},
+            {13, 18, 19, 20, 23, 24}
+    };
+
+    private final PatternDatabase[] databases;
+    /**
+     * 数字 -> 所属模式组
+     */
+    private final int[] groupOf;
+
+    public AdditivePatternHeuristic(PatternDatabase... databases) {
+        if (databases == null || databases.length == 0) {
+            throw new IllegalArgumentException("至少需要一个模式数据库");
+        }
+        int xsize = databases[0].getXsize();
+        int ysize = databases[0].getYsize();
+        this.databases = databases.clone();
+        this.groupOf = new int[xsize * ysize];
+        Arrays.fill(groupOf, -1);
+        for (int g = 0; g < databases.length; g++) {
+            PatternDatabase database = databases[g];
+            if (database.getXsize() != xsize || database.getYsize() != ysize) {
+                throw new IllegalArgumentException("模式数据库的棋盘大小不一致");
+            }
+            for (int tile : database.getPatternTiles()) {
+                if (groupOf[tile] != -1) {
+                    throw new IllegalArgumentException("模式之间有重复数字：" + tile);
+                }
+                groupOf[tile] = g;
+            }
+        }
+        // 估值为0当且仅当到达目标，要求所有数字都被某个模式覆盖
+        for (int tile = 1; tile < groupOf.length; tile++) {
+            if (groupOf[tile] == -1) {
+                throw new IllegalArgumentException("数字" + tile + "不属于任何模式");
+            }
+        }
+    }
+
+    /**
+     * 从目录加载划分对应的数据库文件，不存在的先生成再保存，最终都以内存映射方式使用
+     */
+    public static AdditivePatternHeuristic loadOrBuild(Path directory, int xsize, int ysize, int[][] partition) {
+        PatternDatabase[] databases = new PatternDatabase[partition.length];
+        try {
+            Files.createDirectories(directory);
+            for (int g = 0; g < partition.length; g++) {
+                Path file = directory.resolve(fileName(xsize, ysize, partition[g]));
+                if (!Files.exists(file)) {
+                    logger.info("生成模式数据库：{}", file);
+                    PatternDatabaseBuilder.build(xsize, ysize, partition[g]).save(file);
+                }
+                databases[g] = PatternDatabase.load(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("模式数据库读写失败", e);
+        }
+        return new AdditivePatternHeuristic(databases);
+    }
+
+    static String fileName(int xsize, int ysize, int[] patternTiles) {
+        StringBuilder sb = new StringBuilder().append(xsize).append('x').append(ysize);
+        for (int tile : patternTiles) {
+            sb.append('-').append(tile);
+        }
+        return sb.append(".pdb").toString();
+    }
+
+    @Override
+    public int estimate(int[] tiles) {
+        int h = 0;
+        for (PatternDatabase database : databases) {
+            h += database.lookup(tiles);
+        }
+        return h;
+    }
+
+    @Override
+    public int delta(int[] tiles, int from, int to) {
+        int tile = tiles[from];
+        PatternDatabase database = databases[groupOf[tile]];
+        int before = database.lookup(tiles);
+        tiles[to] = tile;
+        tiles[from] = 0;
+        int after = database.lookup(tiles);
+        tiles[from] = tile;
+        tiles[to] = 0;
+        return after - before;
+    }
+}
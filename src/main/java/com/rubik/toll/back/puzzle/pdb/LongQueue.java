@@ -0,0 +1,49 @@
+package com.rubik.toll.back.puzzle.pdb;
+
+/**
+ * 可扩容的 long 环形队列，广度优先生成时存放压缩后的状态，避免装箱
+ */
+final class LongQueue {
+    private long[] elements;
+    private int head;
+    private int size;
+
+    LongQueue(int capacity) {
+        elements = new long[Math.max(16, Integer.highestOneBit(capacity - 1) << 1)];
+    }
+
+    void offer(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    long poll() {
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        if (elements.length >= 1 << 30) {
+            throw new IllegalStateException("队列过大");
+        }
+        long[] grown = new long[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,193 @@
+package com.rubik.toll.back.puzzle.pdb;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 一组数字（模式）的模式数据库
+ * <p>
+ * 以模式中各数字所在格子的部分排列为下标，记录只移动模式内数字时所需的最少步数。
+ * 每个表项占4位：由于每个数字移动次数的奇偶性与其曼哈顿距离相同，
+ * 步数与模式内曼哈顿距离之差一定是偶数，表中存 (步数 - 曼哈顿距离) / 2，超过15时截断为15，
+ * 截断只会让估值偏小，仍然可采纳。
+ * <p>
+ * 文件格式（大端）：魔数、宽、高、模式数字个数、各数字，之后是紧凑的 nibble 数据。
+ * 加载时直接内存映射，不做任何解析或拷贝。
+ */
+public final class PatternDatabase {
+    static final int MAGIC = 0x50444231; // "PDB1"
+    static final int MAX_PATTERN = 8;
+    static final int MAX_CELLS = 64;
+    static final int MAX_VALUE = 15;
+
+    private final int xsize;
+    private final int ysize;
+    private final int[] patternTiles;
+    /**
+     * 数字 -> 在模式中的序号，不在模式中为 -1
+     */
+    private final int[] slotOf;
+    private final int[] goalRow;
+    private final int[] goalCol;
+    private final ByteBuffer data;
+    private final int dataOffset;
+
+    PatternDatabase(int xsize, int ysize, int[] patternTiles, ByteBuffer data, int dataOffset) {
+        int cells = xsize * ysize;
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("棋盘过大：" + xsize + "x" + ysize);
+        }
+        if (patternTiles.length == 0 || patternTiles.length > MAX_PATTERN) {
+            throw new IllegalArgumentException("模式数字个数应在1到" + MAX_PATTERN + "之间");
+        }
+        this.xsize = xsize;
+        this.ysize = ysize;
+        this.patternTiles = patternTiles.clone();
+        this.slotOf = new int[cells];
+        this.goalRow = new int[cells];
+        this.goalCol = new int[cells];
+        Arrays.fill(slotOf, -1);
+        for (int i = 0; i < patternTiles.length; i++) {
+            int tile = patternTiles[i];
+            if (tile <= 0 || tile >= cells || slotOf[tile] != -1) {
+                throw new IllegalArgumentException("模式数字无效：" + tile);
+            }
+            slotOf[tile] = i;
+        }
+        for (int v = 1; v < cells; v++) {
+            goalRow[v] = (v - 1) / ysize;
+            goalCol[v] = (v - 1) % ysize;
+        }
+        this.data = data;
+        this.dataOffset = dataOffset;
+    }
+
+    /**
+     * 表项个数 = n * (n-1) * ... * (n-k+1)
+     */
+    static long entryCount(int cells, int k) {
+        long count = 1;
+        for (int i = 0; i < k; i++) {
+            count *= cells - i;
+        }
+        return count;
+    }
+
+    /**
+     * 部分排列的排名：第 i 个数字的位置去掉前面已占用的格子后作为第 i 位，按混合进制展开
+     *
+     * @param positions 每6位一个位置，按模式顺序排列
+     */
+    static long rank(long positions, int k, int cells) {
+        long used = 0;
+        long rank = 0;
+        for (int i = 0; i < k; i++) {
+            int p = (int) ((positions >>> (i * 6)) & 0x3F);
+            int digit = p - Long.bitCount(used & ((1L << p) - 1));
+            rank = rank * (cells - i) + digit;
+            used |= 1L << p;
+        }
+        return rank;
+    }
+
+    /**
+     * 本模式在该棋盘上的估值：模式内曼哈顿距离 + 2 * 表项
+     */
+    public int lookup(int[] tiles) {
+        long positions = 0;
+        int manhattan = 0;
+        for (int c = 0; c < tiles.length; c++) {
+            int v = tiles[c];
+            if (v == 0) {
+                continue;
+            }
+            int slot = slotOf[v];
+            if (slot >= 0) {
+                positions |= (long) c << (slot * 6);
+                int row = c / ysize;
+                manhattan += Math.abs(goalRow[v] - row) + Math.abs(goalCol[v] - (c - row * ysize));
+            }
+        }
+        return manhattan + 2 * entry(rank(positions, patternTiles.length, tiles.length));
+    }
+
+    int entry(long index) {
+        int b = data.get(dataOffset + (int) (index >>> 1));
+        return (index & 1) == 0 ? b & 0xF : (b >>> 4) & 0xF;
+    }
+
+    public int getXsize() {
+        return xsize;
+    }
+
+    public int getYsize() {
+        return ysize;
+    }
+
+    public int[] getPatternTiles() {
+        return patternTiles.clone();
+    }
+
+    /**
+     * 写入磁盘，之后可以用 {@link #load(Path)} 映射回来
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer header = header(xsize, ysize, patternTiles);
+        ByteBuffer body = data.duplicate();
+        body.position(dataOffset);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * 以只读方式内存映射数据库文件，表数据由操作系统按需换入
+     */
+    public static PatternDatabase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("不是模式数据库文件：" + file);
+            }
+            int xsize = buffer.getInt(4);
+            int ysize = buffer.getInt(8);
+            int k = buffer.getInt(12);
+            if (k <= 0 || k > MAX_PATTERN) {
+                throw new IOException("模式数据库文件已损坏：" + file);
+            }
+            int[] patternTiles = new int[k];
+            for (int i = 0; i < k; i++) {
+                patternTiles[i] = buffer.getInt(16 + 4 * i);
+            }
+            int offset = 16 + 4 * k;
+            long expected = offset + (entryCount(xsize * ysize, k) + 1) / 2;
+            if (channel.size() != expected) {
+                throw new IOException("模式数据库文件大小不符：" + file);
+            }
+            return new PatternDatabase(xsize, ysize, patternTiles, buffer, offset);
+        }
+    }
+
+    static ByteBuffer header(int xsize, int ysize, int[] patternTiles) {
+        ByteBuffer header = ByteBuffer.allocate(16 + 4 * patternTiles.length).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(xsize).putInt(ysize).putInt(patternTiles.length);
+        for (int tile : patternTiles) {
+            header.putInt(tile);
+        }
+        header.flip();
+        return header;
+    }
+}
@@ -0,0 +1,136 @@
+package com.rubik.toll.back.puzzle.pdb;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 从目标状态出发逆向广度优先搜索，生成一组数字的模式数据库
+ * <p>
+ * 搜索状态是（模式数字的位置，空格位置），其余数字视为无差别。
+ * 空格与非模式格交换不计步数，与模式数字交换计1步，因此按步数分层：
+ * 同一层内先沿0代价的移动扩展闭包，再把1代价的后继放入下一层。
+ * 某个模式排列第一次出现时所在的层数，就是只移动模式数字时的最少步数，这样得到的各组估值可以直接相加。
+ * <p>
+ * 需要的内存约为 表项数 * 格子数 / 8 字节的访问位图，加上队列。
+ * 4x4 的6数字模式约十几 MB；5x5 的6数字模式需要数 GB 堆，应离线生成后保存。
+ */
+public final class PatternDatabaseBuilder {
+    private static final Logger logger = LogManager.getLogger(PatternDatabaseBuilder.class);
+    private static final int[][] DIRECTIONS = {{0, 1}, {0, -1}, {-1, 0}, {1, 0}};
+    private static final int BLANK_SHIFT = 6 * PatternDatabase.MAX_PATTERN;
+
+    private PatternDatabaseBuilder() {
+    }
+
+    public static PatternDatabase build(int xsize, int ysize, int[] patternTiles) {
+        int cells = xsize * ysize;
+        int k = patternTiles.length;
+        if (cells > PatternDatabase.MAX_CELLS) {
+            throw new IllegalArgumentException("棋盘过大：" + xsize + "x" + ysize);
+        }
+        if (k == 0 || k > PatternDatabase.MAX_PATTERN || k >= cells) {
+            throw new IllegalArgumentException("模式数字个数应在1到" + PatternDatabase.MAX_PATTERN + "之间");
+        }
+        long entries = PatternDatabase.entryCount(cells, k);
+        long states = entries * cells;
+        if ((entries + 1) / 2 > Integer.MAX_VALUE - 64 || (states >>> 6) + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("模式过大，无法生成：" + k + "个数字，" + entries + "个表项");
+        }
+        long startTime = System.currentTimeMillis();
+
+        byte[] table = new byte[(int) ((entries + 1) / 2)];
+        long[] done = new long[(int) ((entries >>> 6) + 1)];
+        long[] visited = new long[(int) ((states >>> 6) + 1)];
+        int[] goalRow = new int[k];
+        int[] goalCol = new int[k];
+
+        long goal = 0;
+        for (int i = 0; i < k; i++) {
+            int tile = patternTiles[i];
+            goal |= (long) (tile - 1) << (i * 6);
+            goalRow[i] = (tile - 1) / ysize;
+            goalCol[i] = (tile - 1) % ysize;
+        }
+        goal |= (long) (cells - 1) << BLANK_SHIFT;
+
+        LongQueue current = new LongQueue(1024);
+        LongQueue next = new LongQueue(1024);
+        current.offer(goal);
+        long filled = 0;
+        int cost = 0;
+        while (!current.isEmpty()) {
+            while (!current.isEmpty()) {
+                long state = current.poll();
+                long positions = state & ((1L << BLANK_SHIFT) - 1);
+                int blank = (int) (state >>> BLANK_SHIFT);
+                long rank = PatternDatabase.rank(positions, k, cells);
+                long index = rank * cells + blank;
+                if ((visited[(int) (index >>> 6)] & (1L << index)) != 0) {
+                    continue;
+                }
+                visited[(int) (index >>> 6)] |= 1L << index;
+
+                if ((done[(int) (rank >>> 6)] & (1L << rank)) == 0) {
+                    done[(int) (rank >>> 6)] |= 1L << rank;
+                    int manhattan = 0;
+                    for (int i = 0; i < k; i++) {
+                        int p = (int) ((positions >>> (i * 6)) & 0x3F);
+                        manhattan += Math.abs(goalRow[i] - p / ysize) + Math.abs(goalCol[i] - p % ysize);
+                    }
+                    int value = Math.min(PatternDatabase.MAX_VALUE, (cost - manhattan) >> 1);
+                    table[(int) (rank >>> 1)] |= (byte) ((rank & 1) == 0 ? value : value << 4);
+                    filled++;
+                }
+
+                long occupied = 0;
+                for (int i = 0; i < k; i++) {
+                    occupied |= 1L << ((positions >>> (i * 6)) & 0x3F);
+                }
+                int bx = blank / ysize;
+                int by = blank % ysize;
+                for (int[] dir : DIRECTIONS) {
+                    int xx = bx + dir[0];
+                    int yy = by + dir[1];
+                    if (xx < 0 || xx >= xsize || yy < 0 || yy >= ysize) {
+                        continue;
+                    }
+                    int neighbor = xx * ysize + yy;
+                    if ((occupied & (1L << neighbor)) == 0) {
+                        // 空格与非模式格交换，代价为0，留在本层
+                        long successor = positions | (long) neighbor << BLANK_SHIFT;
+                        if (!isVisited(visited, rank * cells + neighbor)) {
+                            current.offer(successor);
+                        }
+                    } else {
+                        // 模式数字移入空格，代价为1，放入下一层
+                        long moved = positions;
+                        for (int i = 0; i < k; i++) {
+                            if (((positions >>> (i * 6)) & 0x3F) == neighbor) {
+                                moved = (positions & ~(0x3FL << (i * 6))) | (long) blank << (i * 6);
+                                break;
+                            }
+                        }
+                        long successor = moved | (long) neighbor << BLANK_SHIFT;
+                        if (!isVisited(visited, PatternDatabase.rank(moved, k, cells) * cells + neighbor)) {
+                            next.offer(successor);
+                        }
+                    }
+                }
+            }
+            logger.debug("模式数据库第{}层完成，已填充{}/{}", cost, filled, entries);
+            LongQueue swap = current;
+            current = next;
+            next = swap;
+            cost++;
+        }
+        logger.info("模式数据库生成完成：{}个数字，{}个表项，最大步数{}，耗时{}ms",
+                k, entries, cost - 1, System.currentTimeMillis() - startTime);
+        return new PatternDatabase(xsize, ysize, patternTiles, ByteBuffer.wrap(table), 0);
+    }
+
+    private static boolean isVisited(long[] visited, long index) {
+        return (visited[(int) (index >>> 6)] & (1L << index)) != 0;
+    }
+}
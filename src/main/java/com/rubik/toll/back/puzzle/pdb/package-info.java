@@ -0,0 +1,22 @@
+/**
+ * 数字华容道的不相交模式数据库（Additive Disjoint Pattern Database）
+ *
+ * <h2>原理</h2>
+ * 把全部数字划分成互不相交的若干组（如4x4的6-6-3、5x5的6-6-6-6），对每一组：
+ * <ul>
+ *   <li>从目标状态逆向广度优先搜索，只把移动本组数字计为一步</li>
+ *   <li>记录本组数字每种位置排列所需的最少步数</li>
+ * </ul>
+ * 因为每一步只移动一个数字，各组步数之和仍然不超过实际步数，可以作为最优搜索的启发函数，
+ * 比曼哈顿距离 + 线性冲突准确得多。
+ *
+ * <h2>存储</h2>
+ * <ul>
+ *   <li>每个表项4位，存储相对于曼哈顿距离的增量</li>
+ *   <li>文件加载时直接内存映射，启动时不需要解析</li>
+ * </ul>
+ *
+ * {@link com.rubik.toll.back.puzzle.pdb.AdditivePatternHeuristic} 实现了
+ * {@link com.rubik.toll.back.puzzle.PuzzleHeuristic}，可以用于任何基于棋盘状态的最优搜索。
+ */
+package com.rubik.toll.back.puzzle.pdb;
@@ -2,8 +2,8 @@ package com.rubik.toll.back.rubik;
 
 import java.util.Random;
 
-import com.rubik.toll.back.rubik.cube.Color;
 import com.rubik.toll.back.rubik.cube.Cube;
+import com.rubik.toll.back.rubik.cube.CubeMove;
 import com.rubik.toll.back.rubik.cube.Face;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,183 +39,6 @@ public class CubeShuffler {
 
     public void rotateFace(Face face, TwistDirection direction) {
         logger.debug("旋转{}, 方向{}", face, direction);
-        // 保存当前面的状态
-        Color[][] currentFace = new Color[3][3];
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                currentFace[i][j] = cube.getColor(face, i, j);
-            }
-        }
-
-        // 旋转当前面
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                // 矩阵转置的计算
-                if (direction.isClockwise()) {
-                    cube.setColor(face, i, j, currentFace[2 - j][i]);
-                } else {
-                    cube.setColor(face, i, j, currentFace[j][2 - i]);
-                }
-            }
-        }
-
-        // 旋转相邻的边
-        rotateAdjacentEdges(face, direction);
-    }
-
-    private void rotateAdjacentEdges(Face face, TwistDirection direction) {
-        Color[] temp = new Color[3];
-
-        switch (face) {
-            case UP:
-                // 保存前面的边
-                for (int i = 0; i < 3; i++) {
-                    temp[i] = cube.getColor(Face.FRONT, 0, i);
-                }
-
-                if (direction.isClockwise()) {
-                    // 前 -> 右 -> 后 -> 左 -> 前
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.FRONT, 0, i, cube.getColor(Face.RIGHT, 0, i));
-                        cube.setColor(Face.RIGHT, 0, i, cube.getColor(Face.BACK, 0, i));
-                        cube.setColor(Face.BACK, 0, i, cube.getColor(Face.LEFT, 0, i));
-                        cube.setColor(Face.LEFT, 0, i, temp[i]);
-                    }
-                } else {
-                    // 前 <- 右 <- 后 <- 左 <- 前
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.FRONT, 0, i, cube.getColor(Face.LEFT, 0, i));
-                        cube.setColor(Face.LEFT, 0, i, cube.getColor(Face.BACK, 0, i));
-                        cube.setColor(Face.BACK, 0, i, cube.getColor(Face.RIGHT, 0, i));
-                        cube.setColor(Face.RIGHT, 0, i, temp[i]);
-                    }
-                }
-                break;
-
-            case DOWN:
-                // 保存前面的边
-                for (int i = 0; i < 3; i++) {
-                    temp[i] = cube.getColor(Face.FRONT, 2, i);
-                }
-
-                if (direction.isClockwise()) {
-                    // 前 <- 左 <- 后 <- 右 <- 前
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.FRONT, 2, i, cube.getColor(Face.LEFT, 2, i));
-                        cube.setColor(Face.LEFT, 2, i, cube.getColor(Face.BACK, 2, i));
-                        cube.setColor(Face.BACK, 2, i, cube.getColor(Face.RIGHT, 2, i));
-                        cube.setColor(Face.RIGHT, 2, i, temp[i]);
-                    }
-                } else {
-                    // 前 -> 左 -> 后 -> 右 -> 前
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.FRONT, 2, i, cube.getColor(Face.RIGHT, 2, i));
-                        cube.setColor(Face.RIGHT, 2, i, cube.getColor(Face.BACK, 2, i));
-                        cube.setColor(Face.BACK, 2, i, cube.getColor(Face.LEFT, 2, i));
-                        cube.setColor(Face.LEFT, 2, i, temp[i]);
-                    }
-                }
-                break;
-
-            case FRONT:
-                // 保存上面的边
-                for (int i = 0; i < 3; i++) {
-                    temp[i] = cube.getColor(Face.UP, 2, i);
-                }
-
-                if (direction.isClockwise()) {
-                    // 上 -> 右 -> 下 -> 左 -> 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, 2, i, cube.getColor(Face.LEFT, 2 - i, 2));
-                        cube.setColor(Face.LEFT, 2 - i, 2, cube.getColor(Face.DOWN, 0, 2 - i));
-                        cube.setColor(Face.DOWN, 0, 2 - i, cube.getColor(Face.RIGHT, i, 0));
-                        cube.setColor(Face.RIGHT, i, 0, temp[i]);
-                    }
-                } else {
-                    // 上 <- 右 <- 下 <- 左 <- 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, 2, i, cube.getColor(Face.RIGHT, i, 0));
-                        cube.setColor(Face.RIGHT, i, 0, cube.getColor(Face.DOWN, 0, 2 - i));
-                        cube.setColor(Face.DOWN, 0, 2 - i, cube.getColor(Face.LEFT, 2 - i, 2));
-                        cube.setColor(Face.LEFT, 2 - i, 2, temp[i]);
-                    }
-                }
-                break;
-
-            case BACK:
-                // 保存上面的边
-                for (int i = 0; i < 3; i++) {
-                    temp[i] = cube.getColor(Face.UP, 0, i);
-                }
-
-                if (direction.isClockwise()) {
-                    // 上 <- 右 <- 下 <- 左 <- 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, 0, i, cube.getColor(Face.RIGHT, i, 2));
-                        cube.setColor(Face.RIGHT, i, 2, cube.getColor(Face.DOWN, 2, 2 - i));
-                        cube.setColor(Face.DOWN, 2, 2 - i, cube.getColor(Face.LEFT, 2 - i, 0));
-                        cube.setColor(Face.LEFT, 2 - i, 0, temp[i]);
-                    }
-                } else {
-                    // 上 -> 右 -> 下 -> 左 -> 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, 0, i, cube.getColor(Face.LEFT, 2 - i, 0));
-                        cube.setColor(Face.LEFT, 2 - i, 0, cube.getColor(Face.DOWN, 2, 2 - i));
-                        cube.setColor(Face.DOWN, 2, 2 - i, cube.getColor(Face.RIGHT, i, 2));
-                        cube.setColor(Face.RIGHT, i, 2, temp[i]);
-                    }
-                }
-                break;
-
-            case LEFT:
-                // 保存上面的边
-                for (int i = 0; i < 3; i++) {
-                    temp[i] = cube.getColor(Face.UP, i, 0);
-                }
-
-                if (direction.isClockwise()) {
-                    // 上 -> 前 -> 下 -> 后 -> 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, i, 0, cube.getColor(Face.BACK, 2 - i, 2));
-                        cube.setColor(Face.BACK, 2 - i, 2, cube.getColor(Face.DOWN, i, 0));
-                        cube.setColor(Face.DOWN, i, 0, cube.getColor(Face.FRONT, i, 0));
-                        cube.setColor(Face.FRONT, i, 0, temp[i]);
-                    }
-                } else {
-                    // 上 <- 前 <- 下 <- 后 <- 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, i, 0, cube.getColor(Face.FRONT, i, 0));
-                        cube.setColor(Face.FRONT, i, 0, cube.getColor(Face.DOWN, i, 0));
-                        cube.setColor(Face.DOWN, i, 0, cube.getColor(Face.BACK, 2 - i, 2));
-                        cube.setColor(Face.BACK, 2 - i, 2, temp[i]);
-                    }
-                }
-                break;
-
-            case RIGHT:
-                // 保存上面的边
-                for (int i = 0; i < 3; i++) {
-                    temp[i] = cube.getColor(Face.UP, i, 2);
-                }
-
-                if (direction.isClockwise()) {
-                    // 上 <- 前 <- 下 <- 后 <- 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, i, 2, cube.getColor(Face.FRONT, i, 2));
-                        cube.setColor(Face.FRONT, i, 2, cube.getColor(Face.DOWN, i, 2));
-                        cube.setColor(Face.DOWN, i, 2, cube.getColor(Face.BACK, 2 - i, 0));
-                        cube.setColor(Face.BACK, 2 - i, 0, temp[i]);
-                    }
-                } else {
-                    // 上 -> 前 -> 下 -> 后 -> 上
-                    for (int i = 0; i < 3; i++) {
-                        cube.setColor(Face.UP, i, 2, cube.getColor(Face.BACK, 2 - i, 0));
-                        cube.setColor(Face.BACK, 2 - i, 0, cube.getColor(Face.DOWN, i, 2));
-                        cube.setColor(Face.DOWN, i, 2, cube.getColor(Face.FRONT, i, 2));
-                        cube.setColor(Face.FRONT, i, 2, temp[i]);
-                    }
-                }
-                break;
-        }
+        cube.apply(CubeMove.of(face, direction));
     }
-}
\ No newline at end of file
+}
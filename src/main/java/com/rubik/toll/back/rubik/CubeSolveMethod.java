@@ -0,0 +1,16 @@
+package com.rubik.toll.back.rubik;
+
+/**
+ * 魔方的求解方式
+ */
+public enum CubeSolveMethod {
+    /**
+     * 层先法：底层十字、底层角块、中层、顶层逐层还原，不需要预先计算的表，解通常有上百步
+     */
+    LAYER_BY_LAYER,
+    /**
+     * Kociemba 两阶段算法：先进入子群 &lt;U, D, F2, B2, L2, R2&gt; 再复原，随机状态的解不超过21步。
+     * 第一次使用时读取或生成约11MB的表
+     */
+    TWO_PHASE
+}
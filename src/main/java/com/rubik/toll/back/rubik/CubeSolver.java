@@ -1,14 +1,23 @@
 package com.rubik.toll.back.rubik;
 
 import com.rubik.toll.back.rubik.cube.Cube;
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import com.rubik.toll.back.rubik.cube.CubeMoveLog;
+import com.rubik.toll.back.rubik.cube.CubeMoveOptimizer;
 import com.rubik.toll.back.rubik.solver.bottom.*;
 import com.rubik.toll.back.rubik.solver.*;
+import com.rubik.toll.back.rubik.solver.twophase.TwoPhaseSolver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class CubeSolver {
     private static final Logger logger = LogManager.getLogger(CubeSolver.class);
     private final Cube cube;
+    private TwoPhaseSolver twoPhaseSolver;
+    // 求解过程中实际执行的转动
+    private final CubeMoveLog moveLog = new CubeMoveLog();
+    // 优化后的解，求解完成后才有
+    private CubeMoveLog solution;
 
     public CubeSolver(Cube cube) {
         if (cube == null) {
@@ -17,16 +26,77 @@ public class CubeSolver {
         this.cube = cube;
     }
 
+    /**
+     * 设置两阶段算法使用的求解器（可以指定表、最大步数和时间上限），不设置时使用默认的表创建
+     */
+    public void setTwoPhaseSolver(TwoPhaseSolver twoPhaseSolver) {
+        this.twoPhaseSolver = twoPhaseSolver;
+    }
+
     public void solve() {
+        solve(CubeSolveMethod.LAYER_BY_LAYER);
+    }
+
+    /**
+     * 按指定方式求解，复原后可以从 {@link #getMoveLog()} 取得优化后的解
+     *
+     * @throws IllegalArgumentException 两阶段算法：魔方状态无法复原
+     * @throws IllegalStateException    两阶段算法：找不到不超过最大步数的解，或得到的解没有复原魔方
+     * @throws com.rubik.toll.back.puzzle.SolveTimeoutException 两阶段算法超过时间上限
+     */
+    public void solve(CubeSolveMethod method) {
+        moveLog.clear();
+        solution = null;
+        switch (method) {
+            case LAYER_BY_LAYER -> solveLayerByLayer();
+            case TWO_PHASE -> solveTwoPhase();
+        }
+        solution = CubeMoveOptimizer.optimize(moveLog);
+        logger.info("求解共{}步（HTM），{}步（QTM），优化前{}步：{}", solution.size(), solution.getQuarterTurnCount(),
+                moveLog.size(), solution);
+    }
+
+    /**
+     * 优化后的转动记录，从初始状态依次执行同样复原魔方；求解完成前为执行中的原始记录
+     */
+    public CubeMoveLog getMoveLog() {
+        return solution != null ? solution : moveLog;
+    }
+
+    /**
+     * 求解过程中实际执行的转动，未经优化
+     */
+    public CubeMoveLog getRawMoveLog() {
+        return moveLog;
+    }
+
+    private void solveLayerByLayer() {
         logger.info("开始使用层先法求解魔方...初始状态：\n{}\n", cube);
 
         // 第一步 还原底层十字
         LayerSolver solver = new BottomCrossSolver(cube);
         do {
+            solver.setMoveLog(moveLog);
             solver.solve();
             logger.info("{}已完成：\n{}\n", solver.getName(), cube);
             solver = solver.getNextSolver();
         } while (solver != null);
     }
 
-}
\ No newline at end of file
+    private void solveTwoPhase() {
+        logger.info("开始使用两阶段算法求解魔方...初始状态：\n{}\n", cube);
+        if (twoPhaseSolver == null) {
+            twoPhaseSolver = new TwoPhaseSolver();
+        }
+        for (CubeMove move : twoPhaseSolver.solve(cube)) {
+            cube.apply(move);
+            moveLog.append(move);
+        }
+        if (!cube.isSolved()) {
+            // 表被损坏时搜索仍会返回转动序列，但不能复原魔方
+            throw new IllegalStateException("两阶段算法的解没有复原魔方，表可能已损坏");
+        }
+        logger.info("两阶段算法已完成：\n{}\n", cube);
+    }
+
+}
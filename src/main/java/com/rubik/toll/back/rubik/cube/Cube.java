@@ -4,46 +4,72 @@ import com.rubik.toll.back.rubik.CubeSolver;
 
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 
+/**
+ * 三阶魔方的贴纸状态
+ * <p>
+ * 54个贴纸存放在一个 byte 数组里，下标为 面序号 * 9 + 行 * 3 + 列（见 {@link #index}），值为颜色的序号。
+ * 转动按 {@link CubeMove} 预先算好的置换表一次遍历完成，结果写进备用数组后两个数组交换，转动过程不分配内存。
+ */
 public class Cube implements Cloneable {
-    private final Color[][][] state;
+    /**
+     * 贴纸总数
+     */
+    public static final int FACELETS = 54;
     private static final int SIZE = 3;
     private static final String SYMBOL = "〇";
+    private static final Color[] COLORS = Color.values();
+    // 复原状态：每个面都是该面的标准颜色
+    private static final byte[] SOLVED = new byte[FACELETS];
+
+    static {
+        for (Face face : Face.values()) {
+            Arrays.fill(SOLVED, index(face, 0, 0), index(face, 0, 0) + SIZE * SIZE, (byte) face.getColor().ordinal());
+        }
+    }
+
+    private byte[] facelets;
+    // 转动时写入的备用数组，与 facelets 交替使用
+    private byte[] buffer = new byte[FACELETS];
 
     public Cube() {
-        state = new Color[6][SIZE][SIZE];
-        initializeCube();
+        facelets = SOLVED.clone();
     }
 
-    private void initializeCube() {
-        // 初始化每个面的颜色
+    public Cube(Color[][][] state) {
+        facelets = new byte[FACELETS];
         for (Face face : Face.values()) {
             for (int i = 0; i < SIZE; i++) {
                 for (int j = 0; j < SIZE; j++) {
-                    state[face.ordinal()][i][j] = face.getColor();
+                    facelets[index(face, i, j)] = (byte) state[face.ordinal()][i][j].ordinal();
                 }
             }
         }
-    }
-
-    public Cube(Color[][][] state) {
-        this.state = state;
         if (!isValid()) {
             throw new IllegalArgumentException("提供的状态不是有效的魔方状态");
         }
     }
 
+    private Cube(byte[] facelets) {
+        this.facelets = facelets;
+    }
+
+    /**
+     * 贴纸在一维数组中的下标
+     */
+    public static int index(Face face, int row, int col) {
+        return face.ordinal() * SIZE * SIZE + row * SIZE + col;
+    }
+
     public Color getColor(Face face, int row, int col) {
         validatePosition(row, col);
-        return state[face.ordinal()][row][col];
+        return COLORS[facelets[index(face, row, col)]];
     }
 
     public void setColor(Face face, int row, int col, Color color) {
         validatePosition(row, col);
-        state[face.ordinal()][row][col] = color;
+        facelets[index(face, row, col)] = (byte) color.ordinal();
     }
 
     private void validatePosition(int row, int col) {
@@ -52,10 +78,60 @@ public class Cube implements Cloneable {
         }
     }
 
+    byte getFacelet(int index) {
+        return facelets[index];
+    }
+
+    void setFacelet(int index, byte color) {
+        facelets[index] = color;
+    }
+
+    /**
+     * 执行一次面转动
+     */
+    public void apply(CubeMove move) {
+        permute(move.permutation);
+    }
+
+    /**
+     * 一次执行整段公式，效果与依次执行 {@link CubeAlgorithm#getMoves()} 相同
+     */
+    public void apply(CubeAlgorithm algorithm) {
+        permute(algorithm.permutation);
+    }
+
+    /**
+     * 按置换表重排贴纸：之后第 i 格的颜色来自之前的第 permutation[i] 格
+     */
+    void permute(byte[] permutation) {
+        byte[] source = facelets;
+        byte[] target = buffer;
+        for (int i = 0; i < FACELETS; i++) {
+            target[i] = source[permutation[i]];
+        }
+        facelets = target;
+        buffer = source;
+    }
+
+    /**
+     * 按 [面][行][列] 排列的颜色，返回的是副本，修改它不影响魔方
+     */
     public Color[][][] getState() {
+        Color[][][] state = new Color[6][SIZE][SIZE];
+        for (Face face : Face.values()) {
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    state[face.ordinal()][i][j] = color(face, i, j);
+                }
+            }
+        }
         return state;
     }
 
+    private Color color(Face face, int row, int col) {
+        return COLORS[facelets[index(face, row, col)]];
+    }
+
     public void solve() {
         CubeSolver solver = new CubeSolver(this);
         solver.solve();
@@ -67,7 +143,7 @@ public class Cube implements Cloneable {
         for (Face face : Face.values()) {
             for (int i = 0; i < SIZE; i++) {
                 for (int j = 0; j < SIZE; j++) {
-                    Color color = state[face.ordinal()][i][j];
+                    Color color = color(face, i, j);
                     colorCount.put(color, colorCount.getOrDefault(color, 0) + 1);
                 }
             }
@@ -80,115 +156,23 @@ public class Cube implements Cloneable {
 
         // 验证中心块颜色是否正确
         for (Face face : Face.values()) {
-            if (state[face.ordinal()][1][1] != face.getColor()) {
+            if (color(face, 1, 1) != face.getColor()) {
                 return false;
             }
         }
 
-        // 验证角块和边块的合法性
-        return validateCorners() && validateEdges();
-    }
-
-    private boolean validateCorners() {
-        // 获取所有角块的颜色组合
-        Set<String> cornerCombinations = new HashSet<>();
-        // 前面的角块
-        cornerCombinations.add(sortColors(Color.BLUE, Color.WHITE, Color.RED));
-        cornerCombinations.add(sortColors(Color.BLUE, Color.WHITE, Color.ORANGE));
-        cornerCombinations.add(sortColors(Color.BLUE, Color.YELLOW, Color.RED));
-        cornerCombinations.add(sortColors(Color.BLUE, Color.YELLOW, Color.ORANGE));
-        // 后面的角块
-        cornerCombinations.add(sortColors(Color.GREEN, Color.WHITE, Color.RED));
-        cornerCombinations.add(sortColors(Color.GREEN, Color.WHITE, Color.ORANGE));
-        cornerCombinations.add(sortColors(Color.GREEN, Color.YELLOW, Color.RED));
-        cornerCombinations.add(sortColors(Color.GREEN, Color.YELLOW, Color.ORANGE));
-
-        // 检查实际的角块
-        // 前面的角块
-        if (isNotValidCorner(Face.FRONT, 0, 0, Face.LEFT, 0, 2, Face.UP, 2, 0, cornerCombinations)) return false;
-        if (isNotValidCorner(Face.FRONT, 0, 2, Face.RIGHT, 0, 0, Face.UP, 2, 2, cornerCombinations)) return false;
-        if (isNotValidCorner(Face.FRONT, 2, 0, Face.LEFT, 2, 2, Face.DOWN, 0, 0, cornerCombinations)) return false;
-        if (isNotValidCorner(Face.FRONT, 2, 2, Face.RIGHT, 2, 0, Face.DOWN, 0, 2, cornerCombinations)) return false;
-        // 后面的角块
-        if (isNotValidCorner(Face.BACK, 0, 0, Face.RIGHT, 0, 2, Face.UP, 0, 2, cornerCombinations)) return false;
-        if (isNotValidCorner(Face.BACK, 0, 2, Face.LEFT, 0, 0, Face.UP, 0, 0, cornerCombinations)) return false;
-        if (isNotValidCorner(Face.BACK, 2, 0, Face.RIGHT, 2, 2, Face.DOWN, 2, 2, cornerCombinations)) return false;
-        if (isNotValidCorner(Face.BACK, 2, 2, Face.LEFT, 2, 0, Face.DOWN, 2, 0, cornerCombinations)) return false;
-
-        return true;
-    }
-
-    private boolean validateEdges() {
-        // 获取所有边块的颜色组合
-        Set<String> edgeCombinations = new HashSet<>();
-        // 水平边块
-        edgeCombinations.add(sortColors(Color.BLUE, Color.RED));
-        edgeCombinations.add(sortColors(Color.BLUE, Color.ORANGE));
-        edgeCombinations.add(sortColors(Color.GREEN, Color.RED));
-        edgeCombinations.add(sortColors(Color.GREEN, Color.ORANGE));
-        // 垂直边块
-        edgeCombinations.add(sortColors(Color.BLUE, Color.YELLOW));
-        edgeCombinations.add(sortColors(Color.BLUE, Color.WHITE));
-        edgeCombinations.add(sortColors(Color.GREEN, Color.YELLOW));
-        edgeCombinations.add(sortColors(Color.GREEN, Color.WHITE));
-        // 中间层边块
-        edgeCombinations.add(sortColors(Color.YELLOW, Color.RED));
-        edgeCombinations.add(sortColors(Color.YELLOW, Color.ORANGE));
-        edgeCombinations.add(sortColors(Color.WHITE, Color.RED));
-        edgeCombinations.add(sortColors(Color.WHITE, Color.ORANGE));
-
-        // 检查实际的边块
-        // 前面的边块
-        if (isNotValidEdge(Face.FRONT, 0, 1, Face.UP, 2, 1, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.FRONT, 1, 0, Face.LEFT, 1, 2, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.FRONT, 1, 2, Face.RIGHT, 1, 0, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.FRONT, 2, 1, Face.DOWN, 0, 1, edgeCombinations)) return false;
-        // 后面的边块
-        if (isNotValidEdge(Face.BACK, 0, 1, Face.UP, 0, 1, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.BACK, 1, 0, Face.RIGHT, 1, 2, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.BACK, 1, 2, Face.LEFT, 1, 0, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.BACK, 2, 1, Face.DOWN, 2, 1, edgeCombinations)) return false;
-        // 中间的边块
-        if (isNotValidEdge(Face.UP, 1, 0, Face.LEFT, 0, 1, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.UP, 1, 2, Face.RIGHT, 0, 1, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.DOWN, 1, 0, Face.LEFT, 2, 1, edgeCombinations)) return false;
-        if (isNotValidEdge(Face.DOWN, 1, 2, Face.RIGHT, 2, 1, edgeCombinations)) return false;
-
-        return true;
-    }
-
-    private boolean isNotValidCorner(Face face1, int row1, int col1,
-                                     Face face2, int row2, int col2,
-                                     Face face3, int row3, int col3,
-                                     Set<String> validCombinations) {
-        Color color1 = state[face1.ordinal()][row1][col1];
-        Color color2 = state[face2.ordinal()][row2][col2];
-        Color color3 = state[face3.ordinal()][row3][col3];
-        return !validCombinations.contains(sortColors(color1, color2, color3));
-    }
-
-    private boolean isNotValidEdge(Face face1, int row1, int col1,
-                                   Face face2, int row2, int col2,
-                                   Set<String> validCombinations) {
-        Color color1 = state[face1.ordinal()][row1][col1];
-        Color color2 = state[face2.ordinal()][row2][col2];
-        return !validCombinations.contains(sortColors(color1, color2));
-    }
-
-    private String sortColors(Color... colors) {
-        Arrays.sort(colors);
-        return Arrays.toString(colors);
+        // 验证每个角块和棱块位置上都是一个真实存在的块，且每个块只出现一次
+        try {
+            CubieCube.fromCube(this);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     @Override
     public Cube clone() {
-        Color[][][] clonedState = new Color[6][SIZE][SIZE];
-        for (int face = 0; face < 6; face++) {
-            for (int i = 0; i < SIZE; i++) {
-                System.arraycopy(state[face][i], 0, clonedState[face][i], 0, SIZE);
-            }
-        }
-        return new Cube(clonedState);
+        return new Cube(facelets.clone());
     }
 
     @Override
@@ -200,8 +184,8 @@ public class Cube implements Cloneable {
           .append(Face.BACK.getDescription()).append("（镜像）").append("\n");
     
         // 第2-4行：上面和后面的颜色
-        Color upCenterColor = state[Face.UP.ordinal()][1][1];
-        Color backCenterColor = state[Face.BACK.ordinal()][1][1];
+        Color upCenterColor = color(Face.UP, 1, 1);
+        Color backCenterColor = color(Face.BACK, 1, 1);
         for (int i = 0; i < SIZE; i++) {
             sb.append("      ");
             // 上面
@@ -209,7 +193,7 @@ public class Cube implements Cloneable {
                 if (i == 1 && j == 1) {
                     sb.append(upCenterColor.getColorChar()).append(" ");
                 } else {
-                    Color color = state[Face.UP.ordinal()][i][j];
+                    Color color = color(Face.UP, i, j);
                     sb.append(color == upCenterColor ? SYMBOL : color.getColorChar()).append(" ");
                 }
             }
@@ -219,7 +203,7 @@ public class Cube implements Cloneable {
                 if (i == 1 && j == 1) {
                     sb.append(backCenterColor.getColorChar()).append(" ");
                 } else {
-                    Color color = state[Face.BACK.ordinal()][i][j];
+                    Color color = color(Face.BACK, i, j);
                     sb.append(color == backCenterColor? SYMBOL : color.getColorChar()).append(" ");
                 }
             }
@@ -228,9 +212,9 @@ public class Cube implements Cloneable {
         sb.append("\n");
     
         // 中间三行：左、前、右面
-        Color leftCenterColor = state[Face.LEFT.ordinal()][1][1];
-        Color frontCenterColor = state[Face.FRONT.ordinal()][1][1];
-        Color rightCenterColor = state[Face.RIGHT.ordinal()][1][1];
+        Color leftCenterColor = color(Face.LEFT, 1, 1);
+        Color frontCenterColor = color(Face.FRONT, 1, 1);
+        Color rightCenterColor = color(Face.RIGHT, 1, 1);
         for (int i = 0; i < SIZE; i++) {
             // 左面
             String space = " ";
@@ -238,7 +222,7 @@ public class Cube implements Cloneable {
                 if (i == 1 && j == 1) {
                     sb.append(leftCenterColor.getColorChar()).append(space);
                 } else {
-                    Color color = state[Face.LEFT.ordinal()][i][j];
+                    Color color = color(Face.LEFT, i, j);
                     sb.append(color == leftCenterColor ? SYMBOL : color.getColorChar()).append(space);
                 }
             }
@@ -248,7 +232,7 @@ public class Cube implements Cloneable {
                 if (i == 1 && j == 1) {
                     sb.append(frontCenterColor.getColorChar()).append(space);
                 } else {
-                    Color color = state[Face.FRONT.ordinal()][i][j];
+                    Color color = color(Face.FRONT, i, j);
                     sb.append(color == frontCenterColor? SYMBOL : color.getColorChar()).append(space);
                 }
             }
@@ -258,7 +242,7 @@ public class Cube implements Cloneable {
                 if (i == 1 && j == 1) {
                     sb.append(rightCenterColor.getColorChar()).append(space);
                 } else {
-                    Color color = state[Face.RIGHT.ordinal()][i][j];
+                    Color color = color(Face.RIGHT, i, j);
                     sb.append(color == rightCenterColor? SYMBOL : color.getColorChar()).append(space);
                 }
             }
@@ -267,7 +251,7 @@ public class Cube implements Cloneable {
         sb.append("\n");
     
         // 最后三行：下面
-        Color downCenterColor = state[Face.DOWN.ordinal()][1][1];
+        Color downCenterColor = color(Face.DOWN, 1, 1);
         for (int i = 0; i < SIZE; i++) {
             sb.append("      ");
             for (int j = 0; j < SIZE; j++) {
@@ -275,7 +259,7 @@ public class Cube implements Cloneable {
                     sb.append(downCenterColor.getColorChar()).append(" ");
                     continue;
                 }
-                Color color = state[Face.DOWN.ordinal()][i][j];
+                Color color = color(Face.DOWN, i, j);
                 sb.append(color == downCenterColor ? SYMBOL : color.getColorChar()).append(" ");
             }
             sb.append("\n");
@@ -285,17 +269,7 @@ public class Cube implements Cloneable {
     }
 
     public boolean isSolved() {
-        // 检查每个面的所有方块颜色是否与中心块颜色一致
-        for (Face face : Face.values()) {
-            Color centerColor = face.getColor();
-            for (int i = 0; i < SIZE; i++) {
-                for (int j = 0; j < SIZE; j++) {
-                    if (state[face.ordinal()][i][j] != centerColor) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        // 检查每个面的所有方块颜色是否与该面的标准颜色一致
+        return Arrays.equals(facelets, SOLVED);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.rubik.toll.back.rubik.cube;
+
+/**
+ * 用标准记号写出的一段固定公式，如“R U R' U'”
+ * <p>
+ * 创建时把各步的置换表依次复合成一张54格的置换表，{@link Cube#apply(CubeAlgorithm)} 一次遍历就完成整段公式，
+ * 不必逐步转动。逐步的转动序列仍然保留在 {@link #getMoves()} 中，用于输出解。
+ */
+public final class CubeAlgorithm {
+    // 侧面按从上往下看顺时针的顺序排列
+    private static final Face[] SIDES = {Face.FRONT, Face.RIGHT, Face.BACK, Face.LEFT};
+
+    private final String name;
+    private final CubeMove[] moves;
+    final byte[] permutation;
+
+    private CubeAlgorithm(String name, CubeMove[] moves) {
+        this.name = name;
+        this.moves = moves;
+        byte[] permutation = new byte[Cube.FACELETS];
+        for (int i = 0; i < Cube.FACELETS; i++) {
+            permutation[i] = (byte) i;
+        }
+        for (CubeMove move : moves) {
+            permutation = CubeMove.compose(permutation, move.permutation);
+        }
+        this.permutation = permutation;
+    }
+
+    /**
+     * 解析以空白分隔的标准记号：面字母 U、D、F、B、L、R，后面可以跟 '（逆时针）或 2（180度）
+     *
+     * @throws IllegalArgumentException 记号无法识别
+     */
+    public static CubeAlgorithm parse(String name, String notation) {
+        String trimmed = notation.trim();
+        if (trimmed.isEmpty()) {
+            return new CubeAlgorithm(name, new CubeMove[0]);
+        }
+        String[] tokens = trimmed.split("\\s+");
+        CubeMove[] moves = new CubeMove[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            moves[i] = parseMove(tokens[i]);
+        }
+        return new CubeAlgorithm(name, moves);
+    }
+
+    private static CubeMove parseMove(String token) {
+        for (CubeMove move : CubeMove.values()) {
+            if (move.getNotation().equals(token)) {
+                return move;
+            }
+        }
+        throw new IllegalArgumentException("无法识别的转动记号：" + token);
+    }
+
+    /**
+     * 把以前面为正面写的公式换成以 front 为正面：四个侧面按顺时针方向整体替换，上下面不变
+     *
+     * @param front 新的正面，必须是侧面
+     */
+    public CubeAlgorithm viewedFrom(Face front) {
+        int offset = sideIndex(front);
+        if (offset < 0) {
+            throw new IllegalArgumentException("正面必须是侧面：" + front);
+        }
+        CubeMove[] mapped = new CubeMove[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            Face face = moves[i].getFace();
+            int side = sideIndex(face);
+            if (side >= 0) {
+                face = SIDES[(side + offset) & 3];
+            }
+            mapped[i] = CubeMove.of(face, moves[i].getQuarterTurns());
+        }
+        return new CubeAlgorithm(name + "(" + front + ")", mapped);
+    }
+
+    private static int sideIndex(Face face) {
+        for (int i = 0; i < SIDES.length; i++) {
+            if (SIDES[i] == face) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 逐步的转动序列
+     */
+    public CubeMove[] getMoves() {
+        return moves.clone();
+    }
+
+    public int size() {
+        return moves.length;
+    }
+
+    /**
+     * 标准记号，以空格分隔
+     */
+    public String getNotation() {
+        StringBuilder sb = new StringBuilder(moves.length * 3);
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(moves[i].getNotation());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + getNotation();
+    }
+}
@@ -0,0 +1,180 @@
+package com.rubik.toll.back.rubik.cube;
+
+import com.rubik.toll.back.rubik.TwistDirection;
+
+/**
+ * 魔方的18种面转动：6个面各有顺时针、逆时针和180度三种
+ * <p>
+ * 每种转动预先算好一张54格的置换表，转动之后第 i 格的颜色来自转动之前的第 permutation[i] 格，
+ * {@link Cube#apply(CubeMove)} 按表一次遍历完成整个转动。
+ * 顺序与 {@link Face} 一致，每个面依次是顺时针、逆时针、180度，所以 ordinal() / 3 就是面的序号。
+ */
+public enum CubeMove {
+    U(Face.UP, 1, "U"),
+    U_PRIME(Face.UP, 3, "U'"),
+    U2(Face.UP, 2, "U2"),
+    D(Face.DOWN, 1, "D"),
+    D_PRIME(Face.DOWN, 3, "D'"),
+    D2(Face.DOWN, 2, "D2"),
+    F(Face.FRONT, 1, "F"),
+    F_PRIME(Face.FRONT, 3, "F'"),
+    F2(Face.FRONT, 2, "F2"),
+    B(Face.BACK, 1, "B"),
+    B_PRIME(Face.BACK, 3, "B'"),
+    B2(Face.BACK, 2, "B2"),
+    L(Face.LEFT, 1, "L"),
+    L_PRIME(Face.LEFT, 3, "L'"),
+    L2(Face.LEFT, 2, "L2"),
+    R(Face.RIGHT, 1, "R"),
+    R_PRIME(Face.RIGHT, 3, "R'"),
+    R2(Face.RIGHT, 2, "R2");
+
+    private static final CubeMove[] VALUES = values();
+
+    private final Face face;
+    private final int quarterTurns;
+    private final String notation;
+    final byte[] permutation;
+
+    CubeMove(Face face, int quarterTurns, String notation) {
+        this.face = face;
+        this.quarterTurns = quarterTurns;
+        this.notation = notation;
+        byte[] quarter = quarterTurn(face);
+        byte[] permutation = quarter;
+        for (int i = 1; i < quarterTurns; i++) {
+            permutation = compose(permutation, quarter);
+        }
+        this.permutation = permutation;
+    }
+
+    /**
+     * @param direction 顺时针或逆时针的90度转动
+     */
+    public static CubeMove of(Face face, TwistDirection direction) {
+        return VALUES[face.ordinal() * 3 + (direction.isClockwise() ? 0 : 1)];
+    }
+
+    /**
+     * 180度转动
+     */
+    public static CubeMove half(Face face) {
+        return VALUES[face.ordinal() * 3 + 2];
+    }
+
+    /**
+     * @param quarterTurns 相当于顺时针转动90度的次数，1到3
+     */
+    static CubeMove of(Face face, int quarterTurns) {
+        return VALUES[face.ordinal() * 3 + (quarterTurns == 1 ? 0 : quarterTurns == 3 ? 1 : 2)];
+    }
+
+    public Face getFace() {
+        return face;
+    }
+
+    /**
+     * 相当于顺时针转动90度的次数：顺时针为1，180度为2，逆时针为3
+     */
+    public int getQuarterTurns() {
+        return quarterTurns;
+    }
+
+    /**
+     * 逆转动，180度转动的逆是自身
+     */
+    public CubeMove inverse() {
+        return VALUES[face.ordinal() * 3 + (quarterTurns == 1 ? 1 : quarterTurns == 3 ? 0 : 2)];
+    }
+
+    public String getNotation() {
+        return notation;
+    }
+
+    @Override
+    public String toString() {
+        return notation;
+    }
+
+    /**
+     * 先做 first 再做 second 的置换表
+     */
+    static byte[] compose(byte[] first, byte[] second) {
+        byte[] result = new byte[Cube.FACELETS];
+        for (int i = 0; i < Cube.FACELETS; i++) {
+            result[i] = first[second[i]];
+        }
+        return result;
+    }
+
+    /**
+     * 顺时针转动90度的置换表
+     * <p>
+     * 相邻四个面上的一圈12格按3格一组列出，每组依次取下一组的颜色，最后一组取第一组的颜色
+     */
+    private static byte[] quarterTurn(Face face) {
+        byte[] permutation = new byte[Cube.FACELETS];
+        for (int i = 0; i < Cube.FACELETS; i++) {
+            permutation[i] = (byte) i;
+        }
+        // 本面的9格：转动后的 (i, j) 来自转动前的 (2 - j, i)
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                permutation[Cube.index(face, i, j)] = (byte) Cube.index(face, 2 - j, i);
+            }
+        }
+        int[][] strips = new int[4][3];
+        for (int i = 0; i < 3; i++) {
+            switch (face) {
+                case UP -> {
+                    // 前 <- 右 <- 后 <- 左 <- 前
+                    strips[0][i] = Cube.index(Face.FRONT, 0, i);
+                    strips[1][i] = Cube.index(Face.RIGHT, 0, i);
+                    strips[2][i] = Cube.index(Face.BACK, 0, i);
+                    strips[3][i] = Cube.index(Face.LEFT, 0, i);
+                }
+                case DOWN -> {
+                    // 前 <- 左 <- 后 <- 右 <- 前
+                    strips[0][i] = Cube.index(Face.FRONT, 2, i);
+                    strips[1][i] = Cube.index(Face.LEFT, 2, i);
+                    strips[2][i] = Cube.index(Face.BACK, 2, i);
+                    strips[3][i] = Cube.index(Face.RIGHT, 2, i);
+                }
+                case FRONT -> {
+                    // 上 <- 左 <- 下 <- 右 <- 上
+                    strips[0][i] = Cube.index(Face.UP, 2, i);
+                    strips[1][i] = Cube.index(Face.LEFT, 2 - i, 2);
+                    strips[2][i] = Cube.index(Face.DOWN, 0, 2 - i);
+                    strips[3][i] = Cube.index(Face.RIGHT, i, 0);
+                }
+                case BACK -> {
+                    // 上 <- 右 <- 下 <- 左 <- 上
+                    strips[0][i] = Cube.index(Face.UP, 0, i);
+                    strips[1][i] = Cube.index(Face.RIGHT, i, 2);
+                    strips[2][i] = Cube.index(Face.DOWN, 2, 2 - i);
+                    strips[3][i] = Cube.index(Face.LEFT, 2 - i, 0);
+                }
+                case LEFT -> {
+                    // 上 <- 后 <- 下 <- 前 <- 上
+                    strips[0][i] = Cube.index(Face.UP, i, 0);
+                    strips[1][i] = Cube.index(Face.BACK, 2 - i, 2);
+                    strips[2][i] = Cube.index(Face.DOWN, i, 0);
+                    strips[3][i] = Cube.index(Face.FRONT, i, 0);
+                }
+                case RIGHT -> {
+                    // 上 <- 前 <- 下 <- 后 <- 上
+                    strips[0][i] = Cube.index(Face.UP, i, 2);
+                    strips[1][i] = Cube.index(Face.FRONT, i, 2);
+                    strips[2][i] = Cube.index(Face.DOWN, i, 2);
+                    strips[3][i] = Cube.index(Face.BACK, 2 - i, 0);
+                }
+            }
+        }
+        for (int k = 0; k < 4; k++) {
+            for (int i = 0; i < 3; i++) {
+                permutation[strips[k][i]] = (byte) strips[(k + 1) & 3][i];
+            }
+        }
+        return permutation;
+    }
+}
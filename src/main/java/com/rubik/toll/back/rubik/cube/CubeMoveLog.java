@@ -0,0 +1,84 @@
+package com.rubik.toll.back.rubik.cube;
+
+import java.util.Arrays;
+
+/**
+ * 魔方转动记录
+ * <p>
+ * 每一步存一个字节（{@link CubeMove#ordinal()}），数组按需加倍扩容，只有在需要时才转换成记号。
+ * 步数有两种计法：HTM（半转计量）中任何一次面转动都算一步，即 {@link #size()}；
+ * QTM（四分之一转计量）中180度转动算两步，即 {@link #getQuarterTurnCount()}。
+ */
+public final class CubeMoveLog {
+    private static final CubeMove[] MOVES = CubeMove.values();
+
+    private byte[] moves;
+    private int size;
+
+    public CubeMoveLog() {
+        this.moves = new byte[64];
+    }
+
+    public void append(CubeMove move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length << 1);
+        }
+        moves[size++] = (byte) move.ordinal();
+    }
+
+    public CubeMove get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("步数下标越界：" + index);
+        }
+        return MOVES[moves[index]];
+    }
+
+    /**
+     * 步数（HTM）
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * 四分之一转计量的步数（QTM），180度转动算两步
+     */
+    public int getQuarterTurnCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += MOVES[moves[i]].getQuarterTurns() == 2 ? 2 : 1;
+        }
+        return count;
+    }
+
+    public CubeMove[] toArray() {
+        CubeMove[] result = new CubeMove[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = MOVES[moves[i]];
+        }
+        return result;
+    }
+
+    /**
+     * 标准记号，以空格分隔，如“R U R' U'”
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size * 3);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(MOVES[moves[i]].getNotation());
+        }
+        return sb.toString();
+    }
+}
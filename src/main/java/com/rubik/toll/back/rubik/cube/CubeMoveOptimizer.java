@@ -0,0 +1,75 @@
+package com.rubik.toll.back.rubik.cube;
+
+/**
+ * 转动序列的合并与消去
+ * <p>
+ * 层先法的各阶段按公式逐步转动，相邻公式的首尾常常转同一个面，例如“R U R' U'”重复三次时，
+ * 前一遍的 U' 紧接着后一遍的 R。这里用栈在线处理：
+ * <ul>
+ *   <li>同一个面的连续转动合并成一步，如 R R → R2、R2 R → R'，转满一圈（U U'）则整体去掉</li>
+ *   <li>相对的两个面互不影响，可以交换顺序，所以 U D U' 中的两个 U 也能合并，结果是 D</li>
+ * </ul>
+ * 栈里相邻两步不会是同一个面，也不会出现“X、X 的对面、X”，所以每一步只需要看栈顶的两步。
+ * 合并之后魔方的最终状态与原序列完全相同。
+ */
+public final class CubeMoveOptimizer {
+
+    private CubeMoveOptimizer() {
+    }
+
+    /**
+     * 优化转动记录，返回新的记录，原记录不变
+     */
+    public static CubeMoveLog optimize(CubeMoveLog moves) {
+        return toLog(optimize(moves.toArray()));
+    }
+
+    /**
+     * 优化转动序列，返回新的数组
+     */
+    public static CubeMove[] optimize(CubeMove[] moves) {
+        Face[] faces = new Face[moves.length];
+        int[] turns = new int[moves.length];
+        int size = 0;
+        for (CubeMove move : moves) {
+            Face face = move.getFace();
+            int target = -1;
+            if (size > 0 && faces[size - 1] == face) {
+                target = size - 1;
+            } else if (size > 1 && faces[size - 2] == face && isOpposite(faces[size - 1], face)) {
+                target = size - 2;
+            }
+            if (target < 0) {
+                faces[size] = face;
+                turns[size] = move.getQuarterTurns();
+                size++;
+                continue;
+            }
+            turns[target] = (turns[target] + move.getQuarterTurns()) & 3;
+            if (turns[target] == 0) {
+                // 转满一圈，去掉这一步，后面的一步（如果有）前移
+                faces[target] = faces[size - 1];
+                turns[target] = turns[size - 1];
+                size--;
+            }
+        }
+        CubeMove[] result = new CubeMove[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = CubeMove.of(faces[i], turns[i]);
+        }
+        return result;
+    }
+
+    private static boolean isOpposite(Face a, Face b) {
+        // 面的顺序是上下、前后、左右成对排列
+        return (a.ordinal() ^ 1) == b.ordinal();
+    }
+
+    private static CubeMoveLog toLog(CubeMove[] moves) {
+        CubeMoveLog log = new CubeMoveLog();
+        for (CubeMove move : moves) {
+            log.append(move);
+        }
+        return log;
+    }
+}
@@ -0,0 +1,471 @@
+package com.rubik.toll.back.rubik.cube;
+
+import java.util.Arrays;
+
+/**
+ * 块层面的魔方状态：8个角块和12个棱块各自的位置与朝向，共40字节
+ * <p>
+ * 角块位置按 URF、UFL、ULB、UBR、DFR、DLF、DBL、DRB 编号，棱块位置按 UR、UF、UL、UB、DR、DF、DL、DB、FR、FL、BL、BR 编号。
+ * cornerPermutation[i] 是当前在位置 i 上的角块（用它复原时所在位置的编号表示），cornerOrientation[i] 是它的朝向，棱块同理。
+ * <p>
+ * 朝向以每个位置的第一个贴纸为参照：角块的第一个贴纸在上面或下面，朝向是上下两种颜色的贴纸相对它顺时针转过的次数（0到2）；
+ * 棱块的第一个贴纸在上面或下面，中层的棱块在前面或后面，朝向表示棱块是否翻转（0或1）。
+ * 按这个约定，U、D 的所有转动和 L、R、F、B 的180度转动都不改变任何朝向。
+ * <p>
+ * 与 {@link Cube} 的贴纸状态可以无损地互相转换，18种转动也各有一张块层面的转动表。
+ */
+public class CubieCube implements Cloneable {
+    public static final int CORNERS = 8;
+    public static final int EDGES = 12;
+    /**
+     * 各坐标的取值个数，见对应的 get 方法
+     */
+    public static final int TWISTS = 2187;
+    public static final int FLIPS = 2048;
+    public static final int SLICES = 495;
+    public static final int CORNER_PERMUTATIONS = 40320;
+    public static final int UD_EDGE_PERMUTATIONS = 40320;
+    public static final int SLICE_PERMUTATIONS = 24;
+    // 中层四个棱块 FR、FL、BL、BR 的编号从这里开始
+    private static final int FIRST_SLICE_EDGE = 8;
+
+    /**
+     * 每个角块位置的3个贴纸，第一个在上面或下面，其余按顺时针排列
+     */
+    static final int[][] CORNER_FACELETS = {
+            {Cube.index(Face.UP, 2, 2), Cube.index(Face.RIGHT, 0, 0), Cube.index(Face.FRONT, 0, 2)},
+            {Cube.index(Face.UP, 2, 0), Cube.index(Face.FRONT, 0, 0), Cube.index(Face.LEFT, 0, 2)},
+            {Cube.index(Face.UP, 0, 0), Cube.index(Face.LEFT, 0, 0), Cube.index(Face.BACK, 0, 2)},
+            {Cube.index(Face.UP, 0, 2), Cube.index(Face.BACK, 0, 0), Cube.index(Face.RIGHT, 0, 2)},
+            {Cube.index(Face.DOWN, 0, 2), Cube.index(Face.FRONT, 2, 2), Cube.index(Face.RIGHT, 2, 0)},
+            {Cube.index(Face.DOWN, 0, 0), Cube.index(Face.LEFT, 2, 2), Cube.index(Face.FRONT, 2, 0)},
+            {Cube.index(Face.DOWN, 2, 0), Cube.index(Face.BACK, 2, 2), Cube.index(Face.LEFT, 2, 0)},
+            {Cube.index(Face.DOWN, 2, 2), Cube.index(Face.RIGHT, 2, 2), Cube.index(Face.BACK, 2, 0)},
+    };
+    /**
+     * 每个棱块位置的2个贴纸，第一个在上面或下面（中层的在前面或后面）
+     */
+    static final int[][] EDGE_FACELETS = {
+            {Cube.index(Face.UP, 1, 2), Cube.index(Face.RIGHT, 0, 1)},
+            {Cube.index(Face.UP, 2, 1), Cube.index(Face.FRONT, 0, 1)},
+            {Cube.index(Face.UP, 1, 0), Cube.index(Face.LEFT, 0, 1)},
+            {Cube.index(Face.UP, 0, 1), Cube.index(Face.BACK, 0, 1)},
+            {Cube.index(Face.DOWN, 1, 2), Cube.index(Face.RIGHT, 2, 1)},
+            {Cube.index(Face.DOWN, 0, 1), Cube.index(Face.FRONT, 2, 1)},
+            {Cube.index(Face.DOWN, 1, 0), Cube.index(Face.LEFT, 2, 1)},
+            {Cube.index(Face.DOWN, 2, 1), Cube.index(Face.BACK, 2, 1)},
+            {Cube.index(Face.FRONT, 1, 2), Cube.index(Face.RIGHT, 1, 0)},
+            {Cube.index(Face.FRONT, 1, 0), Cube.index(Face.LEFT, 1, 2)},
+            {Cube.index(Face.BACK, 1, 2), Cube.index(Face.LEFT, 1, 0)},
+            {Cube.index(Face.BACK, 1, 0), Cube.index(Face.RIGHT, 1, 2)},
+    };
+    // 每个块复原时各贴纸的颜色序号，与 *_FACELETS 的顺序对应
+    private static final byte[][] CORNER_COLORS = homeColors(CORNER_FACELETS);
+    private static final byte[][] EDGE_COLORS = homeColors(EDGE_FACELETS);
+
+    /**
+     * 18种转动各自的块层面转动表，下标为 {@link CubeMove#ordinal()}
+     */
+    private static final CubieCube[] MOVES = new CubieCube[CubeMove.values().length];
+
+    static {
+        for (CubeMove move : CubeMove.values()) {
+            Cube cube = new Cube();
+            cube.apply(move);
+            MOVES[move.ordinal()] = fromCube(cube);
+        }
+    }
+
+    final byte[] cornerPermutation = new byte[CORNERS];
+    final byte[] cornerOrientation = new byte[CORNERS];
+    final byte[] edgePermutation = new byte[EDGES];
+    final byte[] edgeOrientation = new byte[EDGES];
+
+    /**
+     * 复原状态
+     */
+    public CubieCube() {
+        for (int i = 0; i < CORNERS; i++) {
+            cornerPermutation[i] = (byte) i;
+        }
+        for (int i = 0; i < EDGES; i++) {
+            edgePermutation[i] = (byte) i;
+        }
+    }
+
+    private static byte[][] homeColors(int[][] facelets) {
+        byte[][] colors = new byte[facelets.length][];
+        for (int i = 0; i < facelets.length; i++) {
+            colors[i] = new byte[facelets[i].length];
+            for (int k = 0; k < facelets[i].length; k++) {
+                colors[i][k] = (byte) Face.values()[facelets[i][k] / 9].getColor().ordinal();
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * 从贴纸状态识别每个位置上的块和朝向
+     *
+     * @throws IllegalArgumentException 某个位置的颜色组合不是任何一个块，或同一个块出现了两次
+     */
+    public static CubieCube fromCube(Cube cube) {
+        CubieCube result = new CubieCube();
+        int used = 0;
+        for (int i = 0; i < CORNERS; i++) {
+            int[] facelets = CORNER_FACELETS[i];
+            // 找上下两种颜色所在的贴纸
+            int twist = 0;
+            while (twist < 3 && !isUpOrDown(cube.getFacelet(facelets[twist]))) {
+                twist++;
+            }
+            if (twist == 3) {
+                throw new IllegalArgumentException("角块位置" + i + "没有上面或下面的颜色");
+            }
+            byte second = cube.getFacelet(facelets[(twist + 1) % 3]);
+            byte third = cube.getFacelet(facelets[(twist + 2) % 3]);
+            int corner = find(CORNER_COLORS, cube.getFacelet(facelets[twist]), second, third);
+            if (corner < 0 || (used & 1 << corner) != 0) {
+                throw new IllegalArgumentException("角块位置" + i + "的颜色组合无效");
+            }
+            used |= 1 << corner;
+            result.cornerPermutation[i] = (byte) corner;
+            result.cornerOrientation[i] = (byte) twist;
+        }
+        used = 0;
+        for (int i = 0; i < EDGES; i++) {
+            byte first = cube.getFacelet(EDGE_FACELETS[i][0]);
+            byte second = cube.getFacelet(EDGE_FACELETS[i][1]);
+            int edge = find(EDGE_COLORS, first, second);
+            int flip = 0;
+            if (edge < 0) {
+                edge = find(EDGE_COLORS, second, first);
+                flip = 1;
+            }
+            if (edge < 0 || (used & 1 << edge) != 0) {
+                throw new IllegalArgumentException("棱块位置" + i + "的颜色组合无效");
+            }
+            used |= 1 << edge;
+            result.edgePermutation[i] = (byte) edge;
+            result.edgeOrientation[i] = (byte) flip;
+        }
+        return result;
+    }
+
+    private static boolean isUpOrDown(byte color) {
+        return color == Face.UP.getColor().ordinal() || color == Face.DOWN.getColor().ordinal();
+    }
+
+    private static int find(byte[][] homeColors, byte... colors) {
+        for (int i = 0; i < homeColors.length; i++) {
+            if (Arrays.equals(homeColors[i], colors)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 转换回贴纸状态，中心块是各面的标准颜色
+     */
+    public Cube toCube() {
+        Cube cube = new Cube();
+        for (int i = 0; i < CORNERS; i++) {
+            byte[] colors = CORNER_COLORS[cornerPermutation[i]];
+            for (int k = 0; k < 3; k++) {
+                // 朝向为 twist 时，块的第 k 个贴纸落在位置的第 (k + twist) % 3 个贴纸上
+                cube.setFacelet(CORNER_FACELETS[i][(k + cornerOrientation[i]) % 3], colors[k]);
+            }
+        }
+        for (int i = 0; i < EDGES; i++) {
+            byte[] colors = EDGE_COLORS[edgePermutation[i]];
+            for (int k = 0; k < 2; k++) {
+                cube.setFacelet(EDGE_FACELETS[i][(k + edgeOrientation[i]) % 2], colors[k]);
+            }
+        }
+        return cube;
+    }
+
+    /**
+     * 执行一次转动
+     */
+    public void apply(CubeMove move) {
+        multiply(MOVES[move.ordinal()]);
+    }
+
+    /**
+     * 在当前状态之后接着执行 other 所表示的变换
+     */
+    public void multiply(CubieCube other) {
+        byte[] permutation = new byte[CORNERS];
+        byte[] orientation = new byte[CORNERS];
+        for (int i = 0; i < CORNERS; i++) {
+            int from = other.cornerPermutation[i];
+            permutation[i] = cornerPermutation[from];
+            orientation[i] = (byte) ((cornerOrientation[from] + other.cornerOrientation[i]) % 3);
+        }
+        System.arraycopy(permutation, 0, cornerPermutation, 0, CORNERS);
+        System.arraycopy(orientation, 0, cornerOrientation, 0, CORNERS);
+
+        permutation = new byte[EDGES];
+        orientation = new byte[EDGES];
+        for (int i = 0; i < EDGES; i++) {
+            int from = other.edgePermutation[i];
+            permutation[i] = edgePermutation[from];
+            orientation[i] = (byte) (edgeOrientation[from] ^ other.edgeOrientation[i]);
+        }
+        System.arraycopy(permutation, 0, edgePermutation, 0, EDGES);
+        System.arraycopy(orientation, 0, edgeOrientation, 0, EDGES);
+    }
+
+    /**
+     * 能否用转动复原：每个块恰好出现一次，角块朝向之和是3的倍数，棱块翻转数是偶数，角块和棱块排列的奇偶性相同
+     */
+    public boolean isSolvable() {
+        int cornerTwist = 0;
+        for (byte orientation : cornerOrientation) {
+            cornerTwist += orientation;
+        }
+        int edgeFlip = 0;
+        for (byte orientation : edgeOrientation) {
+            edgeFlip += orientation;
+        }
+        return isPermutation(cornerPermutation) && isPermutation(edgePermutation)
+                && cornerTwist % 3 == 0 && edgeFlip % 2 == 0
+                && parity(cornerPermutation) == parity(edgePermutation);
+    }
+
+    private static boolean isPermutation(byte[] permutation) {
+        int seen = 0;
+        for (byte p : permutation) {
+            if (p < 0 || p >= permutation.length || (seen & 1 << p) != 0) {
+                return false;
+            }
+            seen |= 1 << p;
+        }
+        return true;
+    }
+
+    /**
+     * 排列的奇偶性，0为偶排列
+     */
+    static int parity(byte[] permutation) {
+        int parity = 0;
+        for (int i = 0; i < permutation.length; i++) {
+            for (int j = i + 1; j < permutation.length; j++) {
+                if (permutation[j] < permutation[i]) {
+                    parity ^= 1;
+                }
+            }
+        }
+        return parity;
+    }
+
+    /**
+     * 角块朝向坐标：前7个角块的朝向组成的三进制数，第8个由总和是3的倍数决定，0到2186
+     */
+    public int getTwist() {
+        int twist = 0;
+        for (int i = 0; i < CORNERS - 1; i++) {
+            twist = twist * 3 + cornerOrientation[i];
+        }
+        return twist;
+    }
+
+    public void setTwist(int twist) {
+        int sum = 0;
+        for (int i = CORNERS - 2; i >= 0; i--) {
+            cornerOrientation[i] = (byte) (twist % 3);
+            sum += cornerOrientation[i];
+            twist /= 3;
+        }
+        cornerOrientation[CORNERS - 1] = (byte) ((3 - sum % 3) % 3);
+    }
+
+    /**
+     * 棱块朝向坐标：前11个棱块的翻转组成的二进制数，0到2047
+     */
+    public int getFlip() {
+        int flip = 0;
+        for (int i = 0; i < EDGES - 1; i++) {
+            flip = flip * 2 + edgeOrientation[i];
+        }
+        return flip;
+    }
+
+    public void setFlip(int flip) {
+        int sum = 0;
+        for (int i = EDGES - 2; i >= 0; i--) {
+            edgeOrientation[i] = (byte) (flip & 1);
+            sum += edgeOrientation[i];
+            flip >>= 1;
+        }
+        edgeOrientation[EDGES - 1] = (byte) (sum & 1);
+    }
+
+    /**
+     * 中层棱块位置坐标：FR、FL、BL、BR 四个棱块占据的4个位置（不计顺序）的组合数编码，0到494，都在中层时为0
+     */
+    public int getSlice() {
+        int slice = 0;
+        int found = 0;
+        for (int j = EDGES - 1; j >= 0; j--) {
+            if (edgePermutation[j] >= FIRST_SLICE_EDGE) {
+                found++;
+                slice += binomial(EDGES - 1 - j, found);
+            }
+        }
+        return slice;
+    }
+
+    /**
+     * 按坐标放置中层棱块，四个中层棱块和其余棱块都按编号顺序填入，朝向不变
+     */
+    public void setSlice(int slice) {
+        int remaining = 4;
+        int sliceEdge = FIRST_SLICE_EDGE + 3;
+        int otherEdge = FIRST_SLICE_EDGE - 1;
+        // 组合数编码从位置大的一端数起，这里从位置小的一端逆推
+        for (int j = 0; j < EDGES; j++) {
+            int count = binomial(EDGES - 1 - j, remaining);
+            if (remaining > 0 && count <= slice) {
+                slice -= count;
+                remaining--;
+                edgePermutation[j] = (byte) sliceEdge--;
+            } else {
+                edgePermutation[j] = -1;
+            }
+        }
+        for (int j = EDGES - 1; j >= 0; j--) {
+            if (edgePermutation[j] < 0) {
+                edgePermutation[j] = (byte) otherEdge--;
+            }
+        }
+    }
+
+    /**
+     * 角块排列坐标：8个角块排列的康托展开，0到40319
+     */
+    public int getCornerPermutation() {
+        return rank(cornerPermutation, 0, CORNERS);
+    }
+
+    public void setCornerPermutation(int rank) {
+        unrank(rank, cornerPermutation, 0, CORNERS, 0);
+    }
+
+    /**
+     * 上下两层8个棱块的排列坐标，只在中层棱块都在中层时有意义（第二阶段），0到40319
+     */
+    public int getUdEdgePermutation() {
+        return rank(edgePermutation, 0, FIRST_SLICE_EDGE);
+    }
+
+    public void setUdEdgePermutation(int rank) {
+        unrank(rank, edgePermutation, 0, FIRST_SLICE_EDGE, 0);
+    }
+
+    /**
+     * 中层4个棱块的排列坐标，只在中层棱块都在中层时有意义（第二阶段），0到23
+     */
+    public int getSlicePermutation() {
+        return rank(edgePermutation, FIRST_SLICE_EDGE, 4);
+    }
+
+    public void setSlicePermutation(int rank) {
+        unrank(rank, edgePermutation, FIRST_SLICE_EDGE, 4, FIRST_SLICE_EDGE);
+    }
+
+    private static int binomial(int n, int k) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        int result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * values[from, from + n) 的排列的康托展开
+     */
+    private static int rank(byte[] values, int from, int n) {
+        int rank = 0;
+        for (int i = 0; i < n; i++) {
+            int smaller = 0;
+            for (int j = i + 1; j < n; j++) {
+                if (values[from + j] < values[from + i]) {
+                    smaller++;
+                }
+            }
+            rank = rank * (n - i) + smaller;
+        }
+        return rank;
+    }
+
+    /**
+     * {@link #rank} 的逆运算，写入的值从 offset 开始
+     */
+    private static void unrank(int rank, byte[] values, int from, int n, int offset) {
+        // 先求出每一位的“后面比它小的个数”，再从剩余的数中依次取出
+        int[] smaller = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            smaller[i] = rank % (n - i);
+            rank /= n - i;
+        }
+        int unused = (1 << n) - 1;
+        for (int i = 0; i < n; i++) {
+            int value = 0;
+            for (int skip = smaller[i]; ; value++) {
+                if ((unused & 1 << value) != 0 && skip-- == 0) {
+                    break;
+                }
+            }
+            unused &= ~(1 << value);
+            values[from + i] = (byte) (value + offset);
+        }
+    }
+
+    public boolean isSolved() {
+        return equals(new CubieCube());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CubieCube other)) {
+            return false;
+        }
+        return Arrays.equals(cornerPermutation, other.cornerPermutation)
+                && Arrays.equals(cornerOrientation, other.cornerOrientation)
+                && Arrays.equals(edgePermutation, other.edgePermutation)
+                && Arrays.equals(edgeOrientation, other.edgeOrientation);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(cornerPermutation);
+        result = 31 * result + Arrays.hashCode(cornerOrientation);
+        result = 31 * result + Arrays.hashCode(edgePermutation);
+        return 31 * result + Arrays.hashCode(edgeOrientation);
+    }
+
+    @Override
+    public CubieCube clone() {
+        CubieCube copy = new CubieCube();
+        System.arraycopy(cornerPermutation, 0, copy.cornerPermutation, 0, CORNERS);
+        System.arraycopy(cornerOrientation, 0, copy.cornerOrientation, 0, CORNERS);
+        System.arraycopy(edgePermutation, 0, copy.edgePermutation, 0, EDGES);
+        System.arraycopy(edgeOrientation, 0, copy.edgeOrientation, 0, EDGES);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "角块" + Arrays.toString(cornerPermutation) + Arrays.toString(cornerOrientation)
+                + " 棱块" + Arrays.toString(edgePermutation) + Arrays.toString(edgeOrientation);
+    }
+}
@@ -0,0 +1,69 @@
+package com.rubik.toll.back.rubik.solver;
+
+import com.rubik.toll.back.rubik.cube.CubeAlgorithm;
+import com.rubik.toll.back.rubik.cube.Face;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 层先法各阶段用到的固定公式，每个公式只用标准记号写一次，类加载时编译成一张置换表
+ * <p>
+ * 与某个侧面相关的公式以前面为正面书写，四个侧面的版本预先换算好。
+ */
+public final class CubeAlgorithms {
+    /**
+     * 底层十字：把顶层的白色棱块翻到正确方向，F R U R'
+     */
+    private static final Map<Face, CubeAlgorithm> SWAP_EDGE_ON_TOP = sideVariants(
+            CubeAlgorithm.parse("底层棱块翻转", "F R U R'"));
+    /**
+     * 顶层十字：F R U R' U' F'
+     */
+    public static final CubeAlgorithm TOP_CROSS = CubeAlgorithm.parse("顶层十字", "F R U R' U' F'");
+    /**
+     * 顶面：右手公式 R U R' U R U2 R'
+     */
+    public static final CubeAlgorithm RIGHT_HAND = CubeAlgorithm.parse("右手公式", "R U R' U R U2 R'");
+    /**
+     * 顶面：左手公式 L' U' L U' L' U2 L
+     */
+    public static final CubeAlgorithm LEFT_HAND = CubeAlgorithm.parse("左手公式", "L' U' L U' L' U2 L");
+    /**
+     * 顶层角块置换：R B' R F2 R' B R F2 R2
+     */
+    public static final CubeAlgorithm CORNER_PERMUTATION = CubeAlgorithm.parse("顶层角块置换",
+            "R B' R F2 R' B R F2 R2");
+    /**
+     * 顶层棱块置换：R U' R U R U R U' R' U' R2
+     */
+    public static final CubeAlgorithm EDGE_PERMUTATION = CubeAlgorithm.parse("顶层棱块置换",
+            "R U' R U R U R U' R' U' R2");
+    /**
+     * 顶层角块翻转：(R U R' U') 重复三次
+     */
+    public static final CubeAlgorithm CORNER_TWIST = CubeAlgorithm.parse("顶层角块翻转",
+            "R U R' U' R U R' U' R U R' U'");
+
+    private CubeAlgorithms() {
+    }
+
+    /**
+     * 以 face 为正面的底层棱块翻转公式
+     */
+    public static CubeAlgorithm swapEdgeOnTop(Face face) {
+        CubeAlgorithm algorithm = SWAP_EDGE_ON_TOP.get(face);
+        if (algorithm == null) {
+            throw new IllegalArgumentException("无效的面");
+        }
+        return algorithm;
+    }
+
+    private static Map<Face, CubeAlgorithm> sideVariants(CubeAlgorithm algorithm) {
+        Map<Face, CubeAlgorithm> variants = new EnumMap<>(Face.class);
+        for (Face face : new Face[]{Face.FRONT, Face.RIGHT, Face.BACK, Face.LEFT}) {
+            variants.put(face, algorithm.viewedFrom(face));
+        }
+        return variants;
+    }
+}
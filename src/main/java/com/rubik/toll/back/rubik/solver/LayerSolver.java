@@ -2,25 +2,33 @@ package com.rubik.toll.back.rubik.solver;
 
 import com.rubik.toll.back.rubik.cube.Color;
 import com.rubik.toll.back.rubik.cube.Cube;
-import com.rubik.toll.back.rubik.CubeShuffler;
+import com.rubik.toll.back.rubik.cube.CubeAlgorithm;
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import com.rubik.toll.back.rubik.cube.CubeMoveLog;
 import com.rubik.toll.back.rubik.cube.Face;
 import com.rubik.toll.back.rubik.TwistDirection;
 
 public abstract class LayerSolver {
     protected final Cube cube;
-    private final CubeShuffler cubeShuffler;
     protected static final Color yellow = Face.UP.getColor();
+    private CubeMoveLog moveLog;
 
     protected LayerSolver(Cube cube) {
         if (cube == null) {
             throw new IllegalArgumentException("魔方实例不能为空");
         }
         this.cube = cube;
-        cubeShuffler = new CubeShuffler(cube);
     }
 
     public abstract String getName();
 
+    /**
+     * 设置转动记录，之后本阶段的每一步转动都追加到记录末尾；不设置时不记录
+     */
+    public void setMoveLog(CubeMoveLog moveLog) {
+        this.moveLog = moveLog;
+    }
+
     public void solve() {
         if (!isPreviousSolved())
             throw new IllegalStateException("Previous layer not solved");
@@ -46,7 +54,33 @@ public abstract class LayerSolver {
     public abstract LayerSolver getNextSolver();
 
     protected void rotateFace(Face face, boolean clockwise) {
-        cubeShuffler.rotateFace(face, TwistDirection.of(clockwise));
+        turn(CubeMove.of(face, TwistDirection.of(clockwise)));
+    }
+
+    protected void rotateFace180(Face face) {
+        turn(CubeMove.half(face));
+    }
+
+    /**
+     * 各阶段的所有转动都经过这里，按置换表一次完成，并追加到转动记录
+     */
+    protected void turn(CubeMove move) {
+        cube.apply(move);
+        if (moveLog != null) {
+            moveLog.append(move);
+        }
+    }
+
+    /**
+     * 执行一段固定公式：按编译好的置换表一次完成，转动记录中仍逐步记下公式的每一步
+     */
+    protected void execute(CubeAlgorithm algorithm) {
+        cube.apply(algorithm);
+        if (moveLog != null) {
+            for (CubeMove move : algorithm.getMoves()) {
+                moveLog.append(move);
+            }
+        }
     }
 
     protected Face getLeftSide(Face face) {
@@ -3,6 +3,7 @@ package com.rubik.toll.back.rubik.solver.bottom;
 import com.rubik.toll.back.rubik.cube.Color;
 import com.rubik.toll.back.rubik.cube.Cube;
 import com.rubik.toll.back.rubik.cube.Face;
+import com.rubik.toll.back.rubik.solver.CubeAlgorithms;
 import com.rubik.toll.back.rubik.solver.LayerSolver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -38,8 +39,7 @@ public class BottomCrossSolver extends LayerSolver {
         // 在处理每一面（实际上是面对应颜色的边块）时不用考虑是否破坏其他块，因为能够保证4种颜色分别处理完后一定是正确的。
         if (findEdgeInTop(face) || findEdgeInMiddle(face) || findEdgeInBottom(face)) {
             // 将边块插入到顶层
-            rotateFace(face, true);
-            rotateFace(face, true);
+            rotateFace180(face);
         }
         logger.debug("处理底层和{}相交后：\n{}", face, cube);
     }
@@ -96,14 +96,12 @@ public class BottomCrossSolver extends LayerSolver {
         upCenter = getUpCenter(backSide);
         if (cube.getColor(Face.UP, upCenter[0], upCenter[1]) == Color.WHITE
                 && cube.getColor(backSide, 0, 1) == faceColor) {
-            rotateFace(Face.UP, true);
-            rotateFace(Face.UP, true);
+            rotateFace180(Face.UP);
             return true;
         }
         if (cube.getColor(backSide, 0, 1) == Color.WHITE
                 && cube.getColor(Face.UP, upCenter[0], upCenter[1]) == faceColor) {
-            rotateFace(Face.UP, true);
-            rotateFace(Face.UP, true);
+            rotateFace180(Face.UP);
             swapEdgeOnTop(face);
             return true;
         }
@@ -112,11 +110,8 @@ public class BottomCrossSolver extends LayerSolver {
     }
 
     private void swapEdgeOnTop(Face face) {
-        Face rightFace = getRightSide(face);
-        rotateFace(face, true);
-        rotateFace(rightFace, true);
-        rotateFace(Face.UP, true);
-        rotateFace(rightFace, false);
+        // 以 face 为正面：F R U R'
+        execute(CubeAlgorithms.swapEdgeOnTop(face));
     }
 
     private boolean findEdgeInMiddle(Face face) {
@@ -186,8 +181,7 @@ public class BottomCrossSolver extends LayerSolver {
         Color color = face.getColor();
         if (cube.getColor(Face.DOWN, downCenter[0], downCenter[1]) == color
                 && cube.getColor(face, 2, 1) == Color.WHITE) {
-            rotateFace(face, true);
-            rotateFace(face, true);
+            rotateFace180(face);
             return findEdgeInTop(face);
         }
 
@@ -218,8 +212,7 @@ public class BottomCrossSolver extends LayerSolver {
                 (cube.getColor(sideFace, 2, 1) == Color.WHITE &&
                         cube.getColor(Face.DOWN, downCenter[0], downCenter[1]) == currentColor)) {
 
-            rotateFace(sideFace, true);
-            rotateFace(sideFace, true);
+            rotateFace180(sideFace);
             return findEdgeInTop(currentFace);
         }
         return false;
@@ -3,6 +3,7 @@ package com.rubik.toll.back.rubik.solver.top;
 import com.rubik.toll.back.rubik.cube.Color;
 import com.rubik.toll.back.rubik.cube.Cube;
 import com.rubik.toll.back.rubik.cube.Face;
+import com.rubik.toll.back.rubik.solver.CubeAlgorithms;
 import com.rubik.toll.back.rubik.solver.LayerSolver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -24,22 +25,12 @@ public class TopCornerOrientationSolver extends LayerSolver {
         // 调整所有角块的方向
         for (int i = 0; i < 4; i++) {
             while (cube.getColor(Face.UP, 2, 2) != Color.YELLOW) {
-                executeCornerTwistAlgorithm();
+                execute(CubeAlgorithms.CORNER_TWIST);
             }
             rotateFace(Face.UP, true);
         }
     }
 
-    private void executeCornerTwistAlgorithm() {
-        // R U R' U' (重复三次)
-        for (int i = 0; i < 3; i++) {
-            rotateFace(Face.RIGHT, true);
-            rotateFace(Face.UP, true);
-            rotateFace(Face.RIGHT, false);
-            rotateFace(Face.UP, false);
-        }
-    }
-
     @Override
     protected boolean isSolved() {
         // 检查顶面是否都是黄色
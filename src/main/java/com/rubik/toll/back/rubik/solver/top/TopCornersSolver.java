@@ -3,6 +3,7 @@ package com.rubik.toll.back.rubik.solver.top;
 import com.rubik.toll.back.rubik.cube.Color;
 import com.rubik.toll.back.rubik.cube.Cube;
 import com.rubik.toll.back.rubik.cube.Face;
+import com.rubik.toll.back.rubik.solver.CubeAlgorithms;
 import com.rubik.toll.back.rubik.solver.LayerSolver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -45,8 +46,7 @@ public class TopCornersSolver extends LayerSolver {
             if (color == Face.LEFT.getColor()) {
                 rotateFace(Face.UP, true);
             } else if (color == Face.BACK.getColor()) {
-                rotateFace(Face.UP, true);
-                rotateFace(Face.UP, true);
+                rotateFace180(Face.UP);
             } else if (color == Face.RIGHT.getColor()) {
                 rotateFace(Face.UP, false);
             }
@@ -81,8 +81,7 @@ public class TopCornersSolver extends LayerSolver {
                 break;
             }
             case BACK: {
-                rotateFace(Face.UP, true);
-                rotateFace(Face.UP, true);
+                rotateFace180(Face.UP);
                 break;
             }
             case LEFT: {
@@ -94,22 +93,8 @@ public class TopCornersSolver extends LayerSolver {
     }
 
     private void executeCornerPermutationAlgorithm() {
-        // 使用单层旋转实现顶层角块置换
-        // RB'RF2 R'BRF2 R2
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.BACK, false);
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.FRONT, true);
-        rotateFace(Face.FRONT, true);
-
-        rotateFace(Face.RIGHT, false);
-        rotateFace(Face.BACK, true);
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.FRONT, true);
-        rotateFace(Face.FRONT, true);
-
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.RIGHT, true);
+        // 使用单层旋转实现顶层角块置换：R B' R F2 R' B R F2 R2
+        execute(CubeAlgorithms.CORNER_PERMUTATION);
     }
 
     @Override
@@ -2,6 +2,7 @@ package com.rubik.toll.back.rubik.solver.top;
 
 import com.rubik.toll.back.rubik.cube.Cube;
 import com.rubik.toll.back.rubik.cube.Face;
+import com.rubik.toll.back.rubik.solver.CubeAlgorithms;
 import com.rubik.toll.back.rubik.solver.LayerSolver;
 import com.rubik.toll.back.rubik.solver.middle.MiddleLayerSolver;
 import org.apache.logging.log4j.LogManager;
@@ -62,8 +63,7 @@ public class TopCrossSolver extends LayerSolver {
         }
         boolean rightDown = right && down;
         if (rightDown) {
-            rotateFace(Face.UP, false);
-            rotateFace(Face.UP, false);
+            rotateFace180(Face.UP);
             return true;
         }
         boolean rightUp = right && up;
@@ -81,12 +81,7 @@ public class TopCrossSolver extends LayerSolver {
 
     private void executeTopCross() {
         // F R U R' U' F'
-        rotateFace(Face.FRONT, true);
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.UP, true);
-        rotateFace(Face.RIGHT, false);
-        rotateFace(Face.UP, false);
-        rotateFace(Face.FRONT, false);
+        execute(CubeAlgorithms.TOP_CROSS);
 
         logger.debug("executeTopCrossAlgorithm: {}", cube);
     }
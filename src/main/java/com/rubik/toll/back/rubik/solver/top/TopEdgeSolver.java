@@ -2,6 +2,7 @@ package com.rubik.toll.back.rubik.solver.top;
 
 import com.rubik.toll.back.rubik.cube.Cube;
 import com.rubik.toll.back.rubik.cube.Face;
+import com.rubik.toll.back.rubik.solver.CubeAlgorithms;
 import com.rubik.toll.back.rubik.solver.LayerSolver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -57,19 +58,7 @@ public class TopEdgeSolver extends LayerSolver {
         }
 
         // 执行公式（上回上勾上勾上回）：R U' R U R U R U' 最后复原公式（下回下下）：R' U' R' R' https://halo.sherlocky.com/archives/magic-cube
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.UP, false);
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.UP, true);
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.UP, true);
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.UP, false);
-
-        rotateFace(Face.RIGHT, false);
-        rotateFace(Face.UP, false);
-        rotateFace(Face.RIGHT, false);
-        rotateFace(Face.RIGHT, false);
+        execute(CubeAlgorithms.EDGE_PERMUTATION);
 
         // 将魔方转回原来的方向
         for (int i = 0; i < (4 - rotations) % 4; i++) {
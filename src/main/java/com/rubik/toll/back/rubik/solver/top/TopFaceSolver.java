@@ -2,6 +2,7 @@ package com.rubik.toll.back.rubik.solver.top;
 
 import com.rubik.toll.back.rubik.cube.Cube;
 import com.rubik.toll.back.rubik.cube.Face;
+import com.rubik.toll.back.rubik.solver.CubeAlgorithms;
 import com.rubik.toll.back.rubik.solver.LayerSolver;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -70,16 +71,14 @@ public class TopFaceSolver extends LayerSolver {
                 return true;
             }
             if (cube.getColor(Face.BACK, 0, 0) == yellow) {
-                rotateFace(Face.UP, true);
-                rotateFace(Face.UP, true);
+                rotateFace180(Face.UP);
                 return false;
             }
         }
 
         if (cube.getColor(Face.UP, 0, 2) == yellow) {
             if (cube.getColor(Face.BACK, 0, 2) == yellow) {
-                rotateFace(Face.UP, false);
-                rotateFace(Face.UP, false);
+                rotateFace180(Face.UP);
                 return true;
             }
             if (cube.getColor(Face.RIGHT, 0, 0) == yellow) {
@@ -113,14 +112,7 @@ public class TopFaceSolver extends LayerSolver {
 
     private void leftHandAlgorithm() {
         // L' U' L U' L' U'2 L
-        rotateFace(Face.LEFT, false);
-        rotateFace(Face.UP, false);
-        rotateFace(Face.LEFT, true);
-        rotateFace(Face.UP, false);
-        rotateFace(Face.LEFT, false);
-        rotateFace(Face.UP, false);
-        rotateFace(Face.UP, false);
-        rotateFace(Face.LEFT, true);
+        execute(CubeAlgorithms.LEFT_HAND);
     }
 
     private int countYellowCornerOnTop() {
@@ -143,14 +135,7 @@ public class TopFaceSolver extends LayerSolver {
 
     private void rightHandAlgorithm() {
         // R U R' U R U2 R'
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.UP, true);
-        rotateFace(Face.RIGHT, false);
-        rotateFace(Face.UP, true);
-        rotateFace(Face.RIGHT, true);
-        rotateFace(Face.UP, true);
-        rotateFace(Face.UP, true);
-        rotateFace(Face.RIGHT, false);
+        execute(CubeAlgorithms.RIGHT_HAND);
     }
 
     @Override
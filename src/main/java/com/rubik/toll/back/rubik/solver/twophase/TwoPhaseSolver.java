@@ -0,0 +1,232 @@
+package com.rubik.toll.back.rubik.solver.twophase;
+
+import com.rubik.toll.back.puzzle.SolveTimeoutException;
+import com.rubik.toll.back.rubik.cube.Cube;
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import com.rubik.toll.back.rubik.cube.CubieCube;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Kociemba 两阶段算法
+ * <p>
+ * 第一阶段用全部18种转动，把魔方带入子群 G1 = &lt;U, D, F2, B2, L2, R2&gt;：所有块的朝向为0，中层棱块都在中层。
+ * 第二阶段只用这10种转动复原。两个阶段都是以剪枝表为下界的 IDA*，第一阶段按长度从短到长枚举解，
+ * 每得到一个就接着搜第二阶段，总长度不超过上限的第一个解即为结果。
+ * <p>
+ * 同一个面不连续转动，相对的两个面（U 和 D 等）连续转动时只按一种顺序搜索；
+ * 第一阶段的解若以第二阶段的转动结尾，去掉它是更短的第一阶段解，已经在前面枚举过，直接跳过。
+ * <p>
+ * 表是共享只读的，求解器本身保存搜索状态，不能被多个线程同时使用。
+ */
+public class TwoPhaseSolver {
+    private static final Logger logger = LogManager.getLogger(TwoPhaseSolver.class);
+    /**
+     * 默认的最大步数，随机状态平均几十毫秒内就能找到
+     */
+    public static final int DEFAULT_MAX_LENGTH = 21;
+    public static final long DEFAULT_TIME_LIMIT_MILLIS = 5000;
+    private static final CubeMove[] MOVES = CubeMove.values();
+    private static final int MOVE_COUNT = TwoPhaseTables.MOVES;
+    private static final int PHASE2_MOVE_COUNT = TwoPhaseTables.PHASE2_MOVES.length;
+    /**
+     * 第二阶段的最大步数：第二阶段很长的解往往说明第一阶段的解不好，继续枚举第一阶段比在这里深搜更快
+     */
+    static final int MAX_PHASE2_LENGTH = 12;
+    // 每隔这么多个节点检查一次时间
+    private static final int CHECK_INTERVAL = 0x3FFF;
+
+    private final TwoPhaseTables tables;
+    private int maxLength = DEFAULT_MAX_LENGTH;
+    private long timeLimitMillis = DEFAULT_TIME_LIMIT_MILLIS;
+
+    // 本次搜索的状态
+    private CubieCube start;
+    private final int[] solution = new int[32];
+    private int solutionLength;
+    private long deadline;
+    private long nodes;
+
+    public TwoPhaseSolver() {
+        this(TwoPhaseTables.getDefault());
+    }
+
+    public TwoPhaseSolver(TwoPhaseTables tables) {
+        if (tables == null) {
+            throw new IllegalArgumentException("两阶段算法的表不能为空");
+        }
+        this.tables = tables;
+    }
+
+    /**
+     * 解的最大步数（180度转动计一步），不能小于1或大于30
+     */
+    public void setMaxLength(int maxLength) {
+        if (maxLength < 1 || maxLength > 30) {
+            throw new IllegalArgumentException("最大步数必须在1到30之间");
+        }
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 单次求解的时间上限，超过后 {@link #solve(Cube)} 抛出 {@link SolveTimeoutException}
+     */
+    public void setTimeLimit(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("时间上限必须为正数");
+        }
+        this.timeLimitMillis = millis;
+    }
+
+    /**
+     * 求不超过最大步数的解，不修改 cube
+     *
+     * @return 转动序列，已复原时返回空数组
+     * @throws IllegalArgumentException 魔方状态无效或无法复原
+     * @throws SolveTimeoutException    超过时间上限仍未找到，或线程被中断
+     * @throws IllegalStateException    不存在不超过最大步数的解（最大步数设得比最短解还小时）
+     */
+    public CubeMove[] solve(Cube cube) {
+        CubieCube cubie = CubieCube.fromCube(cube);
+        if (!cubie.isSolvable()) {
+            throw new IllegalArgumentException("魔方状态无法复原");
+        }
+        long startTime = System.nanoTime();
+        start = cubie;
+        deadline = startTime + timeLimitMillis * 1_000_000;
+        nodes = 0;
+        int twist = cubie.getTwist();
+        int flip = cubie.getFlip();
+        int slice = cubie.getSlice();
+        for (int depth = phase1Bound(twist, flip, slice); depth <= maxLength; depth++) {
+            if (phase1(twist, flip, slice, 0, depth, -1)) {
+                CubeMove[] moves = new CubeMove[solutionLength];
+                for (int i = 0; i < solutionLength; i++) {
+                    moves[i] = MOVES[solution[i]];
+                }
+                logger.debug("两阶段算法：第一阶段{}步，共{}步，展开{}个节点，耗时{}ms", depth, solutionLength, nodes,
+                        (System.nanoTime() - startTime) / 1_000_000);
+                return moves;
+            }
+        }
+        throw new IllegalStateException("找不到不超过" + maxLength + "步的解");
+    }
+
+    private int phase1Bound(int twist, int flip, int slice) {
+        return Math.max(tables.twistFlipDepth[twist * CubieCube.FLIPS + flip],
+                Math.max(tables.sliceTwistDepth[slice * CubieCube.TWISTS + twist],
+                        tables.sliceFlipDepth[slice * CubieCube.FLIPS + flip]));
+    }
+
+    /**
+     * 第一阶段的深度优先搜索，恰好用 remaining 步进入 G1 时转入第二阶段
+     *
+     * @param lastFace 上一步转动的面，-1 表示没有
+     * @return 是否找到了完整的解
+     */
+    private boolean phase1(int twist, int flip, int slice, int depth, int remaining, int lastFace) {
+        if (remaining == 0) {
+            return twist == 0 && flip == 0 && slice == 0 && phase2(depth, lastFace);
+        }
+        checkTime();
+        if (phase1Bound(twist, flip, slice) > remaining) {
+            return false;
+        }
+        for (int move = 0; move < MOVE_COUNT; move++) {
+            int face = move / 3;
+            if (skipFace(face, lastFace)) {
+                move += 2;
+                continue;
+            }
+            solution[depth] = move;
+            if (phase1(tables.twistMove[twist * MOVE_COUNT + move], tables.flipMove[flip * MOVE_COUNT + move],
+                    tables.sliceMove[slice * MOVE_COUNT + move], depth + 1, remaining - 1, face)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 同一个面不连续转动；相对的两个面（面序号只差最低位）只允许序号小的在前
+     */
+    private static boolean skipFace(int face, int lastFace) {
+        return face == lastFace || (face == (lastFace ^ 1) && face < lastFace);
+    }
+
+    /**
+     * 从第一阶段的解出发搜索第二阶段，两段合计不超过最大步数
+     */
+    private boolean phase2(int depth1, int lastFace) {
+        if (depth1 > 0 && isPhase2Move(solution[depth1 - 1])) {
+            return false;
+        }
+        CubieCube cube = start.clone();
+        for (int i = 0; i < depth1; i++) {
+            cube.apply(MOVES[solution[i]]);
+        }
+        int corner = cube.getCornerPermutation();
+        int edge = cube.getUdEdgePermutation();
+        int slice = cube.getSlicePermutation();
+        int limit = Math.min(maxLength - depth1, MAX_PHASE2_LENGTH);
+        for (int depth2 = phase2Bound(corner, edge, slice); depth2 <= limit; depth2++) {
+            if (phase2(corner, edge, slice, depth1, depth2, lastFace)) {
+                solutionLength = depth1 + depth2;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPhase2Move(int move) {
+        int face = move / 3;
+        return face <= 1 || move % 3 == 2;
+    }
+
+    private int phase2Bound(int corner, int edge, int slice) {
+        return Math.max(tables.sliceCornerDepth[slice * CubieCube.CORNER_PERMUTATIONS + corner],
+                tables.sliceEdgeDepth[slice * CubieCube.UD_EDGE_PERMUTATIONS + edge]);
+    }
+
+    private boolean phase2(int corner, int edge, int slice, int depth, int remaining, int lastFace) {
+        if (remaining == 0) {
+            return corner == 0 && edge == 0 && slice == 0;
+        }
+        checkTime();
+        if (phase2Bound(corner, edge, slice) > remaining) {
+            return false;
+        }
+        for (int m = 0; m < PHASE2_MOVE_COUNT; m++) {
+            CubeMove move = TwoPhaseTables.PHASE2_MOVES[m];
+            int face = move.getFace().ordinal();
+            if (skipFace(face, lastFace)) {
+                continue;
+            }
+            solution[depth] = move.ordinal();
+            if (phase2(tables.cornerPermutationMove[corner * PHASE2_MOVE_COUNT + m],
+                    tables.udEdgePermutationMove[edge * PHASE2_MOVE_COUNT + m],
+                    tables.slicePermutationMove[slice * PHASE2_MOVE_COUNT + m], depth + 1, remaining - 1, face)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkTime() {
+        if ((++nodes & CHECK_INTERVAL) == 0) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new SolveTimeoutException("两阶段算法超过时间上限仍未找到不超过" + maxLength + "步的解");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new SolveTimeoutException("求解线程被中断");
+            }
+        }
+    }
+
+    /**
+     * 最近一次求解展开的节点数
+     */
+    public long getExpandedNodes() {
+        return nodes;
+    }
+}
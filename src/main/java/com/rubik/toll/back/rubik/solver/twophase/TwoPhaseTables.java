@@ -0,0 +1,326 @@
+package com.rubik.toll.back.rubik.solver.twophase;
+
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import com.rubik.toll.back.rubik.cube.CubieCube;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * 两阶段算法的坐标转动表和剪枝表，生成之后只读，可以被多个求解器共享
+ * <p>
+ * 转动表：每个坐标值在每种转动之后的坐标值。第一阶段的角块朝向、棱块朝向、中层棱块位置三个坐标对18种转动建表；
+ * 第二阶段的角块排列、上下层棱块排列、中层棱块排列三个坐标只对第二阶段允许的10种转动
+ * （U、D 的所有转动和 F2、B2、L2、R2）建表。
+ * <p>
+ * 剪枝表：两个坐标组合在一起、从复原状态广度优先得到的最少步数，每项一个字节，作为 IDA* 的下界。
+ * 第一阶段用（中层位置，角块朝向）、（中层位置，棱块朝向）和（角块朝向，棱块朝向），第二阶段用（中层排列，角块排列）和（中层排列，上下层棱块排列）。
+ * <p>
+ * 全部表约11MB，单核上生成需要2到3秒。{@link #getDefault()} 第一次调用时从磁盘缓存读取，没有缓存时生成并写入，
+ * 缓存文件的位置由系统属性 {@value #PATH_PROPERTY} 指定，默认在当前用户主目录的 .rubik 目录下。
+ * 文件头记录格式版本和内容的 CRC32，版本不符或校验失败时视为没有缓存，重新生成。
+ */
+public final class TwoPhaseTables {
+    private static final Logger logger = LogManager.getLogger(TwoPhaseTables.class);
+    static final int MAGIC = 0x4B545054; // "KTPT"
+    /**
+     * 文件格式版本，表的种类或编码改变时加一，旧版本的缓存文件会被重新生成
+     */
+    static final int VERSION = 2;
+    // 魔数、版本、CRC32
+    private static final int HEADER_SIZE = 12;
+    public static final String PATH_PROPERTY = "rubik.twophase.tables";
+
+    static final int MOVES = CubeMove.values().length;
+    /**
+     * 第二阶段允许的转动
+     */
+    static final CubeMove[] PHASE2_MOVES = {
+            CubeMove.U, CubeMove.U_PRIME, CubeMove.U2, CubeMove.D, CubeMove.D_PRIME, CubeMove.D2,
+            CubeMove.F2, CubeMove.B2, CubeMove.L2, CubeMove.R2
+    };
+
+    // 转动表，下标为 坐标 * 转动数 + 转动
+    final char[] twistMove;
+    final char[] flipMove;
+    final char[] sliceMove;
+    final char[] cornerPermutationMove;
+    final char[] udEdgePermutationMove;
+    final char[] slicePermutationMove;
+
+    // 剪枝表
+    final byte[] sliceTwistDepth;
+    final byte[] sliceFlipDepth;
+    final byte[] twistFlipDepth;
+    final byte[] sliceCornerDepth;
+    final byte[] sliceEdgeDepth;
+
+    private TwoPhaseTables(char[][] moveTables, byte[][] depthTables) {
+        twistMove = moveTables[0];
+        flipMove = moveTables[1];
+        sliceMove = moveTables[2];
+        cornerPermutationMove = moveTables[3];
+        udEdgePermutationMove = moveTables[4];
+        slicePermutationMove = moveTables[5];
+        sliceTwistDepth = depthTables[0];
+        sliceFlipDepth = depthTables[1];
+        twistFlipDepth = depthTables[2];
+        sliceCornerDepth = depthTables[3];
+        sliceEdgeDepth = depthTables[4];
+    }
+
+    private static final class DefaultHolder {
+        static final TwoPhaseTables TABLES = loadOrGenerate(defaultPath());
+    }
+
+    /**
+     * 进程内共享的一份表，第一次调用时从磁盘缓存读取或生成
+     */
+    public static TwoPhaseTables getDefault() {
+        return DefaultHolder.TABLES;
+    }
+
+    static Path defaultPath() {
+        String path = System.getProperty(PATH_PROPERTY);
+        if (path != null) {
+            return Path.of(path);
+        }
+        return Path.of(System.getProperty("user.home"), ".rubik", "twophase-v" + VERSION + ".tables");
+    }
+
+    /**
+     * 读取缓存文件，不存在或已损坏时重新生成并写入；写入失败不影响使用
+     */
+    static TwoPhaseTables loadOrGenerate(Path file) {
+        if (Files.exists(file)) {
+            try {
+                return load(file);
+            } catch (IOException e) {
+                logger.warn("两阶段算法的表缓存无法读取，重新生成：{}", e.getMessage());
+            }
+        }
+        long start = System.nanoTime();
+        TwoPhaseTables tables = generate();
+        logger.info("两阶段算法的表已生成，耗时{}ms", (System.nanoTime() - start) / 1_000_000);
+        try {
+            tables.save(file);
+        } catch (IOException e) {
+            logger.warn("两阶段算法的表缓存无法写入{}：{}", file, e.getMessage());
+        }
+        return tables;
+    }
+
+    /**
+     * 生成全部转动表和剪枝表
+     */
+    public static TwoPhaseTables generate() {
+        CubeMove[] all = CubeMove.values();
+        char[] twistMove = moveTable(CubieCube.TWISTS, all, CubieCube::setTwist, CubieCube::getTwist);
+        char[] flipMove = moveTable(CubieCube.FLIPS, all, CubieCube::setFlip, CubieCube::getFlip);
+        char[] sliceMove = moveTable(CubieCube.SLICES, all, CubieCube::setSlice, CubieCube::getSlice);
+        char[] cornerMove = moveTable(CubieCube.CORNER_PERMUTATIONS, PHASE2_MOVES,
+                CubieCube::setCornerPermutation, CubieCube::getCornerPermutation);
+        char[] edgeMove = moveTable(CubieCube.UD_EDGE_PERMUTATIONS, PHASE2_MOVES,
+                CubieCube::setUdEdgePermutation, CubieCube::getUdEdgePermutation);
+        char[] slicePermutationMove = moveTable(CubieCube.SLICE_PERMUTATIONS, PHASE2_MOVES,
+                CubieCube::setSlicePermutation, CubieCube::getSlicePermutation);
+
+        byte[][] depthTables = {
+                depthTable(sliceMove, CubieCube.SLICES, twistMove, CubieCube.TWISTS, MOVES),
+                depthTable(sliceMove, CubieCube.SLICES, flipMove, CubieCube.FLIPS, MOVES),
+                depthTable(twistMove, CubieCube.TWISTS, flipMove, CubieCube.FLIPS, MOVES),
+                depthTable(slicePermutationMove, CubieCube.SLICE_PERMUTATIONS,
+                        cornerMove, CubieCube.CORNER_PERMUTATIONS, PHASE2_MOVES.length),
+                depthTable(slicePermutationMove, CubieCube.SLICE_PERMUTATIONS,
+                        edgeMove, CubieCube.UD_EDGE_PERMUTATIONS, PHASE2_MOVES.length),
+        };
+        return new TwoPhaseTables(new char[][]{twistMove, flipMove, sliceMove, cornerMove, edgeMove,
+                slicePermutationMove}, depthTables);
+    }
+
+    private interface Setter {
+        void set(CubieCube cube, int coordinate);
+    }
+
+    private interface Getter {
+        int get(CubieCube cube);
+    }
+
+    /**
+     * 对每个坐标值构造一个块状态，执行每种转动后读出新的坐标值
+     */
+    private static char[] moveTable(int size, CubeMove[] moves, Setter setter, Getter getter) {
+        char[] table = new char[size * moves.length];
+        CubieCube cube = new CubieCube();
+        for (int coordinate = 0; coordinate < size; coordinate++) {
+            setter.set(cube, coordinate);
+            for (int m = 0; m < moves.length; m++) {
+                CubieCube moved = cube.clone();
+                moved.apply(moves[m]);
+                table[coordinate * moves.length + m] = (char) getter.get(moved);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 两个坐标组合 a * sizeB + b 的最少步数，逐层扫描整张表展开上一层的状态
+     */
+    private static byte[] depthTable(char[] moveA, int sizeA, char[] moveB, int sizeB, int moves) {
+        byte[] depth = new byte[sizeA * sizeB];
+        Arrays.fill(depth, (byte) -1);
+        depth[0] = 0;
+        int filled = 1;
+        for (int d = 0; filled < depth.length; d++) {
+            for (int index = 0; index < depth.length; index++) {
+                if (depth[index] != d) {
+                    continue;
+                }
+                int a = index / sizeB;
+                int b = index % sizeB;
+                for (int m = 0; m < moves; m++) {
+                    int next = moveA[a * moves + m] * sizeB + moveB[b * moves + m];
+                    if (depth[next] < 0) {
+                        depth[next] = (byte) (d + 1);
+                        filled++;
+                    }
+                }
+            }
+        }
+        return depth;
+    }
+
+    private char[][] moveTables() {
+        return new char[][]{twistMove, flipMove, sliceMove, cornerPermutationMove, udEdgePermutationMove,
+                slicePermutationMove};
+    }
+
+    private byte[][] depthTables() {
+        return new byte[][]{sliceTwistDepth, sliceFlipDepth, twistFlipDepth, sliceCornerDepth, sliceEdgeDepth};
+    }
+
+    /**
+     * 写入磁盘：文件头是魔数、版本和其后内容的 CRC32，之后依次是各转动表（大端 char）和各剪枝表。
+     * 先写临时文件再改名，并发写入时不会留下半个文件
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(fileSize()).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(0);
+        for (char[] table : moveTables()) {
+            buffer.asCharBuffer().put(table);
+            buffer.position(buffer.position() + 2 * table.length);
+        }
+        for (byte[] table : depthTables()) {
+            buffer.put(table);
+        }
+        buffer.putInt(8, checksum(buffer));
+        buffer.flip();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * 读取 {@link #save(Path)} 写入的文件
+     *
+     * @throws IOException 文件无法读取、不是表文件、版本不符、大小不符或校验失败
+     */
+    public static TwoPhaseTables load(Path file) throws IOException {
+        TwoPhaseTables empty = empty();
+        ByteBuffer buffer = ByteBuffer.allocate(empty.fileSize()).order(ByteOrder.BIG_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("不是两阶段算法的表文件：" + file);
+            }
+            if (channel.size() != empty.fileSize()) {
+                throw new IOException("两阶段算法的表文件大小不符：" + file);
+            }
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("两阶段算法的表文件不完整：" + file);
+                }
+            }
+        }
+        buffer.flip();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("不是两阶段算法的表文件：" + file);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("两阶段算法的表文件版本为" + version + "，需要" + VERSION + "：" + file);
+        }
+        if (buffer.getInt() != checksum(buffer)) {
+            throw new IOException("两阶段算法的表文件校验失败：" + file);
+        }
+        for (char[] table : empty.moveTables()) {
+            buffer.asCharBuffer().get(table);
+            buffer.position(buffer.position() + 2 * table.length);
+        }
+        for (byte[] table : empty.depthTables()) {
+            buffer.get(table);
+        }
+        return empty;
+    }
+
+    /**
+     * 文件头之后全部内容的 CRC32，不改变 buffer 的位置
+     */
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        ByteBuffer content = buffer.duplicate();
+        content.position(HEADER_SIZE).limit(buffer.capacity());
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 各表大小正确、内容为空的实例，供读取时填充
+     */
+    private static TwoPhaseTables empty() {
+        return new TwoPhaseTables(new char[][]{
+                new char[CubieCube.TWISTS * MOVES],
+                new char[CubieCube.FLIPS * MOVES],
+                new char[CubieCube.SLICES * MOVES],
+                new char[CubieCube.CORNER_PERMUTATIONS * PHASE2_MOVES.length],
+                new char[CubieCube.UD_EDGE_PERMUTATIONS * PHASE2_MOVES.length],
+                new char[CubieCube.SLICE_PERMUTATIONS * PHASE2_MOVES.length],
+        }, new byte[][]{
+                new byte[CubieCube.SLICES * CubieCube.TWISTS],
+                new byte[CubieCube.SLICES * CubieCube.FLIPS],
+                new byte[CubieCube.TWISTS * CubieCube.FLIPS],
+                new byte[CubieCube.SLICE_PERMUTATIONS * CubieCube.CORNER_PERMUTATIONS],
+                new byte[CubieCube.SLICE_PERMUTATIONS * CubieCube.UD_EDGE_PERMUTATIONS],
+        });
+    }
+
+    private int fileSize() {
+        int size = HEADER_SIZE;
+        for (char[] table : moveTables()) {
+            size += 2 * table.length;
+        }
+        for (byte[] table : depthTables()) {
+            size += table.length;
+        }
+        return size;
+    }
+}
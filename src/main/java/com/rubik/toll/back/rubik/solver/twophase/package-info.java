@@ -0,0 +1,22 @@
+/**
+ * 魔方两阶段算法包（Kociemba 算法），与层先法并列的另一种求解方式，得到的解通常不超过21步：
+ *
+ * <h2>1. 坐标与表（TwoPhaseTables）</h2>
+ * 把块状态（CubieCube）压缩成几个整数坐标，对每个坐标预先算好转动表和剪枝表：
+ * <ul>
+ *   <li>第一阶段：角块朝向（2187）、棱块朝向（2048）、中层棱块的位置（495）</li>
+ *   <li>第二阶段：角块排列（40320）、上下层棱块排列（40320）、中层棱块排列（24）</li>
+ *   <li>剪枝表是两个坐标组合后的最少步数，搜索时取最大值作为下界</li>
+ *   <li>表只读共享，第一次使用时从磁盘缓存读取，没有缓存时生成并写入</li>
+ * </ul>
+ *
+ * <h2>2. 搜索（TwoPhaseSolver）</h2>
+ * <ul>
+ *   <li>第一阶段用18种转动进入子群 &lt;U, D, F2, B2, L2, R2&gt;，所有朝向为0、中层棱块在中层</li>
+ *   <li>第二阶段只用这10种转动复原</li>
+ *   <li>第一阶段按长度从短到长枚举解，每个解都尝试接上第二阶段，直到总长度不超过上限</li>
+ * </ul>
+ *
+ * 转动序列由调用方执行到 Cube 上，求解本身不修改魔方。
+ */
+package com.rubik.toll.back.rubik.solver.twophase;
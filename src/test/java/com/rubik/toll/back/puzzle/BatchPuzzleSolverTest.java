@@ -0,0 +1,119 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchPuzzleSolverTest {
+
+    @Test
+    void testSolveAll() {
+        List<Board> boards = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Board board = i % 2 == 0 ? new Board(5) : new Board(3, 5);
+            new PuzzleShuffler(board).shuffle(500);
+            boards.add(board);
+        }
+        boards.add(new Board(new int[]{2, 1, 3, 4, 5, 6, 7, 8, 0}));
+        List<int[]> originals = new ArrayList<>();
+        for (Board board : boards) {
+            originals.add(board.getTiles().clone());
+        }
+
+        List<PuzzleSolveResult> results;
+        try (BatchPuzzleSolver batch = new BatchPuzzleSolver()) {
+            results = batch.solveAll(boards, Duration.ofSeconds(30));
+        }
+
+        assertEquals(boards.size(), results.size());
+        for (int i = 0; i < boards.size(); i++) {
+            PuzzleSolveResult result = results.get(i);
+            assertEquals(i, result.index(), "结果应该与输入一一对应");
+            assertArrayEquals(originals.get(i), boards.get(i).getTiles(), "输入的棋盘不应该被修改");
+            if (i == boards.size() - 1) {
+                assertEquals(PuzzleSolveResult.Status.UNSOLVABLE, result.status());
+                assertFalse(result.isSolvable());
+                assertEquals(-1, result.length());
+                continue;
+            }
+            assertEquals(PuzzleSolveResult.Status.SOLVED, result.status());
+            Board replay = boards.get(i).clone();
+            new BoardOperator(replay).doOperations(result.moves().toArray());
+            assertTrue(replay.isSolved(), "第" + i + "个棋盘的解应该能复原棋盘");
+        }
+    }
+
+    @Test
+    void testDeadline() {
+        // 5x5 随机局面用 IDA* 最优求解远远超过 50ms
+        Board board = new Board(5);
+        new PuzzleShuffler(board).shuffle(10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (BatchPuzzleSolver batch = new BatchPuzzleSolver(executor, SolveMode.OPTIMAL, 4)) {
+            long start = System.nanoTime();
+            PuzzleSolveResult result = batch.submit(0, board, Duration.ofMillis(50)).join();
+            assertEquals(PuzzleSolveResult.Status.TIMED_OUT, result.status());
+            assertInstanceOf(SolveTimeoutException.class, result.error());
+            assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos(), "超时的任务应该很快停下");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSolveAllValidatesBeforeSubmitting() {
+        List<Board> boards = new ArrayList<>();
+        boards.add(new Board(3));
+        boards.add(null);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        try (BatchPuzzleSolver batch = new BatchPuzzleSolver(executor, SolveMode.DIVIDE_AND_CONQUER, 1)) {
+            assertThrows(IllegalArgumentException.class, () -> batch.solveAll(boards, null));
+            assertThrows(IllegalArgumentException.class, () -> batch.solveAll(null, null));
+            assertEquals(0, executor.getTaskCount(), "输入有误时不应提交任何任务");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSolveAllRejectedByExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        executor.shutdown();
+        try (BatchPuzzleSolver batch = new BatchPuzzleSolver(executor, SolveMode.DIVIDE_AND_CONQUER, 1)) {
+            List<Board> boards = List.of(new Board(3), new Board(3));
+            assertThrows(RejectedExecutionException.class, () -> batch.solveAll(boards, null));
+        }
+    }
+
+    @Test
+    void testContextPoolIsBounded() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            BatchPuzzleSolver batch = new BatchPuzzleSolver(executor, SolveMode.DIVIDE_AND_CONQUER, 2);
+            // submit 不受 maxInFlight 限制，同时执行的任务可能多于2个
+            List<CompletableFuture<PuzzleSolveResult>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                Board board = new Board(6);
+                new PuzzleShuffler(board, i).randomize();
+                futures.add(batch.submit(i, board, null));
+            }
+            for (CompletableFuture<PuzzleSolveResult> future : futures) {
+                assertEquals(PuzzleSolveResult.Status.SOLVED, future.join().status());
+            }
+            assertTrue(batch.pooledContexts() <= 2, "每种尺寸最多保留 maxInFlight 份缓冲区");
+            batch.close();
+            assertEquals(0, batch.pooledContexts(), "关闭后应该释放缓冲区");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EightPuzzleTableTest {
+
+    @Test
+    void testGoalDistance() {
+        assertEquals(0, EightPuzzleTable.distance(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 0}), "目标状态距离为0");
+        assertEquals(2, EightPuzzleTable.distance(new int[]{1, 2, 3, 4, 5, 6, 0, 7, 8}), "两步可达");
+    }
+
+    @Test
+    void testHardestState() {
+        // 3x3 最远的状态需要31步
+        int[] tiles = {8, 6, 7, 2, 5, 4, 3, 0, 1};
+        assertEquals(31, EightPuzzleTable.distance(tiles));
+        int[] operations = EightPuzzleTable.solve(tiles);
+        assertEquals(31, operations.length, "查表得到的解应该是最短解");
+
+        Board board = new Board(tiles);
+        BoardOperator operator = new BoardOperator(board.getTiles(), 3, 3);
+        operator.doOperations(operations);
+        assertTrue(board.isSolved(), "按查表结果移动后棋盘应该复原");
+    }
+
+    @Test
+    void testIndexIsPerfectHash() {
+        // 从目标状态随机游走，所有下标都应在表范围内且与距离一致
+        Board board = new Board(3);
+        PuzzleShuffler shuffler = new PuzzleShuffler(board);
+        for (int i = 0; i < 200; i++) {
+            int[] tiles = shuffler.shuffle(7);
+            int index = EightPuzzleTable.index(PackedBoard.pack(tiles));
+            assertTrue(index >= 0 && index < EightPuzzleTable.STATES, "下标应在表范围内");
+            assertEquals(EightPuzzleTable.distance(tiles), EightPuzzleTable.solve(tiles).length);
+        }
+    }
+
+    @Test
+    void testSolverUsesTable() {
+        int[] tiles = {5, 7, 3, 4, 8, 6, 1, 0, 2};
+        Board board = new Board(tiles);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve());
+        assertTrue(board.isSolved());
+        assertEquals(EightPuzzleTable.distance(tiles), solver.getMoveHistory().length(), "3x3应该直接得到最短解");
+    }
+}
@@ -0,0 +1,57 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveLogTest {
+
+    @Test
+    void testAppendAndGet() {
+        MoveLog log = new MoveLog();
+        int moves = 10_000;
+        for (int i = 0; i < moves; i++) {
+            log.append(i * 7 % 4);
+        }
+        assertEquals(moves, log.size());
+        for (int i = 0; i < moves; i++) {
+            assertEquals(i * 7 % 4, log.get(i), "第" + i + "步方向应该一致");
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(moves));
+    }
+
+    @Test
+    void testText() {
+        MoveLog log = new MoveLog();
+        for (int direction : new int[]{0, 0, 0, 2, 1, 1}) {
+            log.append(direction);
+        }
+        assertEquals("右右右上左左", log.toString());
+        assertEquals("右3上左2", log.toRunLengthString());
+    }
+
+    @Test
+    void testRemoveLastAndClear() {
+        MoveLog log = new MoveLog();
+        log.append(3);
+        log.append(2);
+        log.removeLast();
+        log.append(1);
+        assertEquals("下左", log.toString());
+        log.clear();
+        assertTrue(log.isEmpty());
+        log.append(0);
+        assertEquals("右", log.toString(), "清空后不应残留旧数据");
+    }
+
+    @Test
+    void testNoMoveLimit() {
+        // 原先超过100000步会终止，现在应该可以正常求解
+        Board board = new Board(40);
+        new PuzzleShuffler(board).shuffle(2_000_000);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve());
+        assertTrue(board.isSolved(), "大棋盘应该可以复原");
+        assertTrue(solver.getMoveLog().size() > 100_000, "大棋盘的步数应该超过原先的上限");
+    }
+}
@@ -0,0 +1,53 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveSequenceOptimizerTest {
+
+    @Test
+    void testCancelInversePairs() {
+        // 右左、上下两两抵消，剩下的“下”与前面的“上”也抵消
+        int[] optimized = MoveSequenceOptimizer.optimize(new int[]{2, 0, 1, 3, 2, 3, 3});
+        assertArrayEquals(new int[]{3}, optimized);
+    }
+
+    @Test
+    void testRewriteDoubleLoop() {
+        // 空格沿2x2方块反向绕两圈，等价于正向绕一圈
+        int[] loop = {0, 2, 1, 3};
+        int[] reversed = {2, 0, 3, 1, 2, 0, 3, 1};
+        int[] optimized = MoveSequenceOptimizer.optimize(reversed);
+        assertEquals(loop.length, optimized.length, "反向绕两圈应该缩短为4步");
+        assertArrayEquals(apply(reversed), apply(optimized), "优化前后的棋盘应该相同");
+    }
+
+    @Test
+    void testSolverHistoryStillSolves() {
+        for (int size = 4; size <= 8; size++) {
+            Board board = new Board(size);
+            new PuzzleShuffler(board).shuffle(size * size * 100);
+            int[] initial = board.getTiles().clone();
+
+            NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+            assertTrue(solver.solve());
+            assertTrue(solver.getMoveLog().size() <= solver.getRawMoveLog().size(), "优化后的步数不应该变多");
+
+            new BoardOperator(initial, size, size).doOperations(solver.getMoveLog().toArray());
+            assertTrue(new Board(initial, size, size).isSolved(), size + "x" + size + "：优化后的移动序列应该同样复原棋盘");
+        }
+    }
+
+    /**
+     * 在空格位于中心的5x5棋盘上执行操作序列
+     */
+    private static int[] apply(int[] operations) {
+        int[] tiles = new int[25];
+        for (int i = 0; i < 25; i++) {
+            tiles[i] = i == 12 ? 0 : (i < 12 ? i + 1 : i);
+        }
+        new BoardOperator(tiles, 5, 5).doOperations(operations);
+        return tiles;
+    }
+}
@@ -0,0 +1,113 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveStreamingTest {
+
+    @Test
+    void testSolveWithSink() {
+        Board board = new Board(20, 15);
+        new PuzzleShuffler(board).shuffle(20_000);
+        Board replay = board.clone();
+
+        List<Integer> moves = new ArrayList<>();
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve(SolveMode.DIVIDE_AND_CONQUER, moves::add));
+        assertTrue(board.isSolved());
+        assertTrue(solver.getMoveLog().isEmpty(), "流式求解不应该保留移动记录");
+
+        BoardOperator operator = new BoardOperator(replay);
+        operator.doOperations(moves.stream().mapToInt(Integer::intValue).toArray());
+        assertTrue(replay.isSolved(), "逐步输出的移动应该能复原棋盘");
+    }
+
+    @Test
+    void testStreamMatchesBatchOptimizer() {
+        // 短序列全部保留在流中，结果应与整体优化完全一致
+        int[] ops = {2, 0, 3, 1, 2, 0, 3, 1, 0, 1, 1, 2, 3, 3, 0};
+        List<Integer> streamed = new ArrayList<>();
+        MoveSequenceOptimizer.MoveStream stream = MoveSequenceOptimizer.stream(streamed::add);
+        for (int op : ops) {
+            stream.accept(op);
+        }
+        assertTrue(streamed.isEmpty(), "结束前不应该输出仍可能被改写的移动");
+        stream.flush();
+        assertArrayEquals(MoveSequenceOptimizer.optimize(ops), streamed.stream().mapToInt(Integer::intValue).toArray());
+        assertEquals(streamed.size(), stream.getEmitted());
+    }
+
+    @Test
+    void testPublisher() throws Exception {
+        Board board = new Board(8);
+        new PuzzleShuffler(board).shuffle(5_000);
+        Board replay = board.clone();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+            Flow.Publisher<int[]> publisher = solver.publish(SolveMode.DIVIDE_AND_CONQUER, executor);
+            CollectingSubscriber subscriber = new CollectingSubscriber();
+            publisher.subscribe(subscriber);
+            subscriber.done.get(30, TimeUnit.SECONDS);
+
+            new BoardOperator(replay).doOperations(subscriber.moves.stream().mapToInt(Integer::intValue).toArray());
+            assertTrue(replay.isSolved(), "发布的移动应该能复原棋盘");
+
+            CollectingSubscriber second = new CollectingSubscriber();
+            publisher.subscribe(second);
+            Exception e = assertThrows(Exception.class, () -> second.done.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause(), "第二个订阅者应该收到错误");
+
+            CollectingSubscriber unsolvable = new CollectingSubscriber();
+            new NumberPuzzleSolver(new Board(new int[]{2, 1, 3, 4, 5, 6, 7, 8, 0}))
+                    .publish(SolveMode.DIVIDE_AND_CONQUER, executor).subscribe(unsolvable);
+            e = assertThrows(Exception.class, () -> unsolvable.done.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause(), "无解的棋盘应该以错误结束");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 每次只请求一段，模拟处理较慢的订阅者
+     */
+    private static final class CollectingSubscriber implements Flow.Subscriber<int[]> {
+        final List<Integer> moves = new ArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(int[] chunk) {
+            for (int direction : chunk) {
+                moves.add(direction);
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.rubik.toll.back.puzzle;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -99,4 +100,84 @@ public class NumberPuzzleSolverTest {
         NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
         assertTrue(solver.solve(), "11x11方阵应该可以求解");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testOptimal3x3Puzzle() {
+        // 8-puzzle 最难的局面之一，最优解为31步
+        int[] tiles = {8, 6, 7, 2, 5, 4, 3, 0, 1};
+        Board board = new Board(tiles);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve(SolveMode.OPTIMAL), "3x3方阵应该可以最优求解");
+        assertTrue(board.isSolved(), "求解后棋盘应该复原");
+        assertEquals(31, solver.getMoveHistory().length(), "最优解应该是31步");
+    }
+
+    @Test
+    void testOptimal4x4Puzzle() {
+        int[] tiles = {1, 2, 3, 4, 5, 6, 7, 0, 9, 10, 11, 8, 13, 14, 15, 12};
+        Board board = new Board(tiles);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve(SolveMode.OPTIMAL), "4x4方阵应该可以最优求解");
+        assertTrue(board.isSolved(), "求解后棋盘应该复原");
+        assertEquals("上上", solver.getMoveHistory(), "最优解应该是两次上移");
+    }
+
+    @Test
+    void testOptimalUnsolvableCase() {
+        int[] tiles = {2, 1, 3, 4, 5, 6, 7, 8, 0};
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(new Board(tiles));
+        assertFalse(solver.solve(SolveMode.OPTIMAL), "无解情况应该返回false");
+    }
+
+    @Test
+    void testRectangularPuzzles() {
+        int[][] sizes = {{3, 5}, {4, 6}, {5, 3}, {2, 4}, {6, 2}, {7, 10}};
+        for (int[] size : sizes) {
+            Board board = new Board(size[0], size[1]);
+            new PuzzleShuffler(board).shuffle(2000);
+            NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+            assertTrue(solver.solve(), size[0] + "x" + size[1] + "应该可以求解");
+            assertTrue(board.isSolved(), size[0] + "x" + size[1] + "求解后棋盘应该复原");
+        }
+    }
+
+    @Test
+    void testOptimalRectangularPuzzle() {
+        // 3x5，空格在左上角，其余数字整体后移一格
+        int[] tiles = {0, 1, 2, 3, 4, 6, 7, 8, 9, 5, 11, 12, 13, 14, 10};
+        Board board = new Board(tiles, 3, 5);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve(SolveMode.OPTIMAL), "3x5应该可以最优求解");
+        assertTrue(board.isSolved(), "求解后棋盘应该复原");
+    }
+
+    @Test
+    void testRectangularUnsolvableCase() {
+        int[] tiles = {2, 1, 3, 4, 5, 6, 7, 8, 9, 10, 11, 0};
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(new Board(tiles, 3, 4));
+        assertFalse(solver.solve(), "无解情况应该返回false");
+    }
+
+    @Test
+    void testRectangularBoard() {
+        int[][] tiles2D = {
+            {1, 2, 3, 4, 5},
+            {6, 7, 8, 9, 10},
+            {11, 12, 13, 0, 14}
+        };
+        Board board = new Board(tiles2D);
+        assertEquals(3, board.getRows());
+        assertEquals(5, board.getCols());
+        assertEquals(13, board.getEmptyIndex());
+        assertEquals(14, board.getTile(2, 4));
+        assertThrows(IllegalStateException.class, board::getSize);
+        assertThrows(IllegalArgumentException.class, () -> new Board(new int[]{1, 2, 3, 0, 4}, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> new Board(new int[]{1, 2, 3, 0, 4, 5}));
+
+        board.move(14);
+        assertTrue(board.isSolved(), "移动后应该复原");
+        Board copy = board.clone();
+        copy.move(13);
+        assertFalse(board.equals(copy), "复制出的棋盘不应该与原棋盘共用数组");
+    }
+}
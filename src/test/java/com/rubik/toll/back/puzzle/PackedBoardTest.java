@@ -0,0 +1,66 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBoardTest {
+
+    @Test
+    void testPackAndUnpack() {
+        int[] tiles = {5, 7, 3, 4, 8, 6, 1, 0, 2};
+        long state = PackedBoard.pack(new Board(tiles));
+        assertArrayEquals(tiles, PackedBoard.toArray(state, 9), "压缩后再解压应该得到原棋盘");
+        assertArrayEquals(new Board(tiles).getTiles(), PackedBoard.unpack(state, 3).getTiles());
+    }
+
+    @Test
+    void testGoalState() {
+        assertEquals(PackedBoard.pack(new Board(4)), PackedBoard.goal(16), "4x4目标状态应该一致");
+        assertEquals(PackedBoard.pack(new Board(3)), PackedBoard.goal(9), "3x3目标状态应该一致");
+    }
+
+    @Test
+    void testEmptyIndex() {
+        for (int empty = 0; empty < 16; empty++) {
+            int[] tiles = new int[16];
+            int value = 1;
+            for (int k = 0; k < 16; k++) {
+                tiles[k] = k == empty ? 0 : value++;
+            }
+            assertEquals(empty, PackedBoard.emptyIndex(PackedBoard.pack(tiles), 16), "空格位置应该是" + empty);
+        }
+        assertEquals(7, PackedBoard.emptyIndex(PackedBoard.pack(new int[]{5, 7, 3, 4, 8, 6, 1, 0, 2}), 9));
+    }
+
+    @Test
+    void testSlideMatchesBoardMove() {
+        Board board = new Board(4);
+        long state = PackedBoard.pack(board);
+        int empty = 15;
+        // 空格依次向上、左、左、下、右移动
+        int[] directions = {2, 1, 1, 3, 0};
+        for (int direction : directions) {
+            int target = PackedBoard.neighbor(empty, direction, 4, 4);
+            assertTrue(target >= 0, "移动不应越界");
+            board.move(target);
+            state = PackedBoard.slide(state, empty, target);
+            empty = target;
+            assertEquals(PackedBoard.pack(board), state, "压缩表示的移动应该与Board.move一致");
+            assertEquals(empty, PackedBoard.emptyIndex(state, 16));
+        }
+    }
+
+    @Test
+    void testNeighborOutOfBounds() {
+        assertEquals(-1, PackedBoard.neighbor(3, 0, 4, 4), "最右列不能再向右");
+        assertEquals(-1, PackedBoard.neighbor(4, 1, 4, 4), "最左列不能再向左");
+        assertEquals(-1, PackedBoard.neighbor(2, 2, 4, 4), "第一行不能再向上");
+        assertEquals(-1, PackedBoard.neighbor(13, 3, 4, 4), "最后一行不能再向下");
+    }
+
+    @Test
+    void testTooLargeBoard() {
+        assertThrows(IllegalArgumentException.class, () -> PackedBoard.pack(new Board(5)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelIdaStarSolverTest {
+
+    @Test
+    void testSameLengthAsSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long seed = 1; seed <= 5; seed++) {
+                Board board = new Board(4);
+                new PuzzleShuffler(board, seed).shuffle(40);
+                int[] tiles = board.getTiles();
+
+                int[] sequential = new IdaStarSolver(4, 4, new ManhattanLinearConflict(4, 4)).solve(tiles);
+                int[] parallel = new ParallelIdaStarSolver(4, 4, new ManhattanLinearConflict(4, 4), pool).solve(tiles);
+                assertEquals(sequential.length, parallel.length, "并行搜索应该同样得到最短解");
+
+                new BoardOperator(board).doOperations(parallel);
+                assertTrue(board.isSolved(), "并行搜索的解应该复原棋盘");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testHardest3x3() {
+        // 8-puzzle 最难的局面之一，最优解为31步
+        int[] tiles = {8, 6, 7, 2, 5, 4, 3, 0, 1};
+        for (int threads : new int[]{1, 2, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                int[] operations = new ParallelIdaStarSolver(3, 3, new ManhattanLinearConflict(3, 3), pool)
+                        .solve(tiles);
+                assertEquals(31, operations.length, threads + "个线程应该得到31步的最短解");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void testSolutionInsideFrontier() {
+        // 解比前沿的深度还短，在展开前沿时就找到
+        int[] tiles = {1, 2, 3, 4, 5, 6, 7, 0, 9, 10, 11, 8, 13, 14, 15, 12};
+        ParallelIdaStarSolver solver = new ParallelIdaStarSolver(4, 4, new ManhattanLinearConflict(4, 4));
+        assertArrayEquals(new int[]{2, 2}, solver.solve(tiles));
+        assertEquals(0, solver.solve(new Board(4).getTiles()).length, "已复原的棋盘应该返回空解");
+
+        // 2x2 不回头时每层只有一个节点，前沿达不到目标大小
+        int[] small = {0, 3, 2, 1};
+        int[] operations = new ParallelIdaStarSolver(2, 2, new ManhattanLinearConflict(2, 2)).solve(small);
+        Board board = new Board(small, 2, 2);
+        new BoardOperator(board).doOperations(operations);
+        assertTrue(board.isSolved());
+    }
+
+    @Test
+    void testParallelSolveMode() {
+        Board board = new Board(3, 4);
+        new PuzzleShuffler(board, 11).randomize();
+        Board copy = board.clone();
+
+        NumberPuzzleSolver parallel = new NumberPuzzleSolver(board);
+        assertTrue(parallel.solve(SolveMode.PARALLEL_OPTIMAL));
+        assertTrue(board.isSolved());
+        NumberPuzzleSolver sequential = new NumberPuzzleSolver(copy);
+        assertTrue(sequential.solve(SolveMode.OPTIMAL));
+        assertEquals(sequential.getMoveLog().size(), parallel.getMoveLog().size());
+    }
+
+    @Test
+    void testDeadline() {
+        Board board = new Board(5);
+        new PuzzleShuffler(board, 3).randomize();
+        ParallelIdaStarSolver solver = new ParallelIdaStarSolver(5, 5, new ManhattanLinearConflict(5, 5));
+        solver.setDeadline(System.nanoTime() + 50_000_000L);
+        assertThrows(SolveTimeoutException.class, () -> solver.solve(board.getTiles()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.rubik.toll.back.puzzle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PathFinderTest {
+
+    @Test
+    void testDetourOutsideWindow() {
+        // F 到 T 的最短路从第4行绕过去，恰好在初始窗口（第0~3行）之外；
+        // 窗口内也有一条经过第0行的路，但要长两步
+        String[] map = {
+                ".......",
+                "..##.S.",
+                "T#.F...",
+                ".#....#",
+                ".......",
+                "......#",
+                "...#...",
+        };
+        int xsize = map.length;
+        int ysize = map[0].length();
+        boolean[] ready = new boolean[xsize * ysize];
+        int from = -1;
+        int to = -1;
+        int still = -1;
+        for (int x = 0; x < xsize; x++) {
+            for (int y = 0; y < ysize; y++) {
+                int cell = x * ysize + y;
+                switch (map[x].charAt(y)) {
+                    case '#' -> ready[cell] = true;
+                    case 'F' -> from = cell;
+                    case 'T' -> to = cell;
+                    case 'S' -> still = cell;
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        int[] path = new int[xsize * ysize];
+        PathFinder full = new PathFinder(xsize, ysize, ready);
+        assertEquals(8, full.findPath(from, to, still, path));
+
+        PathFinder windowed = new PathFinder(xsize, ysize, ready);
+        windowed.setWindowed(true);
+        int length = windowed.findPath(from, to, still, path);
+        assertEquals(8, length, "窗口模式应该找到窗口外更短的路");
+        assertValidPath(path, length, from, to, still, ready, ysize);
+    }
+
+    @Test
+    void testWindowedMatchesFullSearch() {
+        Random random = new Random(7);
+        for (int round = 0; round < 5000; round++) {
+            int xsize = 3 + random.nextInt(6);
+            int ysize = 3 + random.nextInt(6);
+            int cells = xsize * ysize;
+            boolean[] ready = new boolean[cells];
+            double density = random.nextDouble() * 0.4;
+            for (int i = 0; i < cells; i++) {
+                ready[i] = random.nextDouble() < density;
+            }
+            int minRow = random.nextInt(xsize - 1);
+            int minCol = random.nextInt(ysize - 1);
+            int from = random.nextInt(cells);
+            int to = random.nextInt(cells);
+            int still = random.nextBoolean() ? random.nextInt(cells) : -1;
+            if (ready[to] || to / ysize < minRow || to % ysize < minCol || still == from || still == to) {
+                continue;
+            }
+
+            PathFinder full = new PathFinder(xsize, ysize, ready);
+            full.setSolvedBounds(minRow, minCol);
+            PathFinder windowed = new PathFinder(xsize, ysize, ready);
+            windowed.setSolvedBounds(minRow, minCol);
+            windowed.setWindowed(true);
+            int[] path = new int[cells];
+            int expected = full.findPath(from, to, still, path);
+            int length = windowed.findPath(from, to, still, path);
+            assertEquals(expected, length, "第" + round + "轮：窗口模式的路径长度应该与全盘搜索一致");
+            if (length > 0) {
+                assertValidPath(path, length, from, to, still, ready, ysize);
+            }
+        }
+    }
+
+    @Test
+    void testSolverWindowedMatchesFullSearch() {
+        int[][] sizes = {{3, 3}, {4, 4}, {5, 5}, {3, 7}, {6, 4}, {8, 8}, {12, 9}};
+        for (int[] size : sizes) {
+            for (long seed = 0; seed < 4; seed++) {
+                Board board = new Board(size[0], size[1]);
+                new PuzzleShuffler(board, seed).randomize();
+                if (seed == 3) {
+                    // 交换两个数字得到无解的棋盘
+                    int[] tiles = board.getTiles().clone();
+                    int a = tiles[0] == 0 ? 1 : 0;
+                    int b = tiles[a + 1] == 0 ? a + 2 : a + 1;
+                    int tile = tiles[a];
+                    tiles[a] = tiles[b];
+                    tiles[b] = tile;
+                    board = new Board(tiles, size[0], size[1]);
+                }
+                String name = size[0] + "x" + size[1] + " seed=" + seed;
+
+                Board windowedBoard = board.clone();
+                NumberPuzzleSolver windowed = new NumberPuzzleSolver(windowedBoard);
+                boolean windowedSolved = windowed.solve();
+
+                Board fullBoard = board.clone();
+                SolverContext context = new SolverContext(size[0], size[1]);
+                NumberPuzzleSolver full = new NumberPuzzleSolver(fullBoard, context);
+                context.pathFinder.setWindowed(false);
+                boolean fullSolved = full.solve();
+
+                assertEquals(fullSolved, windowedSolved, name + " 可解性应该一致");
+                assertEquals(seed != 3, windowedSolved, name);
+                assertEquals(full.getRawMoveLog().size(), windowed.getRawMoveLog().size(), name + " 步数应该一致");
+                assertEquals(fullBoard.isSolved(), windowedBoard.isSolved(), name);
+            }
+        }
+    }
+
+    private static void assertValidPath(int[] path, int length, int from, int to, int still,
+                                        boolean[] ready, int ysize) {
+        assertEquals(from, path[0]);
+        assertEquals(to, path[length - 1]);
+        for (int i = 1; i < length; i++) {
+            int prev = path[i - 1];
+            int curr = path[i];
+            int distance = Math.abs(prev / ysize - curr / ysize) + Math.abs(prev % ysize - curr % ysize);
+            assertEquals(1, distance, "路径上相邻的格子应该相邻");
+            assertNotEquals(still, curr, "路径不能经过 still");
+            assertFalse(ready[curr], "路径不能经过已就位的格子");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhaseSearchTest {
+
+    @Test
+    void testDetourOutsideWindow() {
+        // 第0行已就位，窗口内的解要15步，空格绕到第3行的最短解只要13步
+        boolean[] ready = new boolean[16];
+        for (int y = 0; y < 4; y++) {
+            ready[y] = true;
+        }
+        int[] positions = {6, 5};
+        int[] goals = {4, 5};
+        PhaseSearch search = new PhaseSearch(4, 4, ready);
+        int length = search.search(positions, goals, 7);
+        assertEquals(13, length);
+        assertEquals(13, reference(4, 4, ready, positions, goals, 7));
+        assertReachesGoals(search.getPath(), length, 4, ready, positions, goals, 7);
+    }
+
+    @Test
+    void testMatchesUnrestrictedSearch() {
+        Random random = new Random(20);
+        for (int round = 0; round < 3000; round++) {
+            int xsize = 3 + random.nextInt(4);
+            int ysize = 3 + random.nextInt(4);
+            int cells = xsize * ysize;
+            boolean[] ready = new boolean[cells];
+            int frozen = random.nextInt(xsize - 1);
+            for (int cell = 0; cell < frozen * ysize; cell++) {
+                ready[cell] = true;
+            }
+            // 与分阶段求解一样，目标是第一个未就位行上相邻的一到两个格子
+            int k = 1 + random.nextInt(2);
+            int[] goals = new int[k];
+            int column = random.nextInt(ysize - k + 1);
+            for (int i = 0; i < k; i++) {
+                goals[i] = frozen * ysize + column + i;
+            }
+            int free = cells - frozen * ysize;
+            int[] shuffled = new int[free];
+            for (int i = 0; i < free; i++) {
+                shuffled[i] = frozen * ysize + i;
+            }
+            int[] positions = new int[k];
+            pick(random, shuffled, free, positions, k + 1);
+            int blank = shuffled[k];
+
+            int expected = reference(xsize, ysize, ready, positions, goals, blank);
+            PhaseSearch search = new PhaseSearch(xsize, ysize, ready);
+            String name = "第" + round + "轮";
+            if (expected < 0) {
+                assertThrows(IllegalStateException.class, () -> search.search(positions, goals, blank), name);
+                continue;
+            }
+            int length = search.search(positions, goals, blank);
+            assertEquals(expected, length, name + "：阶段搜索应该得到最少步数");
+            assertReachesGoals(search.getPath(), length, ysize, ready, positions, goals, blank);
+        }
+    }
+
+    /**
+     * 从 cells 的前 free 个中随机选出 count 个放到最前面，再把其中前 out.length 个写入 out
+     */
+    private static void pick(Random random, int[] cells, int free, int[] out, int count) {
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(free - i);
+            int cell = cells[i];
+            cells[i] = cells[j];
+            cells[j] = cell;
+        }
+        System.arraycopy(cells, 0, out, 0, out.length);
+    }
+
+    /**
+     * 不加窗口，在所有未就位的格子上广度优先搜索，无解时返回 -1
+     */
+    private static int reference(int xsize, int ysize, boolean[] ready, int[] positions, int[] goals, int blank) {
+        int cells = xsize * ysize;
+        int k = positions.length;
+        long start = encode(positions, blank, cells);
+        long target = encode(goals, 0, cells) / cells;
+        Map<Long, Integer> distance = new HashMap<>();
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        distance.put(start, 0);
+        queue.add(start);
+        int[] pos = new int[k];
+        while (!queue.isEmpty()) {
+            long state = queue.poll();
+            if (state / cells == target) {
+                return distance.get(state);
+            }
+            int empty = (int) (state % cells);
+            long rest = state / cells;
+            for (int i = k - 1; i >= 0; i--) {
+                pos[i] = (int) (rest % cells);
+                rest /= cells;
+            }
+            for (int[] dir : PathFinder.getDirections()) {
+                int x = empty / ysize + dir[0];
+                int y = empty % ysize + dir[1];
+                if (x < 0 || x >= xsize || y < 0 || y >= ysize || ready[x * ysize + y]) {
+                    continue;
+                }
+                int next = x * ysize + y;
+                int[] moved = pos.clone();
+                for (int i = 0; i < k; i++) {
+                    if (moved[i] == next) {
+                        moved[i] = empty;
+                    }
+                }
+                long encoded = encode(moved, next, cells);
+                if (!distance.containsKey(encoded)) {
+                    distance.put(encoded, distance.get(state) + 1);
+                    queue.add(encoded);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long encode(int[] positions, int blank, int cells) {
+        long state = 0;
+        for (int position : positions) {
+            state = state * cells + position;
+        }
+        return state * cells + blank;
+    }
+
+    /**
+     * 按空格的路线逐步移动，检查每一步都相邻、不经过已就位的格子，最后各数字到达目标
+     */
+    private static void assertReachesGoals(int[] path, int length, int ysize, boolean[] ready,
+                                           int[] positions, int[] goals, int blank) {
+        int[] pos = positions.clone();
+        for (int i = 0; i < length; i++) {
+            int next = path[i];
+            assertEquals(1, Math.abs(next / ysize - blank / ysize) + Math.abs(next % ysize - blank % ysize));
+            assertFalse(ready[next], "空格不能经过已就位的格子");
+            for (int j = 0; j < pos.length; j++) {
+                if (pos[j] == next) {
+                    pos[j] = blank;
+                }
+            }
+            blank = next;
+        }
+        assertArrayEquals(goals, pos, "各数字应该到达目标");
+    }
+}
@@ -0,0 +1,64 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PhasedSolveTest {
+
+    @Test
+    void testSolvesAllShapes() {
+        int[][] sizes = {{2, 2}, {2, 5}, {5, 2}, {3, 3}, {4, 4}, {3, 7}, {6, 6}, {7, 5}, {9, 9}};
+        for (int[] size : sizes) {
+            Board board = shuffled(size[0], size[1], size[0] * 17L + size[1]);
+            Board replay = board.clone();
+            NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+            assertTrue(solver.solve(SolveMode.PHASED), size[0] + "x" + size[1] + "应该可以分阶段求解");
+            assertTrue(board.isSolved(), size[0] + "x" + size[1] + "求解后棋盘应该复原");
+
+            new BoardOperator(replay).doOperations(solver.getMoveLog().toArray());
+            assertTrue(replay.isSolved(), "移动记录应该从初始棋盘到达目标");
+        }
+    }
+
+    @Test
+    void testShorterThanDivideAndConquer() {
+        long phased = 0;
+        long divided = 0;
+        for (long seed = 1; seed <= 3; seed++) {
+            Board board = shuffled(8, 8, seed);
+            NumberPuzzleSolver phasedSolver = new NumberPuzzleSolver(board.clone());
+            assertTrue(phasedSolver.solve(SolveMode.PHASED));
+            NumberPuzzleSolver dividedSolver = new NumberPuzzleSolver(board.clone());
+            assertTrue(dividedSolver.solve(SolveMode.DIVIDE_AND_CONQUER));
+            phased += phasedSolver.getMoveLog().size();
+            divided += dividedSolver.getMoveLog().size();
+        }
+        assertTrue(phased < divided * 0.8,
+                "分阶段求解的步数（" + phased + "）应该比分治（" + divided + "）少至少20%");
+    }
+
+    @Test
+    void testLargeBoardFallsBackToGreedyApproach() {
+        // 20x20 开始的几个阶段窗口过大，先贪心移动再局部搜索
+        Board board = shuffled(20, 20, 4);
+        Board replay = board.clone();
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve(SolveMode.PHASED));
+        assertTrue(board.isSolved());
+        new BoardOperator(replay).doOperations(solver.getMoveLog().toArray());
+        assertTrue(replay.isSolved());
+    }
+
+    @Test
+    void testUnsolvableCase() {
+        int[] tiles = {2, 1, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 0};
+        assertFalse(new NumberPuzzleSolver(new Board(tiles)).solve(SolveMode.PHASED), "无解情况应该返回false");
+    }
+
+    private static Board shuffled(int rows, int cols, long seed) {
+        Board board = new Board(rows, cols);
+        new PuzzleShuffler(board, seed).randomize();
+        return board;
+    }
+}
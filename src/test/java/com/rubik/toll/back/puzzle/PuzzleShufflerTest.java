@@ -2,6 +2,12 @@ package com.rubik.toll.back.puzzle;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class PuzzleShufflerTest {
@@ -93,4 +99,63 @@ public class PuzzleShufflerTest {
         
         assertEquals(largerSize * largerSize, board.getTiles().length, "大尺寸棋盘的大小应该是size * size");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSeededShuffleIsReproducible() {
+        int[] first = new PuzzleShuffler(new Board(4), 42).shuffle(100);
+        int[] second = new PuzzleShuffler(new Board(4), 42).shuffle(100);
+        assertArrayEquals(first, second, "相同种子应该得到相同的棋盘");
+        assertArrayEquals(new PuzzleShuffler(new Board(5, 3), 7).randomize(),
+                new PuzzleShuffler(new Board(5, 3), 7).randomize(), "相同种子应该得到相同的棋盘");
+    }
+
+    @Test
+    void testShuffleNeverUndoesPreviousMove() {
+        // 2x2 棋盘上不走回头路时空格只能沿一个方向绕圈，12步后回到目标状态
+        Board board = new Board(2);
+        new PuzzleShuffler(board, 1).shuffle(12);
+        assertTrue(board.isSolved(), "不回头的随机走在2x2棋盘上应该绕圈回到原状");
+
+        board = new Board(2);
+        new PuzzleShuffler(board, 1).shuffle(6);
+        assertFalse(board.isSolved(), "走到一半不应该回到原状");
+    }
+
+    @Test
+    void testRandomizeProducesSolvableBoards() {
+        for (int[] size : new int[][]{{2, 2}, {3, 3}, {4, 4}, {3, 5}, {6, 2}, {20, 20}}) {
+            Board board = new Board(size[0], size[1]);
+            PuzzleShuffler shuffler = new PuzzleShuffler(board, size[0] * 31L + size[1]);
+            for (int i = 0; i < 50; i++) {
+                int[] tiles = shuffler.randomize();
+                assertTrue(SolvabilityChecker.isSolvable(tiles, size[0], size[1]), "生成的棋盘应该有解");
+                // 棋盘的空格位置和哈希应该与数组同步
+                assertEquals(0, board.getTiles()[board.getEmptyIndex()]);
+                assertEquals(Zobrist.hash(board.getTiles()), board.getZobristHash());
+            }
+        }
+    }
+
+    @Test
+    void testRandomizeIsUniform() {
+        // 2x2 棋盘共有12个可解状态，每个状态的频率应该接近 1/12
+        Map<String, Integer> counts = new HashMap<>();
+        int[] tiles = new int[4];
+        SplittableRandom random = new SplittableRandom(2024);
+        int samples = 120_000;
+        for (int i = 0; i < samples; i++) {
+            PuzzleShuffler.randomSolvable(tiles, 2, 2, random);
+            counts.merge(Arrays.toString(tiles), 1, Integer::sum);
+        }
+        assertEquals(12, counts.size(), "应该覆盖全部12个可解状态");
+        for (int count : counts.values()) {
+            assertEquals(samples / 12.0, count, samples / 12.0 * 0.05, "各状态出现的频率应该接近均匀");
+        }
+    }
+
+    @Test
+    void testRandomSolvableRejectsWrongLength() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PuzzleShuffler.randomSolvable(new int[8], 3, 3, new SplittableRandom()));
+    }
+}
@@ -0,0 +1,189 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolutionCacheTest {
+
+    @Test
+    void testRepeatedBoardHitsCache() {
+        SolutionCache cache = new SolutionCache(16, 1 << 20);
+        Board board = shuffled(4, 4, 1);
+
+        NumberPuzzleSolver first = new NumberPuzzleSolver(board.clone());
+        first.setSolutionCache(cache);
+        assertTrue(first.solve());
+
+        Board again = board.clone();
+        NumberPuzzleSolver second = new NumberPuzzleSolver(again);
+        second.setSolutionCache(cache);
+        assertTrue(second.solve());
+        assertTrue(again.isSolved(), "命中缓存后棋盘也应该被复原");
+        assertEquals(first.getMoveHistory(), second.getMoveHistory(), "命中缓存应该得到相同的解");
+
+        SolutionCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    void testSuffixOfCachedSolution() {
+        SolutionCache cache = new SolutionCache(16, 1 << 20);
+        Board board = shuffled(5, 4, 2);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board.clone());
+        solver.setSolutionCache(cache);
+        assertTrue(solver.solve());
+        int[] moves = solver.getMoveLog().toArray();
+
+        // 照着解走了几步之后再查询
+        Board midway = board.clone();
+        new BoardOperator(midway).doOperations(Arrays.copyOf(moves, 7));
+        MoveLog suffix = cache.get(midway, false);
+        assertNotNull(suffix, "路径上的棋盘应该命中");
+        assertEquals(moves.length - 7, suffix.size());
+        new BoardOperator(midway).doOperations(suffix.toArray());
+        assertTrue(midway.isSolved(), "后半段应该从中间状态到达目标");
+        assertEquals(1, cache.stats().suffixHits());
+    }
+
+    @Test
+    void testOptimalRequestIgnoresSuboptimalSolution() {
+        SolutionCache cache = new SolutionCache(16, 1 << 20);
+        Board board = shuffled(3, 4, 3);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board.clone());
+        solver.setSolutionCache(cache);
+        assertTrue(solver.solve(SolveMode.DIVIDE_AND_CONQUER));
+
+        assertNull(cache.get(board, true), "分治的解不能回答最短解的请求");
+        NumberPuzzleSolver optimal = new NumberPuzzleSolver(board.clone());
+        optimal.setSolutionCache(cache);
+        assertTrue(optimal.solve(SolveMode.OPTIMAL));
+
+        // 最短解替换了同一棋盘的分治解，之后两种请求都可以回答
+        MoveLog cached = cache.get(board, false);
+        assertNotNull(cached);
+        assertEquals(optimal.getMoveLog().size(), cached.size());
+        assertNotNull(cache.get(board, true));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        SolutionCache cache = new SolutionCache(2, 1 << 20);
+        Board a = solveInto(cache, shuffled(3, 4, 4));
+        Board b = solveInto(cache, shuffled(3, 4, 5));
+        // 访问 a 之后 b 是最久未使用的
+        assertNotNull(cache.get(a, false));
+        Board c = solveInto(cache, shuffled(3, 4, 6));
+
+        assertEquals(1, cache.stats().evictions());
+        assertNull(cache.get(b, false), "最久未使用的解应该被淘汰");
+        assertNotNull(cache.get(a, false));
+        assertNotNull(cache.get(c, false));
+    }
+
+    @Test
+    void testByteBound() {
+        Board board = shuffled(6, 6, 7);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board.clone());
+        assertTrue(solver.solve());
+
+        // 单条解超过上限时不缓存
+        SolutionCache tiny = new SolutionCache(16, 1024);
+        tiny.put(board, solver.getMoveLog(), false);
+        assertEquals(0, tiny.stats().entries());
+
+        SolutionCache cache = new SolutionCache(16, 1 << 20);
+        cache.put(board, solver.getMoveLog(), false);
+        long bytes = cache.stats().bytes();
+        assertTrue(bytes > 0);
+
+        // 上限只够一条时，放入第二条会淘汰第一条
+        SolutionCache single = new SolutionCache(16, bytes + bytes / 2);
+        single.put(board, solver.getMoveLog(), false);
+        solveInto(single, shuffled(6, 6, 8));
+        assertEquals(1, single.stats().entries());
+        assertTrue(single.stats().bytes() <= bytes + bytes / 2);
+    }
+
+    @Test
+    void testSuffixSurvivesEvictionOfOverlappingSolution() {
+        SolutionCache cache = new SolutionCache(2, 1 << 20);
+        Board board = shuffled(4, 4, 10);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board.clone());
+        solver.setSolutionCache(cache);
+        assertTrue(solver.solve());
+        int[] moves = solver.getMoveLog().toArray();
+
+        // 从中间状态开始的第二条解与第一条共用后半段路径
+        Board midway = board.clone();
+        new BoardOperator(midway).doOperations(Arrays.copyOf(moves, 7));
+        MoveLog rest = new MoveLog();
+        for (int i = 7; i < moves.length; i++) {
+            rest.append(moves[i]);
+        }
+        cache.put(midway, rest, false);
+        assertEquals(2, cache.stats().entries());
+
+        // 访问第一条之后放入第三条，淘汰的是第二条
+        assertNotNull(cache.get(board, false));
+        solveInto(cache, shuffled(4, 4, 11));
+        assertEquals(1, cache.stats().evictions());
+
+        MoveLog suffix = cache.get(midway, false);
+        assertNotNull(suffix, "第一条解仍然经过这个状态");
+        assertEquals(moves.length - 7, suffix.size());
+    }
+
+    @Test
+    void testSameTilesWithDifferentShapes() {
+        // 找一个按 3x4 和 2x6 排列都有解的数字数组，两种棋盘的哈希相同
+        int[] tiles = null;
+        for (long seed = 12; tiles == null; seed++) {
+            int[] candidate = shuffled(3, 4, seed).getTiles().clone();
+            if (new SolvabilityChecker(candidate, 2, 6).isSolvable()) {
+                tiles = candidate;
+            }
+        }
+        Board tall = new Board(tiles.clone(), 3, 4);
+        Board wide = new Board(tiles.clone(), 2, 6);
+        assertEquals(tall.getZobristHash(), wide.getZobristHash());
+
+        SolutionCache cache = new SolutionCache(16, 1 << 20);
+        solveInto(cache, tall);
+        solveInto(cache, wide);
+        assertEquals(2, cache.stats().entries(), "不同尺寸的棋盘不应互相替换");
+
+        for (Board board : new Board[]{tall, wide}) {
+            MoveLog cached = cache.get(board, false);
+            assertNotNull(cached);
+            Board replay = board.clone();
+            new BoardOperator(replay).doOperations(cached.toArray());
+            assertTrue(replay.isSolved(), board.getRows() + "x" + board.getCols() + "应该拿到自己的解");
+        }
+    }
+
+    @Test
+    void testRejectsWrongSolution() {
+        SolutionCache cache = new SolutionCache(16, 1 << 20);
+        MoveLog moves = new MoveLog();
+        moves.append(0);
+        assertThrows(IllegalArgumentException.class, () -> cache.put(shuffled(3, 3, 9), moves, false));
+    }
+
+    private static Board solveInto(SolutionCache cache, Board board) {
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board.clone());
+        solver.setSolutionCache(cache);
+        assertTrue(solver.solve());
+        return board;
+    }
+
+    private static Board shuffled(int rows, int cols, long seed) {
+        Board board = new Board(rows, cols);
+        new PuzzleShuffler(board, seed).randomize();
+        return board;
+    }
+}
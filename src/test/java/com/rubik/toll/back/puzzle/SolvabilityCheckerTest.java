@@ -0,0 +1,82 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolvabilityCheckerTest {
+
+    @Test
+    void testMatchesInversionCount() {
+        Random random = new Random(9);
+        int[][] sizes = {{2, 2}, {3, 3}, {4, 4}, {5, 5}, {2, 3}, {3, 4}, {4, 7}};
+        for (int[] size : sizes) {
+            int cells = size[0] * size[1];
+            for (int k = 0; k < 200; k++) {
+                int[] tiles = randomPermutation(cells, random);
+                assertEquals(byInversions(tiles, size[0], size[1]),
+                        SolvabilityChecker.isSolvable(tiles, size[0], size[1]),
+                        size[0] + "x" + size[1] + "的判断应该与逆序数方法一致");
+            }
+        }
+    }
+
+    @Test
+    void testInvalidBoards() {
+        assertFalse(SolvabilityChecker.isSolvable(new int[]{1, 2, 3, 3}, 2, 2), "重复数字应该判为无效");
+        assertFalse(SolvabilityChecker.isSolvable(new int[]{1, 2, 4, 0}, 2, 2), "越界数字应该判为无效");
+        assertFalse(SolvabilityChecker.isSolvable(new int[]{1, 2, 0}, 2, 2), "长度不对应该判为无效");
+    }
+
+    @Test
+    void testBatch() {
+        int[][] boards = {
+                {1, 2, 3, 4, 5, 6, 7, 8, 0},
+                {2, 1, 3, 4, 5, 6, 7, 8, 0},
+                {1, 2, 3, 4, 5, 6, 7, 7, 0},
+                null,
+                {1, 2, 3, 4, 5, 6, 7, 0, 8},
+        };
+        assertArrayEquals(new boolean[]{true, false, false, false, true},
+                SolvabilityChecker.areSolvable(boards, 3, 3));
+    }
+
+    private static int[] randomPermutation(int cells, Random random) {
+        int[] tiles = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            tiles[i] = i;
+        }
+        for (int i = cells - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = tiles[i];
+            tiles[i] = tiles[j];
+            tiles[j] = temp;
+        }
+        return tiles;
+    }
+
+    /**
+     * 经典判断：非零数字的逆序数，宽度为偶数时再加上空格到最后一行的距离
+     */
+    private static boolean byInversions(int[] tiles, int xsize, int ysize) {
+        int inversions = 0;
+        int emptyRow = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            if (tiles[i] == 0) {
+                emptyRow = i / ysize;
+                continue;
+            }
+            for (int j = i + 1; j < tiles.length; j++) {
+                if (tiles[j] != 0 && tiles[j] < tiles[i]) {
+                    inversions++;
+                }
+            }
+        }
+        if (ysize % 2 == 0) {
+            inversions += xsize - 1 - emptyRow;
+        }
+        return inversions % 2 == 0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolveToTargetTest {
+
+    @Test
+    void testReachTarget() {
+        int[][] sizes = {{3, 3}, {4, 4}, {5, 7}, {2, 6}};
+        for (int[] size : sizes) {
+            Board start = shuffled(size[0], size[1]);
+            Board target = shuffled(size[0], size[1]);
+            Board replay = start.clone();
+
+            NumberPuzzleSolver solver = new NumberPuzzleSolver(start);
+            assertTrue(solver.solveTo(target), size[0] + "x" + size[1] + "应该可以到达目标");
+            assertEquals(target, start, size[0] + "x" + size[1] + "求解后应该与目标相同");
+
+            new BoardOperator(replay).doOperations(solver.getMoveLog().toArray());
+            assertEquals(target, replay, "移动记录应该从初始棋盘到达目标");
+        }
+    }
+
+    @Test
+    void testOptimalToTarget() {
+        Board start = shuffled(3, 4);
+        Board target = shuffled(3, 4);
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(start);
+        assertTrue(solver.solveTo(target, SolveMode.OPTIMAL));
+        assertEquals(target, start);
+    }
+
+    @Test
+    void testUnreachableTarget() {
+        Board target = new Board(new int[]{2, 1, 3, 4, 0, 5, 6, 7, 8});
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(new Board(3));
+        assertFalse(solver.solveTo(target), "奇偶性不同的目标应该无法到达");
+        assertThrows(IllegalArgumentException.class, () -> solver.solveTo(new Board(4)));
+    }
+
+    @Test
+    void testFewerMovesThanTwoSolves() {
+        Board start = shuffled(12, 12);
+        Board target = shuffled(12, 12);
+
+        NumberPuzzleSolver direct = new NumberPuzzleSolver(start.clone());
+        assertTrue(direct.solveTo(target));
+
+        // 原先的做法：先复原，再把“目标到复原”的解逆向执行
+        NumberPuzzleSolver toGoal = new NumberPuzzleSolver(start.clone());
+        assertTrue(toGoal.solve());
+        NumberPuzzleSolver fromTarget = new NumberPuzzleSolver(target.clone());
+        assertTrue(fromTarget.solve());
+        long twoSolves = toGoal.getMoveLog().size() + fromTarget.getMoveLog().size();
+
+        assertTrue(direct.getMoveLog().size() < twoSolves,
+                "直接求解的步数（" + direct.getMoveLog().size() + "）应该少于两次求解（" + twoSolves + "）");
+    }
+
+    private static Board shuffled(int rows, int cols) {
+        Board board = new Board(rows, cols);
+        new PuzzleShuffler(board).shuffle(rows * cols * 50);
+        return board;
+    }
+}
@@ -0,0 +1,96 @@
+package com.rubik.toll.back.puzzle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristTest {
+
+    @Test
+    void testIncrementalMatchesFullHash() {
+        Board board = new Board(4, 6);
+        new PuzzleShuffler(board).shuffle(1000);
+        assertEquals(Zobrist.hash(board.getTiles()), board.getZobristHash(), "Board.move后的哈希应该与重新计算一致");
+
+        // 空格从右下角出发：左、上、左、上、右、下
+        board = new Board(4, 6);
+        BoardOperator operator = new BoardOperator(board);
+        operator.doOperations(new int[]{0, 3, 0, 3, 1, 2});
+        assertEquals(Zobrist.hash(board.getTiles()), operator.getHash(), "交换后的哈希应该与重新计算一致");
+        assertEquals(operator.getHash(), board.getZobristHash(), "绑定的棋盘哈希应该同步更新");
+    }
+
+    @Test
+    void testSwapRequiresBlank() {
+        // 空格在右下角（下标8），交换左上角两个相邻的数字应该被拒绝，棋盘和哈希都不变
+        Board board = new Board(3);
+        BoardOperator operator = new BoardOperator(board);
+        int[] before = board.getTiles().clone();
+        long hash = operator.getHash();
+        assertThrows(IllegalArgumentException.class, () -> operator.swapNeighbor(0, 1));
+        assertArrayEquals(before, board.getTiles());
+        assertEquals(hash, operator.getHash());
+        assertTrue(operator.getMoveLog().isEmpty());
+
+        // 与空格相邻时两种参数顺序都可以
+        operator.swapNeighbor(8, 7);
+        operator.swapNeighbor(4, 7);
+        assertEquals(Zobrist.hash(board.getTiles()), operator.getHash());
+        assertEquals(4, operator.getCellOf(2, 2), "空格应该移到中间");
+        assertThrows(IllegalArgumentException.class, () -> operator.swapNeighbor(4, 8), "不相邻的格子不能交换");
+    }
+
+    @Test
+    void testSolverKeepsBoardHash() {
+        Board board = new Board(5);
+        new PuzzleShuffler(board).shuffle(500);
+        assertTrue(new NumberPuzzleSolver(board).solve());
+        assertEquals(new Board(5), board, "复原后应该与目标棋盘相等");
+        assertEquals(new Board(5).hashCode(), board.hashCode(), "复原后哈希应该与目标棋盘一致");
+    }
+
+    @Test
+    void testContentEquality() {
+        // 沿2x2方块绕三圈回到原状态
+        Board board = new Board(3);
+        Board original = board.clone();
+        for (int k = 0; k < 3; k++) {
+            board.move(5);
+            board.move(4);
+            board.move(7);
+            board.move(8);
+        }
+        assertEquals(original, board, "内容相同的棋盘应该相等");
+        assertEquals(original.hashCode(), board.hashCode());
+
+        Set<Board> seen = new HashSet<>();
+        seen.add(original);
+        board.move(5);
+        assertFalse(seen.contains(board), "不同的棋盘不应该被认为已见过");
+        board.move(8);
+        assertTrue(seen.contains(board), "回到原状态后应该被认为已见过");
+        assertNotEquals(new Board(2, 3), new Board(3, 2), "尺寸不同的棋盘不应该相等");
+    }
+
+    @Test
+    void testEqualityAfterRewritingTiles() {
+        Board board = new Board(3);
+        Board moved = board.clone();
+        moved.move(7);
+
+        // 整体改写数组回到原状态：相等与否只看内容，refresh 之后哈希也一致
+        int[] tiles = moved.getTiles();
+        System.arraycopy(board.getTiles(), 0, tiles, 0, tiles.length);
+        assertEquals(board, moved, "内容相同的棋盘应该相等");
+        moved.refresh();
+        assertEquals(board.hashCode(), moved.hashCode());
+        assertEquals(board.getEmptyIndex(), moved.getEmptyIndex());
+
+        Set<Board> seen = new HashSet<>();
+        seen.add(board);
+        assertTrue(seen.contains(moved));
+    }
+}
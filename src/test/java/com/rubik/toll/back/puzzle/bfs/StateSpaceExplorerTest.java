@@ -0,0 +1,108 @@
+package com.rubik.toll.back.puzzle.bfs;
+
+import com.rubik.toll.back.puzzle.Board;
+import com.rubik.toll.back.puzzle.EightPuzzleTable;
+import com.rubik.toll.back.puzzle.PuzzleShuffler;
+import com.rubik.toll.back.puzzle.SolvabilityChecker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateSpaceExplorerTest {
+
+    @Test
+    void testIndexIsBijection() {
+        for (int[] size : new int[][]{{2, 2}, {2, 3}, {3, 3}, {2, 4}}) {
+            StateIndex index = new StateIndex(size[0], size[1]);
+            int[] tiles = new int[index.cells];
+            for (int i = 0; i < index.states; i++) {
+                int empty = index.unrank(i, tiles);
+                assertEquals(0, tiles[empty]);
+                assertTrue(SolvabilityChecker.isSolvable(tiles, size[0], size[1]),
+                        "解码得到的棋盘应该有解");
+                assertEquals(i, index.index(tiles), "编码和解码应该互逆");
+            }
+        }
+    }
+
+    @Test
+    void testGodsNumbers() {
+        DepthTable table2x3 = StateSpaceExplorer.explore(2, 3);
+        assertEquals(360, table2x3.getStates());
+        assertEquals(21, table2x3.getGodsNumber(), "2x3的上帝之数是21");
+
+        DepthTable table3x3 = StateSpaceExplorer.explore(3, 3);
+        assertEquals(181440, table3x3.getStates());
+        assertEquals(31, table3x3.getGodsNumber(), "3x3的上帝之数是31");
+        long[] distribution = table3x3.getDistribution();
+        assertEquals(2, distribution[31], "3x3需要31步的状态只有2个");
+        assertEquals(181440, Arrays.stream(distribution).sum());
+
+        // 与3x3距离表逐一比较
+        Board board = new Board(3);
+        PuzzleShuffler shuffler = new PuzzleShuffler(board, 5);
+        for (int i = 0; i < 1000; i++) {
+            int[] tiles = shuffler.randomize();
+            assertEquals(EightPuzzleTable.distance(tiles), table3x3.distance(tiles));
+        }
+    }
+
+    @Test
+    void testRectangleAndParallelism() {
+        DepthTable single = explore(2, 4, 1);
+        DepthTable parallel = explore(2, 4, 4);
+        assertEquals(20160, single.getStates());
+        assertEquals(36, single.getGodsNumber(), "2x4的上帝之数是36");
+        assertArrayEquals(single.getDistribution(), parallel.getDistribution(), "线程数不应该影响结果");
+    }
+
+    @Test
+    void testPersistedTable(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("3x2.dpt");
+        ForkJoinPool pool = new ForkJoinPool(2);
+        DepthTable explored;
+        try {
+            explored = StateSpaceExplorer.explore(3, 2, file, pool);
+        } finally {
+            pool.shutdown();
+        }
+        DepthTable loaded = DepthTable.load(file);
+        assertEquals(3, loaded.getRows());
+        assertEquals(2, loaded.getCols());
+        assertArrayEquals(explored.getDistribution(), loaded.getDistribution());
+
+        Board board = new Board(3, 2);
+        PuzzleShuffler shuffler = new PuzzleShuffler(board, 9);
+        for (int i = 0; i < 100; i++) {
+            int[] tiles = shuffler.randomize();
+            assertEquals(explored.distance(tiles), loaded.distance(tiles));
+        }
+
+        Path copy = directory.resolve("copy.dpt");
+        StateSpaceExplorer.explore(3, 2).save(copy);
+        assertArrayEquals(explored.getDistribution(), DepthTable.load(copy).getDistribution());
+    }
+
+    @Test
+    void testInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> StateSpaceExplorer.explore(4, 4));
+        DepthTable table = StateSpaceExplorer.explore(2, 2);
+        assertEquals(0, table.distance(new int[]{1, 2, 3, 0}));
+        assertThrows(IllegalArgumentException.class, () -> table.distance(new int[]{2, 1, 3, 0}));
+    }
+
+    private static DepthTable explore(int rows, int cols, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return StateSpaceExplorer.explore(rows, cols, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.rubik.toll.back.puzzle.pdb;
+
+import com.rubik.toll.back.puzzle.Board;
+import com.rubik.toll.back.puzzle.IdaStarSolver;
+import com.rubik.toll.back.puzzle.ManhattanLinearConflict;
+import com.rubik.toll.back.puzzle.NumberPuzzleSolver;
+import com.rubik.toll.back.puzzle.PuzzleShuffler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatternDatabaseTest {
+    private static final int[][] PARTITION_3X3 = {{1, 2, 3, 4}, {5, 6, 7, 8}};
+    private static final int[][] BOARDS_3X3 = {
+            {8, 6, 7, 2, 5, 4, 3, 0, 1},
+            {5, 7, 3, 4, 8, 6, 1, 0, 2},
+            {1, 2, 3, 4, 5, 6, 0, 7, 8},
+            {0, 1, 3, 4, 2, 5, 7, 8, 6},
+            {6, 4, 7, 8, 5, 0, 3, 2, 1}
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSaveAndLoadMapped() throws IOException {
+        PatternDatabase built = PatternDatabaseBuilder.build(3, 3, PARTITION_3X3[0]);
+        Path file = tempDir.resolve("3x3.pdb");
+        built.save(file);
+        PatternDatabase loaded = PatternDatabase.load(file);
+
+        assertArrayEquals(built.getPatternTiles(), loaded.getPatternTiles());
+        for (int[] tiles : BOARDS_3X3) {
+            assertEquals(built.lookup(tiles), loaded.lookup(tiles), "映射加载后的查表结果应该一致");
+        }
+    }
+
+    @Test
+    void testHeuristicIsAdmissible() {
+        AdditivePatternHeuristic heuristic = AdditivePatternHeuristic.loadOrBuild(tempDir, 3, 3, PARTITION_3X3);
+        IdaStarSolver solver = new IdaStarSolver(3, 3, new ManhattanLinearConflict(3, 3));
+        for (int[] tiles : BOARDS_3X3) {
+            assertBetweenManhattanAndOptimal(heuristic, tiles, 3, 3, solver.solve(tiles).length);
+        }
+        assertEquals(0, heuristic.estimate(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 0}), "目标状态估值为0");
+    }
+
+    @Test
+    void testHeuristicIsAdmissible4x4() {
+        // 生成 6-6-3 划分在单核上需要几十秒，优先使用 target 下的缓存目录
+        String cached = System.getProperty("rubik.pdb.dir");
+        Path directory = cached == null ? tempDir : Path.of(cached);
+        AdditivePatternHeuristic heuristic =
+                AdditivePatternHeuristic.loadOrBuild(directory, 4, 4, AdditivePatternHeuristic.PARTITION_4X4);
+        IdaStarSolver reference = new IdaStarSolver(4, 4, new ManhattanLinearConflict(4, 4));
+        IdaStarSolver solver = new IdaStarSolver(4, 4, heuristic);
+        for (long seed = 0; seed < 6; seed++) {
+            Board board = new Board(4, 4);
+            int[] tiles = new PuzzleShuffler(board, seed).shuffle(24 + (int) seed * 2);
+            int optimal = reference.solve(tiles).length;
+            assertBetweenManhattanAndOptimal(heuristic, tiles, 4, 4, optimal);
+            assertEquals(optimal, solver.solve(tiles).length, "用模式数据库搜索也应该得到最优解");
+        }
+        assertEquals(0, heuristic.estimate(new Board(4, 4).getTiles()), "目标状态估值为0");
+    }
+
+    /**
+     * 各组只计本组数字的移动，估值不会低于这些数字的曼哈顿距离之和；可采纳则不超过最优步数
+     */
+    private static void assertBetweenManhattanAndOptimal(AdditivePatternHeuristic heuristic, int[] tiles,
+                                                         int xsize, int ysize, int optimal) {
+        int manhattan = 0;
+        for (int cell = 0; cell < tiles.length; cell++) {
+            int tile = tiles[cell];
+            if (tile != 0) {
+                manhattan += Math.abs(cell / ysize - (tile - 1) / ysize) + Math.abs(cell % ysize - (tile - 1) % ysize);
+            }
+        }
+        int estimate = heuristic.estimate(tiles);
+        assertTrue(manhattan <= estimate, "估值不应低于曼哈顿距离：" + manhattan + " > " + estimate);
+        assertTrue(estimate <= optimal, "估值不应超过最优步数：" + estimate + " > " + optimal);
+    }
+
+    @Test
+    void testIncrementalDelta() {
+        AdditivePatternHeuristic heuristic = AdditivePatternHeuristic.loadOrBuild(tempDir, 3, 3, PARTITION_3X3);
+        int[] tiles = {5, 7, 3, 4, 8, 6, 1, 0, 2};
+        // 空格在7号格，把4号格的8下移
+        int delta = heuristic.delta(tiles, 4, 7);
+        int before = heuristic.estimate(tiles);
+        tiles[7] = 8;
+        tiles[4] = 0;
+        assertEquals(heuristic.estimate(tiles), before + delta, "增量应该与重新计算一致");
+    }
+
+    @Test
+    void testOptimalSolveWithPatternDatabase() {
+        AdditivePatternHeuristic heuristic = AdditivePatternHeuristic.loadOrBuild(tempDir, 3, 3, PARTITION_3X3);
+        Board board = new Board(new int[]{8, 6, 7, 2, 5, 4, 3, 0, 1});
+        NumberPuzzleSolver solver = new NumberPuzzleSolver(board);
+        assertTrue(solver.solve(heuristic));
+        assertTrue(board.isSolved(), "求解后棋盘应该复原");
+        assertEquals(31, solver.getMoveHistory().length(), "最优解应该是31步");
+    }
+
+    @Test
+    void testOverlappingPartition() {
+        PatternDatabase first = PatternDatabaseBuilder.build(3, 3, new int[]{1, 2, 3, 4});
+        PatternDatabase second = PatternDatabaseBuilder.build(3, 3, new int[]{4, 5, 6, 7, 8});
+        assertThrows(IllegalArgumentException.class, () -> new AdditivePatternHeuristic(first, second));
+    }
+}
@@ -1,7 +1,11 @@
 package com.rubik.toll.back.rubik;
 
 import com.rubik.toll.back.rubik.cube.Cube;
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import com.rubik.toll.back.rubik.cube.CubeMoveLog;
 import com.rubik.toll.back.rubik.cube.Face;
+import com.rubik.toll.back.rubik.solver.twophase.TwoPhaseSolver;
+import com.rubik.toll.back.rubik.solver.twophase.TwoPhaseTables;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -54,4 +58,45 @@ class CubeSolverTest {
             assertTrue(cube.isSolved());
         }
     }
+
+    @Test
+    void solve_TwoPhase() {
+        for (int a = 0; a < 5; a++) {
+            cubeShuffler.shuffle(20);
+            cubeSolver.solve(CubeSolveMethod.TWO_PHASE);
+            assertTrue(cube.isSolved());
+        }
+    }
+
+    @Test
+    void solve_RecordsMoves() {
+        for (int a = 0; a < 10; a++) {
+            cubeShuffler.shuffle(20);
+            Cube start = cube.clone();
+            cubeSolver.solve();
+            CubeMoveLog solution = cubeSolver.getMoveLog();
+            assertTrue(solution.size() <= cubeSolver.getRawMoveLog().size(), "优化后不应比原记录长");
+            assertTrue(solution.getQuarterTurnCount() >= solution.size());
+            // 从初始状态执行优化后的解应该同样复原
+            for (CubeMove move : solution.toArray()) {
+                start.apply(move);
+            }
+            assertTrue(start.isSolved());
+        }
+    }
+
+    @Test
+    void solve_TwoPhaseVerifiesSolution() {
+        // 表损坏时两阶段搜索可能返回错误的转动序列，执行后必须检查魔方是否复原
+        cubeShuffler.shuffle(20);
+        cubeSolver.setTwoPhaseSolver(new TwoPhaseSolver(TwoPhaseTables.getDefault()) {
+            @Override
+            public CubeMove[] solve(Cube cube) {
+                return new CubeMove[]{CubeMove.U};
+            }
+        });
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> cubeSolver.solve(CubeSolveMethod.TWO_PHASE));
+        assertTrue(e.getMessage().contains("没有复原"), e.getMessage());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.rubik.toll.back.rubik.cube;
+
+import com.rubik.toll.back.rubik.solver.CubeAlgorithms;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CubeAlgorithmTest {
+
+    @Test
+    void testParse() {
+        CubeAlgorithm algorithm = CubeAlgorithm.parse("测试", " R U2  F' ");
+        assertArrayEquals(new CubeMove[]{CubeMove.R, CubeMove.U2, CubeMove.F_PRIME}, algorithm.getMoves());
+        assertEquals("R U2 F'", algorithm.getNotation());
+        assertEquals(0, CubeAlgorithm.parse("空", "").size());
+        assertThrows(IllegalArgumentException.class, () -> CubeAlgorithm.parse("错误", "R X"));
+        assertThrows(IllegalArgumentException.class, () -> CubeAlgorithm.parse("错误", "R3"));
+    }
+
+    @Test
+    void testCompiledMatchesMoves() {
+        CubeAlgorithm[] algorithms = {
+                CubeAlgorithms.TOP_CROSS, CubeAlgorithms.RIGHT_HAND, CubeAlgorithms.LEFT_HAND,
+                CubeAlgorithms.CORNER_PERMUTATION, CubeAlgorithms.EDGE_PERMUTATION, CubeAlgorithms.CORNER_TWIST,
+                CubeAlgorithms.swapEdgeOnTop(Face.FRONT), CubeAlgorithms.swapEdgeOnTop(Face.LEFT)
+        };
+        Random random = new Random(6);
+        CubeMove[] values = CubeMove.values();
+        for (CubeAlgorithm algorithm : algorithms) {
+            // 从随机状态出发，一次执行和逐步执行的结果应该一致
+            Cube compiled = new Cube();
+            for (int i = 0; i < 30; i++) {
+                compiled.apply(values[random.nextInt(values.length)]);
+            }
+            Cube stepwise = compiled.clone();
+            compiled.apply(algorithm);
+            for (CubeMove move : algorithm.getMoves()) {
+                stepwise.apply(move);
+            }
+            assertArrayEquals(stepwise.getState(), compiled.getState(), algorithm.toString());
+        }
+    }
+
+    @Test
+    void testViewedFrom() {
+        CubeAlgorithm algorithm = CubeAlgorithm.parse("测试", "F R U R' D2 B L'");
+        assertEquals("F R U R' D2 B L'", algorithm.viewedFrom(Face.FRONT).getNotation());
+        assertEquals("R B U B' D2 L F'", algorithm.viewedFrom(Face.RIGHT).getNotation());
+        assertEquals("L F U F' D2 R B'", algorithm.viewedFrom(Face.LEFT).getNotation());
+        assertEquals("B L U L' D2 F R'", algorithm.viewedFrom(Face.BACK).getNotation());
+        assertThrows(IllegalArgumentException.class, () -> algorithm.viewedFrom(Face.UP));
+        assertEquals("B L U L'", CubeAlgorithms.swapEdgeOnTop(Face.BACK).getNotation());
+    }
+
+    @Test
+    void testOrderOfCornerTwist() {
+        // (R U R' U') 重复6次回到原状态
+        Cube cube = new Cube();
+        for (int i = 0; i < 2; i++) {
+            cube.apply(CubeAlgorithms.CORNER_TWIST);
+        }
+        assertTrue(cube.isSolved());
+    }
+}
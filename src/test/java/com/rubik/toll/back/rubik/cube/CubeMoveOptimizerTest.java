@@ -0,0 +1,83 @@
+package com.rubik.toll.back.rubik.cube;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CubeMoveOptimizerTest {
+
+    @Test
+    void testMergeSameFace() {
+        assertEquals("R2", optimize(CubeMove.R, CubeMove.R));
+        assertEquals("R'", optimize(CubeMove.R2, CubeMove.R));
+        assertEquals("", optimize(CubeMove.U, CubeMove.U_PRIME));
+        assertEquals("", optimize(CubeMove.F2, CubeMove.F2));
+        // 消去之后两边的 R 相邻，继续合并
+        assertEquals("", optimize(CubeMove.R, CubeMove.U, CubeMove.U_PRIME, CubeMove.R_PRIME));
+    }
+
+    @Test
+    void testOppositeFacesCommute() {
+        assertEquals("D", optimize(CubeMove.U, CubeMove.D, CubeMove.U_PRIME));
+        assertEquals("", optimize(CubeMove.U, CubeMove.D, CubeMove.U_PRIME, CubeMove.D_PRIME));
+        assertEquals("R2 L", optimize(CubeMove.R, CubeMove.L, CubeMove.R));
+        // 相邻但不相对的面不能交换
+        assertEquals("U F U'", optimize(CubeMove.U, CubeMove.F, CubeMove.U_PRIME));
+    }
+
+    @Test
+    void testSameResultOnCube() {
+        Random random = new Random(4);
+        CubeMove[] values = CubeMove.values();
+        for (int round = 0; round < 200; round++) {
+            // 只用少数几个面，让合并和消去经常发生
+            CubeMove[] moves = new CubeMove[60];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = values[random.nextInt(9)];
+            }
+            CubeMove[] optimized = CubeMoveOptimizer.optimize(moves);
+            assertTrue(optimized.length <= moves.length);
+            assertArrayEquals(apply(moves).getState(), apply(optimized).getState(), "优化前后魔方的状态应该一致");
+            for (int i = 1; i < optimized.length; i++) {
+                assertNotEquals(optimized[i - 1].getFace(), optimized[i].getFace(), "相邻两步不应转同一个面");
+            }
+        }
+    }
+
+    @Test
+    void testMoveLog() {
+        CubeMoveLog log = new CubeMoveLog();
+        for (int i = 0; i < 100; i++) {
+            log.append(CubeMove.values()[i % 18]);
+        }
+        assertEquals(100, log.size());
+        assertEquals(CubeMove.D_PRIME, log.get(22));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(100));
+        log.clear();
+        log.append(CubeMove.R);
+        log.append(CubeMove.U2);
+        log.append(CubeMove.F_PRIME);
+        assertEquals("R U2 F'", log.toString());
+        assertEquals(3, log.size(), "HTM 中180度转动算一步");
+        assertEquals(4, log.getQuarterTurnCount(), "QTM 中180度转动算两步");
+        assertEquals("R U2 F'", CubeMoveOptimizer.optimize(log).toString());
+    }
+
+    private static String optimize(CubeMove... moves) {
+        CubeMoveLog log = new CubeMoveLog();
+        for (CubeMove move : CubeMoveOptimizer.optimize(moves)) {
+            log.append(move);
+        }
+        return log.toString();
+    }
+
+    private static Cube apply(CubeMove[] moves) {
+        Cube cube = new Cube();
+        for (CubeMove move : moves) {
+            cube.apply(move);
+        }
+        return cube;
+    }
+}
@@ -0,0 +1,101 @@
+package com.rubik.toll.back.rubik.cube;
+
+import com.rubik.toll.back.rubik.TwistDirection;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CubeMoveTest {
+
+    @Test
+    void testQuarterTurnHasOrderFour() {
+        for (Face face : Face.values()) {
+            Cube cube = new Cube();
+            CubeMove move = CubeMove.of(face, TwistDirection.CLOCKWISE);
+            for (int i = 0; i < 3; i++) {
+                cube.apply(move);
+                assertFalse(cube.isSolved(), face + "转动" + (i + 1) + "次后不应该复原");
+            }
+            cube.apply(move);
+            assertTrue(cube.isSolved(), face + "转动4次后应该复原");
+        }
+    }
+
+    @Test
+    void testInverseAndHalfTurn() {
+        for (CubeMove move : CubeMove.values()) {
+            Cube cube = scrambled(move.ordinal());
+            Cube copy = cube.clone();
+            cube.apply(move);
+            cube.apply(move.inverse());
+            assertArrayEquals(copy.getState(), cube.getState(), move + "之后再逆转动应该回到原状态");
+
+            Cube half = copy.clone();
+            half.apply(CubeMove.half(move.getFace()));
+            Cube quarters = copy.clone();
+            quarters.apply(CubeMove.of(move.getFace(), TwistDirection.CLOCKWISE));
+            quarters.apply(CubeMove.of(move.getFace(), TwistDirection.CLOCKWISE));
+            assertArrayEquals(quarters.getState(), half.getState(), "180度转动应该等于两次顺时针转动");
+        }
+    }
+
+    @Test
+    void testUpClockwiseMovesRightRowToFront() {
+        Cube cube = new Cube();
+        cube.apply(CubeMove.U);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Face.RIGHT.getColor(), cube.getColor(Face.FRONT, 0, i));
+            assertEquals(Face.FRONT.getColor(), cube.getColor(Face.LEFT, 0, i));
+            assertEquals(Face.FRONT.getColor(), cube.getColor(Face.FRONT, 1, i), "中层不应该移动");
+        }
+    }
+
+    @Test
+    void testSexyMoveHasOrderSix() {
+        // (R U R' U') 重复6次回到原状态
+        Cube cube = new Cube();
+        for (int i = 0; i < 6; i++) {
+            cube.apply(CubeMove.R);
+            cube.apply(CubeMove.U);
+            cube.apply(CubeMove.R_PRIME);
+            cube.apply(CubeMove.U_PRIME);
+            assertEquals(i == 5, cube.isSolved());
+        }
+    }
+
+    @Test
+    void testNotation() {
+        assertEquals("U", CubeMove.U.toString());
+        assertEquals("R'", CubeMove.R_PRIME.toString());
+        assertEquals("F2", CubeMove.half(Face.FRONT).getNotation());
+        assertEquals(CubeMove.L_PRIME, CubeMove.of(Face.LEFT, TwistDirection.COUNTERCLOCKWISE));
+        assertEquals(3, CubeMove.B_PRIME.getQuarterTurns());
+    }
+
+    @Test
+    void testStateIsCopied() {
+        Cube cube = scrambled(7);
+        Color[][][] state = cube.getState();
+        Cube rebuilt = new Cube(state);
+        assertArrayEquals(state, rebuilt.getState());
+
+        state[Face.UP.ordinal()][0][0] = null;
+        assertNotNull(cube.getColor(Face.UP, 0, 0), "修改返回的数组不应该影响魔方");
+
+        Cube clone = cube.clone();
+        clone.apply(CubeMove.D);
+        assertArrayEquals(rebuilt.getState(), cube.getState(), "转动副本不应该影响原魔方");
+    }
+
+    private static Cube scrambled(long seed) {
+        Random random = new Random(seed);
+        CubeMove[] moves = CubeMove.values();
+        Cube cube = new Cube();
+        for (int i = 0; i < 25; i++) {
+            cube.apply(moves[random.nextInt(moves.length)]);
+        }
+        return cube;
+    }
+}
@@ -0,0 +1,144 @@
+package com.rubik.toll.back.rubik.cube;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CubieCubeTest {
+
+    @Test
+    void testSolved() {
+        CubieCube solved = CubieCube.fromCube(new Cube());
+        assertEquals(new CubieCube(), solved);
+        assertTrue(solved.isSolved());
+        assertTrue(solved.toCube().isSolved());
+    }
+
+    @Test
+    void testRoundTrip() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            Cube cube = scramble(random, 30);
+            CubieCube cubie = CubieCube.fromCube(cube);
+            assertTrue(cubie.isSolvable());
+            assertArrayEquals(cube.getState(), cubie.toCube().getState(), "转换回贴纸应该与原状态一致");
+        }
+    }
+
+    @Test
+    void testMovesMatchFacelets() {
+        Random random = new Random(2);
+        CubeMove[] moves = CubeMove.values();
+        Cube cube = new Cube();
+        CubieCube cubie = new CubieCube();
+        for (int i = 0; i < 500; i++) {
+            CubeMove move = moves[random.nextInt(moves.length)];
+            cube.apply(move);
+            cubie.apply(move);
+            assertEquals(CubieCube.fromCube(cube), cubie, "块层面的转动应该与贴纸层面一致：" + move);
+        }
+    }
+
+    @Test
+    void testOrientationInvariantMoves() {
+        // U、D 和其余四个面的180度转动不改变朝向
+        CubeMove[] moves = {CubeMove.U, CubeMove.D_PRIME, CubeMove.R2, CubeMove.L2, CubeMove.F2, CubeMove.B2};
+        Random random = new Random(3);
+        CubieCube cubie = new CubieCube();
+        for (int i = 0; i < 100; i++) {
+            cubie.apply(moves[random.nextInt(moves.length)]);
+            for (byte orientation : cubie.cornerOrientation) {
+                assertEquals(0, orientation);
+            }
+            for (byte orientation : cubie.edgeOrientation) {
+                assertEquals(0, orientation);
+            }
+        }
+        CubieCube turned = new CubieCube();
+        turned.apply(CubeMove.F);
+        assertEquals(4, sum(turned.edgeOrientation), "F 翻转4个棱块");
+        assertNotEquals(0, sum(turned.cornerOrientation), "F 扭转角块");
+    }
+
+    @Test
+    void testUnsolvableStates() {
+        // 单独扭转一个角块：颜色合法但无法复原
+        CubieCube twisted = new CubieCube();
+        twisted.cornerOrientation[0] = 1;
+        Cube cube = twisted.toCube();
+        assertTrue(cube.isValid());
+        assertFalse(CubieCube.fromCube(cube).isSolvable());
+
+        // 交换两个棱块：排列奇偶性不一致
+        CubieCube swapped = new CubieCube();
+        swapped.edgePermutation[0] = 1;
+        swapped.edgePermutation[1] = 0;
+        assertFalse(CubieCube.fromCube(swapped.toCube()).isSolvable());
+    }
+
+    @Test
+    void testInvalidColors() {
+        Cube cube = new Cube();
+        // 把角块上的一个贴纸换成对面的颜色，这个颜色组合的角块不存在
+        cube.setColor(Face.FRONT, 0, 2, Face.BACK.getColor());
+        assertThrows(IllegalArgumentException.class, () -> CubieCube.fromCube(cube));
+        assertFalse(cube.isValid());
+    }
+
+    @Test
+    void testCoordinates() {
+        CubieCube solved = new CubieCube();
+        assertEquals(0, solved.getTwist());
+        assertEquals(0, solved.getFlip());
+        assertEquals(0, solved.getSlice());
+        assertEquals(0, solved.getCornerPermutation());
+        assertEquals(0, solved.getUdEdgePermutation());
+        assertEquals(0, solved.getSlicePermutation());
+
+        // 每个坐标值设置后再读出应该不变
+        CubieCube cube = new CubieCube();
+        for (int twist = 0; twist < CubieCube.TWISTS; twist++) {
+            cube.setTwist(twist);
+            assertEquals(twist, cube.getTwist());
+        }
+        for (int flip = 0; flip < CubieCube.FLIPS; flip++) {
+            cube.setFlip(flip);
+            assertEquals(flip, cube.getFlip());
+        }
+        for (int slice = 0; slice < CubieCube.SLICES; slice++) {
+            cube.setSlice(slice);
+            assertEquals(slice, cube.getSlice());
+        }
+        for (int rank = 0; rank < CubieCube.CORNER_PERMUTATIONS; rank += 7) {
+            cube.setCornerPermutation(rank);
+            assertEquals(rank, cube.getCornerPermutation());
+        }
+        for (int rank = 0; rank < CubieCube.UD_EDGE_PERMUTATIONS; rank += 7) {
+            cube.setUdEdgePermutation(rank);
+            assertEquals(rank, cube.getUdEdgePermutation());
+        }
+        for (int rank = 0; rank < CubieCube.SLICE_PERMUTATIONS; rank++) {
+            cube.setSlicePermutation(rank);
+            assertEquals(rank, cube.getSlicePermutation());
+        }
+    }
+
+    private static Cube scramble(Random random, int moves) {
+        CubeMove[] values = CubeMove.values();
+        Cube cube = new Cube();
+        for (int i = 0; i < moves; i++) {
+            cube.apply(values[random.nextInt(values.length)]);
+        }
+        return cube;
+    }
+
+    private static int sum(byte[] values) {
+        int sum = 0;
+        for (byte value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,123 @@
+package com.rubik.toll.back.rubik.solver.twophase;
+
+import com.rubik.toll.back.puzzle.SolveTimeoutException;
+import com.rubik.toll.back.rubik.cube.Cube;
+import com.rubik.toll.back.rubik.cube.CubeMove;
+import com.rubik.toll.back.rubik.cube.Face;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TwoPhaseSolverTest {
+    private static final TwoPhaseTables TABLES = TwoPhaseTables.getDefault();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRandomScrambles() {
+        TwoPhaseSolver solver = new TwoPhaseSolver(TABLES);
+        Random random = new Random(7);
+        for (int round = 0; round < 30; round++) {
+            Cube cube = scramble(random, 40);
+            Cube copy = cube.clone();
+            CubeMove[] moves = solver.solve(cube);
+            assertArrayEquals(copy.getState(), cube.getState(), "求解不应修改魔方");
+            assertTrue(moves.length <= TwoPhaseSolver.DEFAULT_MAX_LENGTH, "解不应超过最大步数");
+            for (CubeMove move : moves) {
+                cube.apply(move);
+            }
+            assertTrue(cube.isSolved());
+        }
+    }
+
+    @Test
+    void testShortScramble() {
+        // 最大步数限制到打乱的步数，在这个范围内的搜索是完整的，一定能找到解
+        TwoPhaseSolver solver = new TwoPhaseSolver(TABLES);
+        Cube cube = new Cube();
+        CubeMove[] scramble = {CubeMove.R, CubeMove.U_PRIME, CubeMove.F2, CubeMove.L, CubeMove.D};
+        for (CubeMove move : scramble) {
+            cube.apply(move);
+        }
+        solver.setMaxLength(scramble.length);
+        CubeMove[] moves = solver.solve(cube);
+        assertTrue(moves.length <= scramble.length);
+        for (CubeMove move : moves) {
+            cube.apply(move);
+        }
+        assertTrue(cube.isSolved());
+
+        assertEquals(0, solver.solve(new Cube()).length, "已复原的魔方不需要转动");
+    }
+
+    @Test
+    void testUnsolvable() {
+        Cube cube = new Cube();
+        // 交换两个角块的贴纸相当于把角块原地扭转，颜色合法但无法复原
+        cube.setColor(Face.UP, 2, 2, Face.RIGHT.getColor());
+        cube.setColor(Face.RIGHT, 0, 0, Face.FRONT.getColor());
+        cube.setColor(Face.FRONT, 0, 2, Face.UP.getColor());
+        TwoPhaseSolver solver = new TwoPhaseSolver(TABLES);
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(cube));
+    }
+
+    @Test
+    void testTimeLimit() {
+        TwoPhaseSolver solver = new TwoPhaseSolver(TABLES);
+        // 随机状态的最短解通常是18步，限制到17步只能穷举，在时间上限内搜不完
+        solver.setMaxLength(17);
+        solver.setTimeLimit(1);
+        Cube cube = scramble(new Random(11), 40);
+        assertThrows(SolveTimeoutException.class, () -> solver.solve(cube));
+        assertThrows(IllegalArgumentException.class, () -> solver.setMaxLength(0));
+    }
+
+    @Test
+    void testSaveAndLoad() throws IOException {
+        Path file = tempDir.resolve("twophase.tables");
+        TABLES.save(file);
+        TwoPhaseTables loaded = TwoPhaseTables.load(file);
+        assertArrayEquals(TABLES.twistMove, loaded.twistMove);
+        assertArrayEquals(TABLES.slicePermutationMove, loaded.slicePermutationMove);
+        assertArrayEquals(TABLES.twistFlipDepth, loaded.twistFlipDepth);
+        assertArrayEquals(TABLES.sliceEdgeDepth, loaded.sliceEdgeDepth);
+
+        // 大小不变但内容被改动，校验失败
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        IOException corrupted = assertThrows(IOException.class, () -> TwoPhaseTables.load(file));
+        assertTrue(corrupted.getMessage().contains("校验"), corrupted.getMessage());
+
+        // 版本不符
+        bytes[bytes.length / 2] ^= 1;
+        ByteBuffer.wrap(bytes).putInt(4, TwoPhaseTables.VERSION + 1);
+        Files.write(file, bytes);
+        IOException version = assertThrows(IOException.class, () -> TwoPhaseTables.load(file));
+        assertTrue(version.getMessage().contains("版本"), version.getMessage());
+
+        // 损坏的缓存文件重新生成并覆盖
+        Files.write(file, new byte[16]);
+        assertThrows(IOException.class, () -> TwoPhaseTables.load(file));
+        TwoPhaseTables regenerated = TwoPhaseTables.loadOrGenerate(file);
+        assertArrayEquals(TABLES.sliceTwistDepth, regenerated.sliceTwistDepth);
+        assertArrayEquals(TABLES.sliceFlipDepth, TwoPhaseTables.load(file).sliceFlipDepth);
+    }
+
+    private static Cube scramble(Random random, int moves) {
+        CubeMove[] values = CubeMove.values();
+        Cube cube = new Cube();
+        for (int i = 0; i < moves; i++) {
+            cube.apply(values[random.nextInt(values.length)]);
+        }
+        return cube;
+    }
+}